@@ -0,0 +1,61 @@
+package com.risk.scoring.benchmark;
+
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.service.impl.AnomalyDetectionServiceImpl;
+import com.risk.scoring.service.impl.RiskScoringServiceImpl;
+import com.riskplatform.common.entity.Anomaly;
+import com.riskplatform.common.entity.RiskAssessment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code detectAnomalies} over assessments produced from the mixed payload set,
+ * feeding the per-customer rolling statistics as it goes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnomalyDetectionBenchmark {
+
+    private AnomalyDetectionServiceImpl anomalyDetectionService;
+    private List<RiskCalculationRequest> requests;
+    private List<RiskAssessment> assessments;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        anomalyDetectionService = BenchmarkFixtures.anomalyDetectionService();
+
+        RiskScoringServiceImpl riskScoringService = BenchmarkFixtures.riskScoringService();
+        requests = BenchmarkFixtures.requests();
+        assessments = new ArrayList<>(BenchmarkFixtures.PAYLOAD_COUNT);
+        for (RiskCalculationRequest request : requests) {
+            RiskAssessment assessment = riskScoringService.calculateRiskScore(request).getRiskAssessment();
+            assessment.setCustomerId(request.getCustomerId());
+            assessments.add(assessment);
+        }
+    }
+
+    @Benchmark
+    public List<Anomaly> detectAnomalies() {
+        int index = cursor;
+        cursor = (cursor + 1) & (BenchmarkFixtures.PAYLOAD_COUNT - 1);
+        return anomalyDetectionService.detectAnomalies(assessments.get(index), requests.get(index));
+    }
+}
@@ -0,0 +1,231 @@
+package com.risk.scoring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.risk.scoring.codec.AvroEventCodec;
+import com.risk.scoring.codec.EventCodec;
+import com.risk.scoring.codec.JsonEventCodec;
+import com.risk.scoring.codec.LocalSchemaRegistry;
+import com.risk.scoring.engine.ParallelFactorExecutor;
+import com.risk.scoring.engine.RiskFactorRegistry;
+import com.risk.scoring.engine.ShadowScorer;
+import com.risk.scoring.messaging.TransactionValidatedEvent;
+import com.risk.scoring.model.CustomerProfileData;
+import com.risk.scoring.model.VelocityData;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.model.enums.AccountStatus;
+import com.risk.scoring.model.enums.KycStatus;
+import com.risk.scoring.repository.CustomerAnomalyStateRepository;
+import com.risk.scoring.repository.RiskRuleRepository;
+import com.risk.scoring.rules.RiskRuleEngine;
+import com.risk.scoring.service.RiskFactorService;
+import com.risk.scoring.service.impl.AnomalyDetectionServiceImpl;
+import com.risk.scoring.service.impl.CustomerBehaviorRiskServiceImpl;
+import com.risk.scoring.service.impl.CustomerStatisticsServiceImpl;
+import com.risk.scoring.service.impl.GeographicRiskServiceImpl;
+import com.risk.scoring.service.impl.MerchantRiskServiceImpl;
+import com.risk.scoring.service.impl.RiskScoringServiceImpl;
+import com.risk.scoring.service.impl.TransactionRiskServiceImpl;
+import com.risk.scoring.service.impl.VelocityRiskServiceImpl;
+import com.riskplatform.common.model.Location;
+import org.mockito.Mockito;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Wires the scoring components by hand, without a Spring context, MongoDB or
+ * Kafka, and generates a deterministic, realistic mix of transactions.
+ */
+final class BenchmarkFixtures {
+
+    static final int PAYLOAD_COUNT = 1024;
+
+    private static final String[] COUNTRIES = { "US", "CA", "GB", "AU", "IN" };
+    private static final String[] SAFE_MERCHANTS = { "Grocery_Store", "Coffee_Shop", "Fuel_Station",
+            "Online_Retail", "Pharmacy", "Restaurant" };
+    private static final String[] RISKY_MERCHANTS = { "Crypto_Exchange", "Gambling_Site", "Wire_Transfer_Desk",
+            "Cash_Advance_Kiosk" };
+
+    private BenchmarkFixtures() {
+    }
+
+    static ObjectMapper objectMapper() {
+        // Mirrors the Spring Boot auto-configured mapper
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static EventCodec eventCodec(String name) throws Exception {
+        if (JsonEventCodec.NAME.equals(name)) {
+            JsonEventCodec codec = new JsonEventCodec();
+            ReflectionTestUtils.setField(codec, "objectMapper", objectMapper());
+            codec.init();
+            return codec;
+        }
+
+        LocalSchemaRegistry registry = new LocalSchemaRegistry();
+        ReflectionTestUtils.setField(registry, "registryResource", new ClassPathResource("schemas/registry.json"));
+        ReflectionTestUtils.setField(registry, "objectMapper", objectMapper());
+        registry.init();
+
+        AvroEventCodec codec = new AvroEventCodec();
+        ReflectionTestUtils.setField(codec, "schemaRegistry", registry);
+        return codec;
+    }
+
+    static RiskRuleEngine riskRuleEngine() {
+        RiskRuleEngine engine = new RiskRuleEngine();
+        ReflectionTestUtils.setField(engine, "riskRuleRepository", Mockito.mock(RiskRuleRepository.class));
+        ReflectionTestUtils.setField(engine, "amountMultiplier", 3.0);
+        ReflectionTestUtils.setField(engine, "dailyLimitThreshold", 0.8);
+        ReflectionTestUtils.setField(engine, "newCustomerDays", 30);
+        ReflectionTestUtils.setField(engine, "failedTransactionsThreshold", 3);
+        ReflectionTestUtils.setField(engine, "dormantDays", 90);
+        ReflectionTestUtils.setField(engine, "oneHourThreshold", 20);
+        ReflectionTestUtils.setField(engine, "oneDayThreshold", 100);
+        ReflectionTestUtils.setField(engine, "oneDayMediumThreshold", 50);
+        ReflectionTestUtils.setField(engine, "impossibleTravelDistance", 1000.0);
+        ReflectionTestUtils.setField(engine, "impossibleTravelTime", 1L);
+        ReflectionTestUtils.setField(engine, "highRiskDistance", 500.0);
+        ReflectionTestUtils.setField(engine, "highRiskTime", 2L);
+        ReflectionTestUtils.setField(engine, "highRiskCategories",
+                new String[] { "Drugs", "Weapons", "Gambling", "Dark_Web" });
+        ReflectionTestUtils.setField(engine, "mediumRiskCategories",
+                new String[] { "Cash_Advance", "Wire_Transfer", "Crypto" });
+        engine.init();
+        return engine;
+    }
+
+    static Map<String, RiskFactorService> riskFactorServices(RiskRuleEngine engine) {
+        List<RiskFactorService> services = List.of(new TransactionRiskServiceImpl(),
+                new CustomerBehaviorRiskServiceImpl(), new VelocityRiskServiceImpl(), new GeographicRiskServiceImpl(),
+                new MerchantRiskServiceImpl());
+        Map<String, RiskFactorService> byName = new java.util.LinkedHashMap<>();
+        for (RiskFactorService service : services) {
+            ReflectionTestUtils.setField(service, "riskRuleEngine", engine);
+            byName.put(service.getFactorName(), service);
+        }
+        return byName;
+    }
+
+    static RiskScoringServiceImpl riskScoringService() {
+        Map<String, RiskFactorService> factors = riskFactorServices(riskRuleEngine());
+
+        RiskFactorRegistry registry = new RiskFactorRegistry();
+        ReflectionTestUtils.setField(registry, "riskFactorServices", new ArrayList<>(factors.values()));
+        ReflectionTestUtils.setField(registry, "environment", new StandardEnvironment());
+        registry.init();
+
+        RiskScoringServiceImpl scoringService = new RiskScoringServiceImpl();
+        ReflectionTestUtils.setField(scoringService, "riskFactorRegistry", registry);
+        ReflectionTestUtils.setField(scoringService, "parallelFactorExecutor", new ParallelFactorExecutor());
+        ReflectionTestUtils.setField(scoringService, "shadowScorer", new ShadowScorer());
+        return scoringService;
+    }
+
+    static AnomalyDetectionServiceImpl anomalyDetectionService() {
+        CustomerStatisticsServiceImpl statistics = new CustomerStatisticsServiceImpl();
+        ReflectionTestUtils.setField(statistics, "maxCustomers", 100_000);
+        ReflectionTestUtils.setField(statistics, "segments", 64);
+        ReflectionTestUtils.setField(statistics, "idleEvictionHours", 0);
+        ReflectionTestUtils.setField(statistics, "minSamples", 10);
+        ReflectionTestUtils.setField(statistics, "amountAlpha", 0.1);
+        ReflectionTestUtils.setField(statistics, "amountZMedium", 3.0);
+        ReflectionTestUtils.setField(statistics, "amountZHigh", 5.0);
+        ReflectionTestUtils.setField(statistics, "velocityRatioMedium", 3.0);
+        ReflectionTestUtils.setField(statistics, "velocityRatioHigh", 5.0);
+        ReflectionTestUtils.setField(statistics, "merchantRareShare", 0.02);
+        ReflectionTestUtils.setField(statistics, "customerAnomalyStateRepository",
+                Mockito.mock(CustomerAnomalyStateRepository.class));
+        statistics.init();
+
+        AnomalyDetectionServiceImpl service = new AnomalyDetectionServiceImpl();
+        ReflectionTestUtils.setField(service, "customerStatisticsService", statistics);
+        return service;
+    }
+
+    /**
+     * Roughly 70% routine, 20% elevated and 10% clearly risky transactions.
+     */
+    static List<RiskCalculationRequest> requests() {
+        Random random = new Random(42);
+        Instant now = Instant.now();
+        List<RiskCalculationRequest> requests = new ArrayList<>(PAYLOAD_COUNT);
+
+        for (int i = 0; i < PAYLOAD_COUNT; i++) {
+            int bucket = random.nextInt(10);
+            boolean risky = bucket == 0;
+            boolean elevated = bucket <= 2;
+
+            String homeCountry = COUNTRIES[random.nextInt(COUNTRIES.length)];
+            String country = risky ? "SY" : homeCountry;
+
+            CustomerProfileData profile = new CustomerProfileData();
+            profile.setRegistrationDate(now.minus(risky ? 10 : 400 + random.nextInt(2000), ChronoUnit.DAYS));
+            profile.setKycStatus(KycStatus.VERIFIED);
+            profile.setAllowedCountries(List.of(COUNTRIES));
+            profile.setDailyLimit(5000.0);
+            profile.setAvgTransactionAmount(100.0 + random.nextInt(900));
+            profile.setAccountStatus(AccountStatus.ACTIVE);
+            profile.setFraudHistory(risky && random.nextBoolean());
+            profile.setFailedTransactionsLast7Days(elevated ? random.nextInt(6) : 0);
+            profile.setLastVerifiedLocation(location(homeCountry));
+            profile.setLastTransactionTime(now.minus(risky ? 20 : 300 + random.nextInt(5000), ChronoUnit.MINUTES));
+
+            RiskCalculationRequest request = new RiskCalculationRequest();
+            request.setTransactionId("T" + String.format("%06d", i) + "0001");
+            request.setCustomerId("C" + random.nextInt(200));
+            request.setAmount(elevated ? 2000.0 + random.nextInt(4000) : 10.0 + random.nextInt(500));
+            request.setMerchant(elevated ? RISKY_MERCHANTS[random.nextInt(RISKY_MERCHANTS.length)]
+                    : SAFE_MERCHANTS[random.nextInt(SAFE_MERCHANTS.length)]);
+            request.setMerchantCategory(request.getMerchant().split("_")[0]);
+            request.setLocation(location(country));
+            request.setTimestamp(now.minus(random.nextInt(86_400), ChronoUnit.SECONDS));
+            request.setCustomerProfile(profile);
+            request.setVelocityData(new VelocityData(elevated ? 5 + random.nextInt(30) : random.nextInt(5),
+                    elevated ? 40 + random.nextInt(100) : random.nextInt(30)));
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    static List<TransactionValidatedEvent> events(List<RiskCalculationRequest> requests) {
+        List<TransactionValidatedEvent> events = new ArrayList<>(requests.size());
+        for (RiskCalculationRequest request : requests) {
+            TransactionValidatedEvent event = new TransactionValidatedEvent();
+            event.setEventId("EVT-" + request.getTransactionId());
+            event.setTransactionId(request.getTransactionId());
+            event.setCustomerId(request.getCustomerId());
+            event.setAmount(request.getAmount());
+            event.setCurrency("USD");
+            event.setMerchant(request.getMerchant());
+            event.setMerchantCategory(request.getMerchantCategory());
+            event.setLocation(request.getLocation());
+            event.setTimestamp(request.getTimestamp());
+            event.setChannel("MOBILE");
+            event.setDevice("device-" + request.getCustomerId());
+            event.setEventType("TransactionValidated");
+            event.setEventTimestamp(request.getTimestamp());
+            event.setCorrelationId("corr-" + request.getTransactionId());
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static Location location(String country) {
+        Location location = new Location();
+        location.setCountry(country);
+        return location;
+    }
+}
@@ -0,0 +1,48 @@
+package com.risk.scoring.benchmark;
+
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.model.dto.RiskCalculationResponse;
+import com.risk.scoring.service.impl.RiskScoringServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code calculateRiskScore} over the mixed payload set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskScoringBenchmark {
+
+    private RiskScoringServiceImpl riskScoringService;
+    private List<RiskCalculationRequest> requests;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        riskScoringService = BenchmarkFixtures.riskScoringService();
+        requests = BenchmarkFixtures.requests();
+    }
+
+    @Benchmark
+    public RiskCalculationResponse calculateRiskScore() {
+        RiskCalculationRequest request = requests.get(cursor);
+        cursor = (cursor + 1) & (BenchmarkFixtures.PAYLOAD_COUNT - 1);
+        return riskScoringService.calculateRiskScore(request);
+    }
+}
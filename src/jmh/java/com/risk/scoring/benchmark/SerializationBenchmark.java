@@ -0,0 +1,77 @@
+package com.risk.scoring.benchmark;
+
+import com.risk.scoring.codec.EventCodec;
+import com.risk.scoring.messaging.TransactionValidatedEvent;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.service.impl.RiskScoringServiceImpl;
+import com.riskplatform.common.entity.RiskAssessment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The consume-side decode of {@code TransactionValidatedEvent} and the
+ * produce-side encode of {@code RiskAssessment}, for each wire codec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "json", "avro" })
+    private String codecName;
+
+    private EventCodec codec;
+    private List<byte[]> eventPayloads;
+    private List<RiskAssessment> assessments;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        codec = BenchmarkFixtures.eventCodec(codecName);
+
+        List<RiskCalculationRequest> requests = BenchmarkFixtures.requests();
+        eventPayloads = new ArrayList<>(requests.size());
+        for (TransactionValidatedEvent event : BenchmarkFixtures.events(requests)) {
+            eventPayloads.add(codec.encode(event));
+        }
+
+        RiskScoringServiceImpl riskScoringService = BenchmarkFixtures.riskScoringService();
+        assessments = new ArrayList<>(requests.size());
+        for (RiskCalculationRequest request : requests) {
+            RiskAssessment assessment = riskScoringService.calculateRiskScore(request).getRiskAssessment();
+            assessment.setCustomerId(request.getCustomerId());
+            assessments.add(assessment);
+        }
+    }
+
+    @Benchmark
+    public TransactionValidatedEvent deserializeTransactionValidatedEvent() throws Exception {
+        byte[] payload = eventPayloads.get(cursor);
+        cursor = (cursor + 1) & (BenchmarkFixtures.PAYLOAD_COUNT - 1);
+        return codec.decode(payload, TransactionValidatedEvent.class);
+    }
+
+    @Benchmark
+    public byte[] serializeRiskAssessment() throws Exception {
+        RiskAssessment assessment = assessments.get(cursor);
+        cursor = (cursor + 1) & (BenchmarkFixtures.PAYLOAD_COUNT - 1);
+        return codec.encode(assessment);
+    }
+}
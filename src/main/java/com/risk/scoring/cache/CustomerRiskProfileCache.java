@@ -0,0 +1,349 @@
+package com.risk.scoring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.risk.scoring.repository.CustomerRiskProfileRepository;
+import com.riskplatform.common.entity.CustomerRiskProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Size-bounded cache of customer risk profiles.
+ *
+ * Reads are served from a Caffeine (W-TinyLFU) cache. Profiles are held as
+ * BSON snapshots: every read returns a fresh instance and every put copies the
+ * caller's, so no two threads ever share a mutable profile. Entries expire
+ * {@code expire-after-write-ms} after they were loaded or written, and the
+ * whole cache is dropped when this instance is assigned new partitions, so
+ * profiles last written elsewhere are not served for long.
+ *
+ * Every write is conditional on the version the cache last saw for the
+ * profile, and stores a higher one. A profile changed by someone else in the
+ * meantime is not overwritten: its cached copy is dropped, and a write-through
+ * fails with an {@link OptimisticLockingFailureException} so the transaction
+ * is retried against the current profile.
+ *
+ * Saves are written through unless {@code write-behind} is enabled. Then
+ * single-profile saves only mark the profile dirty, and dirty profiles are
+ * written back in one bulk upsert per flush, either on a timer or as soon as
+ * the dirty count reaches the threshold. A customer updated many times within
+ * a flush window costs a single write, but the records behind those updates
+ * are acknowledged before the flush, so a crash loses them until the profile
+ * is rebuilt from the event store.
+ */
+@Component
+@Slf4j
+public class CustomerRiskProfileCache {
+
+    private static final String CACHE_NAME = "customerRiskProfiles";
+
+    @Value("${risk.scoring.profile.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${risk.scoring.profile.cache.max-size:500000}")
+    private long maxSize;
+
+    @Value("${risk.scoring.profile.cache.expire-after-write-ms:60000}")
+    private long expireAfterWriteMs;
+
+    @Value("${risk.scoring.profile.cache.write-behind:false}")
+    private boolean writeBehind;
+
+    @Value("${risk.scoring.profile.cache.flush-threshold:5000}")
+    private int flushThreshold;
+
+    @Autowired
+    private CustomerRiskProfileRepository customerRiskProfileRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, DirtyProfile> dirtyProfiles = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "profile-cache-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Cache<String, Document> cache;
+    private Timer flushTimer;
+    private Counter versionConflicts;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("risk.profile.cache.dirty", dirtyProfiles, Map::size)
+                .description("Profiles waiting to be flushed to MongoDB")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("risk.profile.cache.flush")
+                .description("Latency of write-behind profile flushes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        versionConflicts = Counter.builder("risk.profile.cache.version-conflicts")
+                .description("Profile writes skipped because the stored profile had changed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public Optional<CustomerRiskProfile> get(String customerId) {
+        return Optional.ofNullable(toProfile(cache.get(customerId, id -> {
+            // A profile still waiting for a flush is newer than the stored one
+            DirtyProfile dirty = dirtyProfiles.get(id);
+            return dirty != null ? dirty.document
+                    : toDocument(customerRiskProfileRepository.findByCustomerId(id).orElse(null));
+        })));
+    }
+
+    public Map<String, CustomerRiskProfile> getAll(Collection<String> customerIds) {
+        Map<String, Document> documents = cache.getAll(customerIds, missing -> {
+            Map<String, Document> loaded = new HashMap<>();
+            List<String> toLoad = new ArrayList<>();
+            for (String customerId : missing) {
+                DirtyProfile dirty = dirtyProfiles.get(customerId);
+                if (dirty != null) {
+                    loaded.put(customerId, dirty.document);
+                } else {
+                    toLoad.add(customerId);
+                }
+            }
+            if (!toLoad.isEmpty()) {
+                for (CustomerRiskProfile profile : customerRiskProfileRepository.findByCustomerIdIn(toLoad)) {
+                    loaded.put(profile.getCustomerId(), toDocument(profile));
+                }
+            }
+            return loaded;
+        });
+        Map<String, CustomerRiskProfile> profiles = new HashMap<>();
+        documents.forEach((customerId, document) -> profiles.put(customerId, toProfile(document)));
+        return profiles;
+    }
+
+    /**
+     * Caches a copy of the profile and schedules it for the next write-behind
+     * flush; the caller keeps its own instance.
+     */
+    public void putDirty(CustomerRiskProfile profile) {
+        String customerId = profile.getCustomerId();
+        Long baseVersion = baseVersion(customerId);
+        Document document = toVersionedDocument(profile, baseVersion);
+        cache.put(customerId, document);
+        // Successive saves before a flush are written over the version the first one saw
+        dirtyProfiles.merge(customerId, new DirtyProfile(document, baseVersion),
+                (pending, next) -> new DirtyProfile(next.document, pending.baseVersion));
+
+        if (dirtyProfiles.size() >= flushThreshold && !flushing.get()) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes the profiles through immediately and caches copies of them as
+     * clean. Used by callers that must not acknowledge work until it is durable.
+     */
+    public void putAllAndWrite(Collection<CustomerRiskProfile> profiles) {
+        if (profiles.isEmpty()) {
+            return;
+        }
+
+        Map<String, Document> documents = new HashMap<>();
+        Map<String, Long> expectedVersions = new HashMap<>();
+        List<CustomerRiskProfile> versioned = new ArrayList<>(profiles.size());
+        for (CustomerRiskProfile profile : profiles) {
+            String customerId = profile.getCustomerId();
+            Long baseVersion = baseVersion(customerId);
+            Document document = toVersionedDocument(profile, baseVersion);
+            documents.put(customerId, document);
+            expectedVersions.put(customerId, baseVersion);
+            versioned.add(toProfile(document));
+        }
+
+        Set<String> conflicts = customerRiskProfileRepository.bulkUpsertProfiles(versioned, expectedVersions);
+        documents.forEach((customerId, document) -> {
+            if (!conflicts.contains(customerId)) {
+                cache.put(customerId, document);
+                // Supersedes any copy still waiting for a flush
+                dirtyProfiles.remove(customerId);
+            }
+        });
+        if (!conflicts.isEmpty()) {
+            dropConflicts(conflicts);
+            throw new OptimisticLockingFailureException(conflicts.size()
+                    + " customer risk profiles were changed concurrently: " + conflicts);
+        }
+    }
+
+    /**
+     * Drops the cached copies of profiles that were updated in place in
+     * MongoDB, so the next read loads them again.
+     */
+    public void invalidateAll(Collection<String> customerIds) {
+        cache.invalidateAll(customerIds);
+    }
+
+    /**
+     * Drops every cached profile, e.g. once customers may have moved here from
+     * another instance. Profiles waiting for a flush are kept.
+     */
+    public void invalidateAll() {
+        if (enabled) {
+            cache.invalidateAll();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${risk.scoring.profile.cache.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled || dirtyProfiles.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+
+        Map<String, DirtyProfile> pending = new HashMap<>();
+        Map<String, Long> expectedVersions = new HashMap<>();
+        List<CustomerRiskProfile> batch = new ArrayList<>(dirtyProfiles.size());
+        try {
+            for (String customerId : dirtyProfiles.keySet()) {
+                DirtyProfile dirty = dirtyProfiles.remove(customerId);
+                if (dirty != null) {
+                    pending.put(customerId, dirty);
+                    expectedVersions.put(customerId, dirty.baseVersion);
+                    batch.add(toProfile(dirty.document));
+                }
+            }
+
+            long start = System.nanoTime();
+            Set<String> conflicts = customerRiskProfileRepository.bulkUpsertProfiles(batch, expectedVersions);
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!conflicts.isEmpty()) {
+                // Their records are already acknowledged; the updates are lost until the profile is rebuilt
+                log.warn("Dropped {} dirty customer risk profiles changed concurrently: {}", conflicts.size(),
+                        conflicts);
+                dropConflicts(conflicts);
+            }
+            log.debug("Flushed {} dirty customer risk profiles", batch.size() - conflicts.size());
+        } catch (Exception e) {
+            // Put the batch back; a newer copy marked dirty meanwhile wins but keeps the older base version
+            pending.forEach((customerId, dirty) -> dirtyProfiles.merge(customerId, dirty,
+                    (newer, failed) -> new DirtyProfile(newer.document, failed.baseVersion)));
+            log.error("Failed to flush {} customer risk profiles, will retry", batch.size(), e);
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void dropConflicts(Set<String> customerIds) {
+        versionConflicts.increment(customerIds.size());
+        cache.invalidateAll(customerIds);
+    }
+
+    /**
+     * The version the next write of the profile expects to replace: that of a
+     * copy still waiting for a flush, else that of the cached copy. Null when
+     * neither is known, and the write is then unconditional.
+     */
+    private Long baseVersion(String customerId) {
+        DirtyProfile dirty = dirtyProfiles.get(customerId);
+        if (dirty != null) {
+            return dirty.baseVersion;
+        }
+        return versionOf(cache.getIfPresent(customerId));
+    }
+
+    /**
+     * Copies the profile, raising its version past the one it replaces if the
+     * caller did not.
+     */
+    private Document toVersionedDocument(CustomerRiskProfile profile, Long baseVersion) {
+        Document document = toDocument(profile);
+        Long version = versionOf(document);
+        if (baseVersion != null && (version == null || version <= baseVersion)) {
+            document.put("version", baseVersion + 1);
+        }
+        return document;
+    }
+
+    private static Long versionOf(Document document) {
+        return document != null && document.get("version") instanceof Number version ? version.longValue() : null;
+    }
+
+    private Document toDocument(CustomerRiskProfile profile) {
+        if (profile == null) {
+            return null;
+        }
+        Document document = new Document();
+        mongoTemplate.getConverter().write(profile, document);
+        return document;
+    }
+
+    private CustomerRiskProfile toProfile(Document document) {
+        return document != null ? mongoTemplate.getConverter().read(CustomerRiskProfile.class, document) : null;
+    }
+
+    private static final class DirtyProfile {
+        private final Document document;
+        // Version of the profile the document replaces, null if unknown
+        private final Long baseVersion;
+
+        private DirtyProfile(Document document, Long baseVersion) {
+            this.document = document;
+            this.baseVersion = baseVersion;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.risk.scoring.codec;
+
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avro binary encoding against the schemas in {@link LocalSchemaRegistry}.
+ *
+ * Wire format: one {@link #MAGIC_BYTE}, the writer schema id as a big-endian
+ * int, then the Avro-encoded record. Records written with an older schema
+ * version are resolved against the latest one on read. Properties that the
+ * schema does not declare are dropped on write, so the schema is the contract
+ * rather than the entity class. Instants travel as epoch milliseconds.
+ */
+@Component
+public class AvroEventCodec implements EventCodec {
+
+    public static final String NAME = "avro";
+
+    public static final byte MAGIC_BYTE = 0x0;
+
+    private static final int HEADER_LENGTH = 5;
+
+    @Autowired
+    private LocalSchemaRegistry schemaRegistry;
+
+    private final AvroMapper avroMapper = AvroMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(StreamWriteFeature.IGNORE_UNKNOWN)
+            .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+            .disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final Map<Integer, ObjectWriter> writersBySchemaId = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<Integer, ObjectReader>> readersByType = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws IOException {
+        RegisteredSchema schema = schemaRegistry.getLatest(payload.getClass().getSimpleName());
+        ObjectWriter writer = writersBySchemaId.computeIfAbsent(schema.getId(),
+                id -> avroMapper.writer(schema.getSchema()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(MAGIC_BYTE);
+        int id = schema.getId();
+        out.write(id >>> 24);
+        out.write(id >>> 16);
+        out.write(id >>> 8);
+        out.write(id);
+        writer.writeValue(out, payload);
+        return out.toByteArray();
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) throws IOException {
+        if (!isAvro(data)) {
+            throw new IOException("Missing Avro header");
+        }
+        int writerSchemaId = ((data[1] & 0xFF) << 24) | ((data[2] & 0xFF) << 16) | ((data[3] & 0xFF) << 8)
+                | (data[4] & 0xFF);
+
+        ObjectReader reader = readersByType.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(writerSchemaId, id -> avroMapper.readerFor(type).with(resolve(id, type)));
+        return reader.readValue(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+    }
+
+    public static boolean isAvro(byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH && data[0] == MAGIC_BYTE;
+    }
+
+    private AvroSchema resolve(int writerSchemaId, Class<?> type) {
+        RegisteredSchema writerSchema = schemaRegistry.getById(writerSchemaId);
+        RegisteredSchema readerSchema = schemaRegistry.getLatest(type.getSimpleName());
+        if (writerSchema.getId() == readerSchema.getId()) {
+            return writerSchema.getSchema();
+        }
+        try {
+            return writerSchema.getSchema().withReaderSchema(readerSchema.getSchema());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Schema " + writerSchemaId + " cannot be read as "
+                    + readerSchema.getSubject() + " v" + readerSchema.getVersion(), e);
+        }
+    }
+}
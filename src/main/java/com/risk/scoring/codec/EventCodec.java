@@ -0,0 +1,15 @@
+package com.risk.scoring.codec;
+
+import java.io.IOException;
+
+/**
+ * Turns event payloads into Kafka record values and back.
+ */
+public interface EventCodec {
+
+    String getName();
+
+    byte[] encode(Object payload) throws IOException;
+
+    <T> T decode(byte[] data, Class<T> type) throws IOException;
+}
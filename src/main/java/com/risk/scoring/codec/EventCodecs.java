@@ -0,0 +1,61 @@
+package com.risk.scoring.codec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chooses the codec per topic from {@code kafka.codecs.<topic>} (falling back
+ * to {@code kafka.codecs.default}). Decoding does not depend on the setting:
+ * Avro records are recognised by their header and anything else is read as
+ * JSON, so a topic can be switched while older records are still in flight.
+ */
+@Component
+public class EventCodecs {
+
+    @Autowired
+    private List<EventCodec> codecs;
+
+    @Autowired
+    private JsonEventCodec jsonEventCodec;
+
+    @Autowired
+    private AvroEventCodec avroEventCodec;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${kafka.codecs.default:json}")
+    private String defaultCodec;
+
+    private final Map<String, EventCodec> codecsByTopic = new ConcurrentHashMap<>();
+
+    public byte[] encode(String topic, Object payload) throws IOException {
+        return codecFor(topic).encode(payload);
+    }
+
+    public <T> T decode(byte[] data, Class<T> type) throws IOException {
+        if (AvroEventCodec.isAvro(data)) {
+            return avroEventCodec.decode(data, type);
+        }
+        return jsonEventCodec.decode(data, type);
+    }
+
+    public EventCodec codecFor(String topic) {
+        return codecsByTopic.computeIfAbsent(topic, key -> {
+            String name = environment.getProperty("kafka.codecs." + key, defaultCodec);
+            for (EventCodec codec : codecs) {
+                if (codec.getName().equalsIgnoreCase(name)) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException("Unknown codec '" + name + "' for topic " + key);
+        });
+    }
+}
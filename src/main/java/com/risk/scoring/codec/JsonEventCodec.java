@@ -0,0 +1,44 @@
+package com.risk.scoring.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Plain Jackson JSON, as used before the binary codec was introduced; kept for
+ * consumers that have not moved to Avro.
+ */
+@Component
+public class JsonEventCodec implements EventCodec {
+
+    public static final String NAME = "json";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter objectWriter;
+
+    @PostConstruct
+    public void init() {
+        objectWriter = objectMapper.writer();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws IOException {
+        return objectWriter.writeValueAsBytes(payload);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) throws IOException {
+        return objectMapper.readValue(data, type);
+    }
+}
@@ -0,0 +1,84 @@
+package com.risk.scoring.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned Avro schemas loaded from a registry file shipped with the service.
+ * Every schema has a numeric id, which is written in front of each encoded
+ * record, and belongs to a subject (the payload's simple class name); the
+ * highest version of a subject is the one used for writing and as the reader
+ * schema when decoding older versions.
+ */
+@Component
+@Slf4j
+public class LocalSchemaRegistry {
+
+    @Value("${kafka.codec.schema-registry:classpath:schemas/registry.json}")
+    private Resource registryResource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Integer, RegisteredSchema> schemasById = new HashMap<>();
+    private final Map<String, RegisteredSchema> latestBySubject = new HashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        JsonNode registry;
+        try (InputStream in = registryResource.getInputStream()) {
+            registry = objectMapper.readTree(in);
+        }
+
+        for (JsonNode entry : registry.path("schemas")) {
+            int id = entry.path("id").asInt();
+            String subject = entry.path("subject").asText();
+            int version = entry.path("version").asInt();
+
+            Schema schema;
+            try (InputStream in = registryResource.createRelative(entry.path("file").asText()).getInputStream()) {
+                // A fresh parser per file, since versions of a subject reuse record names
+                schema = new Schema.Parser().parse(in);
+            }
+
+            RegisteredSchema registered = new RegisteredSchema(id, subject, version, new AvroSchema(schema));
+            if (schemasById.putIfAbsent(id, registered) != null) {
+                throw new IllegalStateException("Duplicate schema id " + id + " in " + registryResource);
+            }
+            latestBySubject.merge(subject, registered,
+                    (current, candidate) -> candidate.getVersion() > current.getVersion() ? candidate : current);
+        }
+
+        latestBySubject.values().forEach(schema -> log.info("Registered schema {} v{} (id {})",
+                schema.getSubject(), schema.getVersion(), schema.getId()));
+    }
+
+    public RegisteredSchema getById(int id) {
+        RegisteredSchema schema = schemasById.get(id);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown schema id " + id);
+        }
+        return schema;
+    }
+
+    public RegisteredSchema getLatest(String subject) {
+        RegisteredSchema schema = latestBySubject.get(subject);
+        if (schema == null) {
+            throw new IllegalArgumentException("No schema registered for subject " + subject);
+        }
+        return schema;
+    }
+}
@@ -0,0 +1,12 @@
+package com.risk.scoring.codec;
+
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+import lombok.Value;
+
+@Value
+public class RegisteredSchema {
+    int id;
+    String subject;
+    int version;
+    AvroSchema schema;
+}
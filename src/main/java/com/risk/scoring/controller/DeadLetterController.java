@@ -0,0 +1,46 @@
+package com.risk.scoring.controller;
+
+import com.risk.scoring.messaging.DeadLetterReplayService;
+import com.risk.scoring.model.dto.DeadLetterReplayResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/dead-letters")
+@Tag(name = "Dead Letters", description = "Endpoints for re-processing transaction events that exhausted their retries")
+@Slf4j
+public class DeadLetterController {
+
+    private static final int MAX_REPLAY_RECORDS = 10000;
+
+    @Autowired
+    private DeadLetterReplayService deadLetterReplayService;
+
+    @PostMapping("/replay")
+    @Operation(summary = "Replay dead letters", description = "Re-publishes dead-lettered transaction-validated records to the main topic, oldest first; each record is replayed once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Records replayed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = DeadLetterReplayResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid number of records"),
+            @ApiResponse(responseCode = "500", description = "Internal server error") })
+    public ResponseEntity<DeadLetterReplayResponse> replayDeadLetters(
+            @Parameter(description = "Maximum number of records to replay", example = "1000") @RequestParam(defaultValue = "1000") int maxRecords) {
+        if (maxRecords < 1 || maxRecords > MAX_REPLAY_RECORDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(deadLetterReplayService.replay(maxRecords));
+        } catch (Exception e) {
+            log.error("Dead-letter replay failed: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
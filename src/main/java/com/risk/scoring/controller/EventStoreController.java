@@ -0,0 +1,132 @@
+package com.risk.scoring.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.risk.scoring.model.dto.EventPage;
+import com.risk.scoring.service.EventStoreService;
+import com.riskplatform.common.entity.EventStoreEntry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@RestController
+@RequestMapping("/api/v1/events")
+@Tag(name = "Event Store", description = "Endpoints for reading and exporting stored risk events")
+@Slf4j
+public class EventStoreController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
+    @Autowired
+    private EventStoreService eventStoreService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @GetMapping("/customer/{customerId}")
+    @Operation(summary = "List customer events", description = "Lists a customer's events in [from, to) ordered by timestamp, one keyset page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Events retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = EventPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid range, limit or continuation token"),
+            @ApiResponse(responseCode = "500", description = "Internal server error") })
+    public ResponseEntity<EventPage> getCustomerEvents(
+            @Parameter(description = "ID of the customer", required = true) @PathVariable String customerId,
+            @Parameter(description = "Inclusive start (ISO-8601 instant)", required = true) @RequestParam Instant from,
+            @Parameter(description = "Exclusive end (ISO-8601 instant)", required = true) @RequestParam Instant to,
+            @Parameter(description = "Token returned by the previous page") @RequestParam(required = false) String continuationToken,
+            @Parameter(description = "Page size", example = "100") @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE || !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(eventStoreService.getEventsByCustomerId(customerId, from, to,
+                    continuationToken, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/type/{eventType}")
+    @Operation(summary = "List events by type", description = "Lists events of one type in [from, to) ordered by timestamp, one keyset page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Events retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = EventPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid range, limit or continuation token"),
+            @ApiResponse(responseCode = "500", description = "Internal server error") })
+    public ResponseEntity<EventPage> getEventsByType(
+            @Parameter(description = "Event type", required = true, example = "RiskScoreCalculated") @PathVariable String eventType,
+            @Parameter(description = "Inclusive start (ISO-8601 instant)", required = true) @RequestParam Instant from,
+            @Parameter(description = "Exclusive end (ISO-8601 instant)", required = true) @RequestParam Instant to,
+            @Parameter(description = "Token returned by the previous page") @RequestParam(required = false) String continuationToken,
+            @Parameter(description = "Page size", example = "100") @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE || !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(eventStoreService.getEventsByEventType(eventType, from, to,
+                    continuationToken, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping(value = "/type/{eventType}/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export events by type", description = "Streams every event of one type in [from, to) as newline-delimited JSON, straight from a database cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid range") })
+    public ResponseEntity<StreamingResponseBody> exportEventsByType(
+            @Parameter(description = "Event type", required = true, example = "RiskScoreCalculated") @PathVariable String eventType,
+            @Parameter(description = "Inclusive start (ISO-8601 instant)", required = true) @RequestParam Instant from,
+            @Parameter(description = "Exclusive end (ISO-8601 instant)", required = true) @RequestParam Instant to) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+
+        StreamingResponseBody body = out -> {
+            long exported = 0;
+            try (Stream<EventStoreEntry> events = eventStoreService.streamEventsByEventType(eventType, from, to);
+                    SequenceWriter sequence = writer.writeValues(out)) {
+                Iterator<EventStoreEntry> iterator = events.iterator();
+                while (iterator.hasNext()) {
+                    sequence.write(iterator.next());
+                    if (++exported % EXPORT_FLUSH_INTERVAL == 0) {
+                        sequence.flush();
+                    }
+                }
+            }
+            if (exported > 0) {
+                out.write('\n');
+            }
+            log.info("Exported {} {} events between {} and {}", exported, eventType, from, to);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+}
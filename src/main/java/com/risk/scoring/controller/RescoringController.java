@@ -0,0 +1,80 @@
+package com.risk.scoring.controller;
+
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.dto.RescoringJobRequest;
+import com.risk.scoring.service.RescoringService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/rescoring/jobs")
+@Tag(name = "Rescoring", description = "Endpoints for offline bulk rescoring of historical transactions")
+@Slf4j
+public class RescoringController {
+
+    @Autowired
+    private RescoringService rescoringService;
+
+    @PostMapping
+    @Operation(summary = "Start a rescoring job", description = "Rescores RiskScoreCalculated events in a time range, or an NDJSON file of risk calculation requests, with the current scoring configuration and writes the results to rescoringResults or a CSV file; no profiles, events or alerts are produced")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job started", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RescoringJob.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid job request"),
+            @ApiResponse(responseCode = "500", description = "Internal server error") })
+    public ResponseEntity<RescoringJob> startJob(
+            @Parameter(description = "Rescoring job request", required = true) @Valid @RequestBody RescoringJobRequest request) {
+        try {
+            return ResponseEntity.ok(rescoringService.startJob(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Could not start rescoring job: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get a rescoring job", description = "Returns the job's status, counters and last checkpoint")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RescoringJob.class))),
+            @ApiResponse(responseCode = "404", description = "Job not found") })
+    public ResponseEntity<RescoringJob> getJob(
+            @Parameter(description = "ID of the job", required = true) @PathVariable String jobId) {
+        return rescoringService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{jobId}/resume")
+    @Operation(summary = "Resume a rescoring job", description = "Continues a failed, cancelled or abandoned job from its last checkpoint")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job resumed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RescoringJob.class))),
+            @ApiResponse(responseCode = "409", description = "Job is completed, unknown or still running") })
+    public ResponseEntity<RescoringJob> resumeJob(
+            @Parameter(description = "ID of the job", required = true) @PathVariable String jobId) {
+        RescoringJob job = rescoringService.resumeJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    @Operation(summary = "Cancel a rescoring job", description = "Stops a running job at its next checkpoint; it can be resumed later")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job cancelled"),
+            @ApiResponse(responseCode = "409", description = "Job is not running") })
+    public ResponseEntity<Void> cancelJob(
+            @Parameter(description = "ID of the job", required = true) @PathVariable String jobId) {
+        return rescoringService.cancelJob(jobId) ? ResponseEntity.ok().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
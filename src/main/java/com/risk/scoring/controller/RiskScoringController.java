@@ -1,11 +1,14 @@
 package com.risk.scoring.controller;
 
 import com.riskplatform.common.entity.Anomaly;
+import com.riskplatform.common.entity.CustomerRiskProfile;
 import com.risk.scoring.model.dto.*;
+import com.risk.scoring.service.BatchScoringService;
 import com.risk.scoring.service.RiskScoringService;
 import com.risk.scoring.service.CustomerRiskProfileService;
 import com.risk.scoring.service.AnomalyDetectionService;
 import com.risk.scoring.service.RiskRuleService;
+import com.risk.scoring.service.ProfileRebuildService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,9 +16,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
@@ -26,6 +32,11 @@ import java.util.List;
 @Tag(name = "Risk Scoring", description = "Endpoints for calculating and managing risk scores")
 public class RiskScoringController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    // Hourly buckets are kept for 30 days by default
+    private static final int MAX_STATS_HOURS = 24 * 30;
+    private static final int MAX_TREND_DAYS = 400;
+
     @Autowired
     private RiskScoringService riskScoringService;
 
@@ -38,6 +49,12 @@ public class RiskScoringController {
     @Autowired
     private RiskRuleService riskRuleService;
 
+    @Autowired
+    private ProfileRebuildService profileRebuildService;
+
+    @Autowired
+    private BatchScoringService batchScoringService;
+
     @PostMapping("/calculate")
     @Operation(summary = "Calculate risk score for a transaction", description = "Calculates a risk score based on transaction data, customer profile, and other factors")
     @ApiResponses(value = {
@@ -46,13 +63,29 @@ public class RiskScoringController {
     public ResponseEntity<RiskCalculationResponse> calculateRiskScore(
             @Valid @RequestBody RiskCalculationRequest request) {
         try {
-            RiskCalculationResponse response = riskScoringService.calculateRiskScore(request);
+            // On-demand requests are not live traffic, so they are kept out of shadow scoring
+            RiskCalculationResponse response = riskScoringService.evaluateRiskScore(request);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping(value = "/calculate/batch", consumes = { "application/x-ndjson",
+            MediaType.APPLICATION_JSON_VALUE }, produces = "application/x-ndjson")
+    @Operation(summary = "Calculate risk scores for a batch of transactions", description = "Scores a body of risk calculation requests, given as NDJSON or as a JSON array, in parallel chunks and streams back one NDJSON line per entry as entries finish; each line carries the entry's index and either its response or its error")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Results streamed", content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = BatchScoringResult.class))),
+            @ApiResponse(responseCode = "415", description = "Unsupported content type") })
+    public ResponseEntity<StreamingResponseBody> calculateRiskScores(HttpServletRequest httpRequest) {
+        MediaType contentType = MediaType.parseMediaType(httpRequest.getContentType());
+        boolean ndjson = !MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
+        StreamingResponseBody body = out -> batchScoringService.scoreStream(httpRequest.getInputStream(), out, ndjson);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/customer/{customerId}/score")
     @Operation(summary = "Get customer risk profile", description = "Retrieves the complete risk profile for a specific customer")
     @ApiResponses(value = {
@@ -74,6 +107,26 @@ public class RiskScoringController {
         }
     }
 
+    @PostMapping("/customer/{customerId}/rebuild")
+    @Operation(summary = "Rebuild customer risk profile", description = "Rebuilds the customer's risk profile from the latest snapshot and the events stored after it, and replaces the stored profile")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customer risk profile rebuilt successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerRiskProfile.class))),
+            @ApiResponse(responseCode = "404", description = "No events found for the customer"),
+            @ApiResponse(responseCode = "500", description = "Internal server error") })
+    public ResponseEntity<CustomerRiskProfile> rebuildCustomerRiskProfile(
+            @Parameter(description = "ID of the customer", required = true) @PathVariable String customerId) {
+        try {
+            CustomerRiskProfile profile = profileRebuildService.rebuildAndSaveProfile(customerId);
+            if (profile != null) {
+                return ResponseEntity.ok(profile);
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping("/rules")
     @Operation(summary = "Create or update a risk rule", description = "Creates a new risk rule or updates an existing one")
     @ApiResponses(value = {
@@ -162,15 +215,19 @@ public class RiskScoringController {
     }
 
     @GetMapping("/customer/{customerId}/trend")
-    @Operation(summary = "Get customer risk trend", description = "Retrieves the risk trend for a customer over a specified number of days")
+    @Operation(summary = "Get customer risk trend", description = "Retrieves the customer's minimum, average and maximum risk score per day over a specified number of days")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Customer risk trend retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerProfileSummary.class))),
+            @ApiResponse(responseCode = "200", description = "Customer risk trend retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RiskTrendPoint.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid number of days"),
             @ApiResponse(responseCode = "500", description = "Internal server error") })
-    public ResponseEntity<List<CustomerProfileSummary>> getCustomerRiskTrend(
+    public ResponseEntity<List<RiskTrendPoint>> getCustomerRiskTrend(
             @Parameter(description = "ID of the customer", required = true) @PathVariable String customerId,
             @Parameter(description = "Number of days to retrieve trend for", example = "30") @RequestParam(defaultValue = "30") int days) {
+        if (days < 1 || days > MAX_TREND_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<CustomerProfileSummary> trend = customerRiskProfileService.getRiskTrend(customerId, days);
+            List<RiskTrendPoint> trend = customerRiskProfileService.getRiskTrend(customerId, days);
             return ResponseEntity.ok(trend);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -178,14 +235,20 @@ public class RiskScoringController {
     }
 
     @GetMapping("/anomalies/customer/{customerId}")
-    @Operation(summary = "Get anomalies by customer ID", description = "Retrieves all anomalies associated with a specific customer")
+    @Operation(summary = "Get anomalies by customer ID", description = "Retrieves one page of the anomalies associated with a specific customer, newest first")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Anomalies retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Anomaly.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page or size"),
             @ApiResponse(responseCode = "500", description = "Internal server error") })
     public ResponseEntity<List<Anomaly>> getAnomaliesByCustomerId(
-            @Parameter(description = "ID of the customer", required = true) @PathVariable String customerId) {
+            @Parameter(description = "ID of the customer", required = true) @PathVariable String customerId,
+            @Parameter(description = "Zero-based page index", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size", example = "50") @RequestParam(defaultValue = "50") int size) {
+        if (!isValidPage(page, size)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<Anomaly> anomalies = anomalyDetectionService.getAnomaliesByCustomerId(customerId);
+            List<Anomaly> anomalies = anomalyDetectionService.getAnomaliesByCustomerId(customerId, page, size);
             return ResponseEntity.ok(anomalies);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -193,14 +256,20 @@ public class RiskScoringController {
     }
 
     @GetMapping("/anomalies/type/{anomalyType}")
-    @Operation(summary = "Get anomalies by type", description = "Retrieves all anomalies of a specific type")
+    @Operation(summary = "Get anomalies by type", description = "Retrieves one page of the anomalies of a specific type, newest first")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Anomalies retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Anomaly.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page or size"),
             @ApiResponse(responseCode = "500", description = "Internal server error") })
     public ResponseEntity<List<Anomaly>> getAnomaliesByType(
-            @Parameter(description = "Type of anomaly to retrieve", required = true) @PathVariable String anomalyType) {
+            @Parameter(description = "Type of anomaly to retrieve", required = true) @PathVariable String anomalyType,
+            @Parameter(description = "Zero-based page index", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size", example = "50") @RequestParam(defaultValue = "50") int size) {
+        if (!isValidPage(page, size)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<Anomaly> anomalies = anomalyDetectionService.getAnomaliesByType(anomalyType);
+            List<Anomaly> anomalies = anomalyDetectionService.getAnomaliesByType(anomalyType, page, size);
             return ResponseEntity.ok(anomalies);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -208,17 +277,59 @@ public class RiskScoringController {
     }
 
     @GetMapping("/anomalies/severity/{severity}")
-    @Operation(summary = "Get anomalies by severity", description = "Retrieves all anomalies with a specific severity level")
+    @Operation(summary = "Get anomalies by severity", description = "Retrieves one page of the anomalies with a specific severity level, newest first")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Anomalies retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Anomaly.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page or size"),
             @ApiResponse(responseCode = "500", description = "Internal server error") })
     public ResponseEntity<List<Anomaly>> getAnomaliesBySeverity(
-            @Parameter(description = "Severity level of anomalies to retrieve", required = true) @PathVariable String severity) {
+            @Parameter(description = "Severity level of anomalies to retrieve", required = true) @PathVariable String severity,
+            @Parameter(description = "Zero-based page index", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size", example = "50") @RequestParam(defaultValue = "50") int size) {
+        if (!isValidPage(page, size)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<Anomaly> anomalies = anomalyDetectionService.getAnomaliesBySeverity(severity);
+            List<Anomaly> anomalies = anomalyDetectionService.getAnomaliesBySeverity(severity, page, size);
             return ResponseEntity.ok(anomalies);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    @GetMapping("/anomalies/stats")
+    @Operation(summary = "Get anomaly statistics", description = "Anomaly totals by type and severity plus hourly counts, read from incrementally maintained aggregates")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Anomaly statistics retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AnomalyStatsResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid number of hours"),
+            @ApiResponse(responseCode = "500", description = "Internal server error") })
+    public ResponseEntity<AnomalyStatsResponse> getAnomalyStats(
+            @Parameter(description = "Number of hourly buckets to return", example = "24") @RequestParam(defaultValue = "24") int hours) {
+        if (hours < 1 || hours > MAX_STATS_HOURS) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(anomalyDetectionService.getAnomalyStats(hours));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/anomalies/customer/{customerId}/stats")
+    @Operation(summary = "Get customer anomaly statistics", description = "Anomaly totals by type and severity for one customer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Anomaly statistics retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AnomalyStatsResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error") })
+    public ResponseEntity<AnomalyStatsResponse> getCustomerAnomalyStats(
+            @Parameter(description = "ID of the customer", required = true) @PathVariable String customerId) {
+        try {
+            return ResponseEntity.ok(anomalyDetectionService.getCustomerAnomalyStats(customerId));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private static boolean isValidPage(int page, int size) {
+        return page >= 0 && size >= 1 && size <= MAX_PAGE_SIZE;
+    }
 }
\ No newline at end of file
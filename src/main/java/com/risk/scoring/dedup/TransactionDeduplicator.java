@@ -0,0 +1,413 @@
+package com.risk.scoring.dedup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.risk.scoring.model.ProcessedTransaction;
+import com.risk.scoring.repository.ProcessedTransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recognizes redelivered transactions so their side effects are applied once.
+ *
+ * A transaction is claimed before it is processed and completed once its side
+ * effects are committed; completion writes a marker to processedTransactions,
+ * whose unique _id is the transactionId. Claims are checked in three tiers:
+ * a bounded set of recently completed ids, then a bloom filter of every id
+ * completed within the retention window (a miss there means the transaction
+ * is new, with no database read), and only on a bloom hit the marker
+ * collection itself. Ids claimed but not yet completed are tracked too, so a
+ * redelivery that overlaps the original is skipped.
+ *
+ * Single completions buffer their markers, which are bulk inserted once
+ * {@code marker-batch-size} are waiting or every {@code marker-flush-interval-ms},
+ * so a group commit's worth of completions costs one insert rather than one
+ * each. A marker lost to a crash in between only means a redelivery of that
+ * transaction is processed again.
+ *
+ * The bloom filter has two generations that rotate every retention window;
+ * it is loaded from the markers at startup, and until that has finished
+ * every claim falls through to the collection.
+ *
+ * The bloom filter only knows the ids this instance completed, so it cannot
+ * rule out records another instance may already have processed. When a
+ * partition is assigned, its end offset is noted, and every record below it
+ * (the backlog inherited from the previous owner) is checked against the
+ * markers regardless of the bloom filter.
+ */
+@Component
+@Slf4j
+public class TransactionDeduplicator {
+
+    @Value("${risk.scoring.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${risk.scoring.dedup.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${risk.scoring.dedup.recent-max-size:200000}")
+    private long recentMaxSize;
+
+    @Value("${risk.scoring.dedup.bloom.expected-insertions:10000000}")
+    private long expectedInsertions;
+
+    @Value("${risk.scoring.dedup.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${risk.scoring.dedup.marker-batch-size:500}")
+    private int markerBatchSize;
+
+    @Autowired
+    private ProcessedTransactionRepository processedTransactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, Boolean> recent;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Queue<ProcessedTransaction> pendingMarkers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingMarkerCount = new AtomicInteger();
+    // End offset of each partition when it was assigned, until consumption passes it
+    private final Map<TopicPartition, Long> takenOverBelow = new ConcurrentHashMap<>();
+
+    private volatile TransactionIdBloomFilter currentGeneration;
+    private volatile TransactionIdBloomFilter previousGeneration;
+    private volatile Instant generationStartedAt;
+    private volatile boolean bloomLoaded;
+
+    private Counter recentDuplicates;
+    private Counter inFlightDuplicates;
+    private Counter storedDuplicates;
+    private Counter storeLookups;
+
+    @PostConstruct
+    public void init() {
+        recent = Caffeine.newBuilder().maximumSize(recentMaxSize).build();
+        currentGeneration = newGeneration();
+        previousGeneration = newGeneration();
+        generationStartedAt = Instant.now();
+
+        recentDuplicates = duplicateCounter("recent");
+        inFlightDuplicates = duplicateCounter("in-flight");
+        storedDuplicates = duplicateCounter("store");
+        storeLookups = Counter.builder("risk.dedup.store-lookups")
+                .description("Claims that had to read the processed transaction markers")
+                .register(meterRegistry);
+        Gauge.builder("risk.dedup.in-flight", inFlight, Set::size)
+                .description("Transactions claimed but not yet completed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Claims a transaction for processing; false if it was already processed
+     * or is being processed. A claimed transaction must be either completed or
+     * released.
+     */
+    public boolean claim(String transactionId) {
+        return claim(transactionId, false);
+    }
+
+    /**
+     * Claims the transaction of a consumed record; a record inherited with its
+     * partition is always checked against the markers.
+     */
+    public boolean claim(String transactionId, ConsumerRecord<?, ?> record) {
+        return claim(transactionId, isTakenOver(record));
+    }
+
+    private boolean claim(String transactionId, boolean verifyStored) {
+        if (!enabled || transactionId == null) {
+            return true;
+        }
+        if (recent.getIfPresent(transactionId) != null) {
+            recentDuplicates.increment();
+            return false;
+        }
+        if (!inFlight.add(transactionId)) {
+            inFlightDuplicates.increment();
+            return false;
+        }
+
+        boolean stored;
+        try {
+            stored = (verifyStored || mightBeStored(transactionId)) && isStored(transactionId);
+        } catch (RuntimeException e) {
+            inFlight.remove(transactionId);
+            throw e;
+        }
+        if (stored) {
+            inFlight.remove(transactionId);
+            recent.put(transactionId, Boolean.TRUE);
+            storedDuplicates.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Claims every id that is neither processed nor in flight, with at most one
+     * read of the markers for the ids the bloom filter cannot rule out.
+     *
+     * @return the claimed ids
+     */
+    public Set<String> claimAll(Collection<String> transactionIds) {
+        return claimAll(transactionIds, Set.of());
+    }
+
+    /**
+     * As {@link #claimAll(Collection)}, but the ids in {@code verifyStored} are
+     * looked up in the markers whatever the bloom filter says.
+     */
+    public Set<String> claimAll(Collection<String> transactionIds, Set<String> verifyStored) {
+        Set<String> claimed = new LinkedHashSet<>();
+        if (!enabled) {
+            claimed.addAll(transactionIds);
+            return claimed;
+        }
+
+        List<String> toLookUp = new ArrayList<>();
+        for (String transactionId : transactionIds) {
+            if (transactionId == null || claimed.contains(transactionId)) {
+                continue;
+            }
+            if (recent.getIfPresent(transactionId) != null) {
+                recentDuplicates.increment();
+            } else if (!inFlight.add(transactionId)) {
+                inFlightDuplicates.increment();
+            } else {
+                claimed.add(transactionId);
+                if (verifyStored.contains(transactionId) || mightBeStored(transactionId)) {
+                    toLookUp.add(transactionId);
+                }
+            }
+        }
+
+        if (!toLookUp.isEmpty()) {
+            Set<String> stored;
+            try {
+                storeLookups.increment(toLookUp.size());
+                stored = processedTransactionRepository.findExistingIds(toLookUp);
+            } catch (RuntimeException e) {
+                inFlight.removeAll(claimed);
+                throw e;
+            }
+            for (String transactionId : stored) {
+                claimed.remove(transactionId);
+                inFlight.remove(transactionId);
+                recent.put(transactionId, Boolean.TRUE);
+                storedDuplicates.increment();
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Records a claimed transaction as processed. It is recognized by this
+     * instance at once; its marker is written with the next buffered batch.
+     */
+    public void complete(String transactionId, String customerId) {
+        if (!enabled || transactionId == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        remember(transactionId);
+        pendingMarkers.add(new ProcessedTransaction(transactionId, customerId, now,
+                now.plus(Duration.ofHours(retentionHours))));
+        if (pendingMarkerCount.incrementAndGet() >= markerBatchSize) {
+            flushMarkers();
+        }
+    }
+
+    /**
+     * Records the claimed transactions, keyed to their customerIds, as processed,
+     * writing their markers at once. The in-memory tiers are updated first, so
+     * even if the marker write fails this instance still recognizes a redelivery.
+     */
+    public void completeAll(Map<String, String> customerIdsByTransactionId) {
+        if (!enabled || customerIdsByTransactionId.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant expireAt = now.plus(Duration.ofHours(retentionHours));
+        List<ProcessedTransaction> markers = new ArrayList<>(customerIdsByTransactionId.size());
+        customerIdsByTransactionId.forEach((transactionId, customerId) -> {
+            remember(transactionId);
+            markers.add(new ProcessedTransaction(transactionId, customerId, now, expireAt));
+        });
+        insertMarkers(markers);
+    }
+
+    /**
+     * Writes the buffered markers of single completions in one bulk insert.
+     */
+    @Scheduled(fixedDelayString = "${risk.scoring.dedup.marker-flush-interval-ms:50}")
+    @PreDestroy
+    public void flushMarkers() {
+        List<ProcessedTransaction> markers = new ArrayList<>();
+        ProcessedTransaction marker;
+        while ((marker = pendingMarkers.poll()) != null) {
+            markers.add(marker);
+        }
+        if (!markers.isEmpty()) {
+            pendingMarkerCount.addAndGet(-markers.size());
+            insertMarkers(markers);
+        }
+    }
+
+    private void remember(String transactionId) {
+        currentGeneration.add(transactionId);
+        recent.put(transactionId, Boolean.TRUE);
+        inFlight.remove(transactionId);
+    }
+
+    private void insertMarkers(List<ProcessedTransaction> markers) {
+        try {
+            int alreadyPresent = processedTransactionRepository.insertProcessed(markers);
+            if (alreadyPresent > 0) {
+                log.warn("{} of {} transactions had already been marked as processed", alreadyPresent,
+                        markers.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to record {} processed transactions: {}", markers.size(), e.getMessage());
+        }
+    }
+
+    /** Gives up a claim without recording the transaction, so a redelivery is processed. */
+    public void release(String transactionId) {
+        if (transactionId != null) {
+            inFlight.remove(transactionId);
+        }
+    }
+
+    public void releaseAll(Collection<String> transactionIds) {
+        inFlight.removeAll(transactionIds);
+    }
+
+    /**
+     * Notes the end offsets of newly assigned partitions; records below them
+     * may have been processed by the previous owner.
+     */
+    public void partitionsAssigned(Map<TopicPartition, Long> endOffsets) {
+        if (enabled) {
+            takenOverBelow.putAll(endOffsets);
+        }
+    }
+
+    public void partitionsRevoked(Collection<TopicPartition> partitions) {
+        partitions.forEach(takenOverBelow::remove);
+    }
+
+    /**
+     * True while the record is part of the backlog its partition was assigned
+     * with. Once a record at or past the end offset is seen the partition's
+     * lag is drained and it goes back to the bloom filter.
+     */
+    public boolean isTakenOver(ConsumerRecord<?, ?> record) {
+        if (takenOverBelow.isEmpty()) {
+            return false;
+        }
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Long endOffset = takenOverBelow.get(partition);
+        if (endOffset == null) {
+            return false;
+        }
+        if (record.offset() >= endOffset) {
+            takenOverBelow.remove(partition, endOffset);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Loads the ids completed within the retention window into the bloom filter,
+     * in the background so consumption is not held up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBloomFilter() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant since = Instant.now().minus(Duration.ofHours(retentionHours));
+        TransactionIdBloomFilter bloom = currentGeneration;
+        Thread thread = new Thread(() -> {
+            try {
+                long loaded = processedTransactionRepository.forEachIdProcessedSince(since, bloom::add);
+                bloomLoaded = true;
+                log.info("Loaded {} processed transaction ids into the dedup bloom filter ({} bytes per generation)",
+                        loaded, bloom.sizeInBytes());
+            } catch (Exception e) {
+                log.error("Dedup bloom filter load failed, claims keep reading the markers: {}", e.getMessage());
+            }
+        }, "dedup-bloom-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts a new bloom filter generation once the current one is a retention
+     * window old. The previous generation is kept for lookups, so every id
+     * completed within the window stays covered while the filter stays bounded.
+     */
+    @Scheduled(fixedDelayString = "${risk.scoring.dedup.bloom.rotation-check-interval-ms:60000}")
+    public void rotateBloomFilter() {
+        if (!enabled || Instant.now().isBefore(generationStartedAt.plus(Duration.ofHours(retentionHours)))) {
+            return;
+        }
+        previousGeneration = currentGeneration;
+        currentGeneration = newGeneration();
+        generationStartedAt = Instant.now();
+        log.info("Rotated the dedup bloom filter generation");
+    }
+
+    private boolean mightBeStored(String transactionId) {
+        return !bloomLoaded || currentGeneration.mightContain(transactionId)
+                || previousGeneration.mightContain(transactionId);
+    }
+
+    private boolean isStored(String transactionId) {
+        storeLookups.increment();
+        return processedTransactionRepository.existsById(transactionId);
+    }
+
+    private TransactionIdBloomFilter newGeneration() {
+        return new TransactionIdBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    private Counter duplicateCounter(String source) {
+        return Counter.builder("risk.dedup.duplicates")
+                .description("Redelivered transactions that were skipped")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,162 @@
+package com.risk.scoring.engine;
+
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.service.RiskFactorService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the risk factor services concurrently on a dedicated pool. Every factor
+ * has its own deadline measured from the start of the evaluation; a factor that
+ * misses it is cancelled and replaced by its configured degraded score, so the
+ * latency of a scoring call is bounded by the slowest deadline rather than by
+ * the sum of all factors. A factor the saturated pool cannot even queue is
+ * treated the same as one that missed its deadline.
+ */
+@Component
+@Slf4j
+public class ParallelFactorExecutor {
+
+    @Value("${risk.scoring.parallel.enabled:false}")
+    private boolean enabled;
+
+    // 0 means one thread per available processor
+    @Value("${risk.scoring.parallel.pool-size:0}")
+    private int poolSize;
+
+    @Value("${risk.scoring.parallel.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${risk.scoring.parallel.default-timeout-ms:50}")
+    private long defaultTimeoutMs;
+
+    @Value("${risk.scoring.parallel.default-degraded-score:0}")
+    private int defaultDegradedScore;
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<String, Long> timeoutNanosByFactor = new ConcurrentHashMap<>();
+    private final Map<String, Integer> degradedScoreByFactor = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        // When the queue is full the factor is rejected and scored as timed out
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "risk-factor-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Evaluates every factor and writes the scores into {@code context}, marking
+     * the factors that fell back to their degraded score.
+     */
+    public void evaluate(List<RiskFactorService> factors, RiskCalculationRequest request, ScoringContext context) {
+        long start = System.nanoTime();
+
+        List<Future<Integer>> futures = new ArrayList<>(factors.size());
+        for (RiskFactorService factor : factors) {
+            Future<Integer> future;
+            try {
+                future = executor.submit(() -> factor.calculateRiskFactor(request));
+            } catch (RejectedExecutionException e) {
+                // Saturated; a null future is scored like a missed deadline below
+                future = null;
+            }
+            futures.add(future);
+        }
+
+        int[] scores = context.getScores();
+        for (int i = 0; i < factors.size(); i++) {
+            String name = factors.get(i).getFactorName();
+            long remaining = start + timeoutNanos(name) - System.nanoTime();
+            Future<Integer> future = futures.get(i);
+            if (future == null) {
+                scores[i] = degradedScore(name);
+                context.markTimedOut(i);
+                log.warn("Risk factor {} was rejected by the saturated factor pool for transaction {}", name,
+                        request.getTransactionId());
+                continue;
+            }
+            try {
+                scores[i] = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                scores[i] = degradedScore(name);
+                context.markTimedOut(i);
+                log.warn("Risk factor {} missed its deadline for transaction {}", name, request.getTransactionId());
+            } catch (ExecutionException e) {
+                cancelAll(futures);
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Risk factor " + name + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                cancelAll(futures);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while evaluating risk factors", e);
+            }
+        }
+
+        context.setEvaluatedCount(factors.size());
+    }
+
+    private long timeoutNanos(String factorName) {
+        return timeoutNanosByFactor.computeIfAbsent(factorName, name -> TimeUnit.MILLISECONDS.toNanos(
+                environment.getProperty("risk.scoring.parallel.timeouts-ms." + name, Long.class,
+                        defaultTimeoutMs)));
+    }
+
+    private int degradedScore(String factorName) {
+        return degradedScoreByFactor.computeIfAbsent(factorName, name -> environment.getProperty(
+                "risk.scoring.parallel.degraded-scores." + name, Integer.class, defaultDegradedScore));
+    }
+
+    private void cancelAll(List<Future<Integer>> futures) {
+        for (Future<Integer> future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.risk.scoring.engine;
+
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.service.RiskFactorService;
+import com.riskplatform.common.enums.RiskLevel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Discovers every {@link RiskFactorService} bean, orders them from cheapest to
+ * most expensive and resolves their weights from {@code risk.scoring.weights}
+ * (falling back to each service's own default).
+ *
+ * With short-circuiting enabled, serial evaluation stops as soon as the
+ * remaining factors can no longer change the risk level: either the partial
+ * score has already reached CRITICAL (BLOCK), or even the maximum contribution
+ * of the remaining factors would leave the level unchanged. Factors with
+ * downstream consumers are ordered ahead of all others, by cost among
+ * themselves, and always evaluated; only the factors after them can be skipped.
+ */
+@Component
+@Slf4j
+public class RiskFactorRegistry {
+
+    @Autowired
+    private List<RiskFactorService> riskFactorServices;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${risk.scoring.short-circuit.enabled:false}")
+    private boolean shortCircuitEnabled;
+
+    private List<RiskFactorService> factors;
+    private String[] names;
+    private double[] weights;
+    // Factors 0..requiredCount-1 have downstream consumers and are never skipped
+    private int requiredCount;
+    // remainingMaxContribution[i] is the most factors i..n-1 can add to the score
+    private double[] remainingMaxContribution;
+    // flagFactorIndex[d] is the factor index RiskFlagDescriptor d is raised from, or -1
+    private int[] flagFactorIndex;
+
+    @PostConstruct
+    public void init() {
+        List<RiskFactorService> ordered = new ArrayList<>(riskFactorServices);
+        ordered.sort(Comparator.comparing((RiskFactorService factor) -> !factor.hasDownstreamConsumers())
+                .thenComparingInt(RiskFactorService::getCost)
+                .thenComparing(RiskFactorService::getFactorName));
+
+        int count = ordered.size();
+        if (count > Long.SIZE) {
+            // ScoringContext tracks per-factor state in a long bit set
+            throw new IllegalStateException("At most " + Long.SIZE + " risk factors are supported, found " + count);
+        }
+        factors = List.copyOf(ordered);
+        names = new String[count];
+        weights = new double[count];
+        remainingMaxContribution = new double[count + 1];
+        for (int i = 0; i < count; i++) {
+            RiskFactorService factor = factors.get(i);
+            names[i] = factor.getFactorName();
+            weights[i] = environment.getProperty("risk.scoring.weights." + names[i], Double.class,
+                    factor.getWeight());
+            if (factor.hasDownstreamConsumers()) {
+                requiredCount++;
+            }
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            remainingMaxContribution[i] = remainingMaxContribution[i + 1]
+                    + weights[i] * factors.get(i).getMaxScore();
+        }
+
+        RiskFlagDescriptor[] descriptors = RiskFlagDescriptor.all();
+        flagFactorIndex = new int[descriptors.length];
+        for (int d = 0; d < descriptors.length; d++) {
+            flagFactorIndex[d] = indexOf(descriptors[d].getFactorName());
+        }
+
+        for (int i = 0; i < count; i++) {
+            log.info("Registered risk factor {} (weight {}, cost {}{})", names[i], weights[i],
+                    factors.get(i).getCost(), i < requiredCount ? ", never skipped" : "");
+        }
+    }
+
+    public List<RiskFactorService> getFactors() {
+        return factors;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    public int indexOf(String factorName) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(factorName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Evaluates the factors serially in cost order into {@code context}.
+     *
+     * @param levelOf maps a score to its risk level; used to decide whether the
+     *                remaining factors can still matter
+     */
+    public void evaluate(RiskCalculationRequest request, IntFunction<RiskLevel> levelOf, ScoringContext context) {
+        int[] scores = context.getScores();
+        double partial = 0.0;
+        int evaluated = 0;
+
+        for (int i = 0; i < names.length; i++) {
+            if (shortCircuitEnabled && i > 0 && i >= requiredCount && levelOf.apply((int) Math.round(partial)) == levelOf
+                    .apply((int) Math.round(partial + remainingMaxContribution[i]))) {
+                break;
+            }
+            scores[i] = factors.get(i).calculateRiskFactor(request);
+            partial += scores[i] * weights[i];
+            evaluated++;
+        }
+
+        context.setEvaluatedCount(evaluated);
+    }
+
+    /**
+     * Computes the weighted score, risk level and raised flags from the factor
+     * vector already held by {@code context}.
+     */
+    public void complete(ScoringContext context, IntFunction<RiskLevel> levelOf) {
+        int[] scores = context.getScores();
+        int evaluated = context.getEvaluatedCount();
+
+        int riskScore = weightedScore(scores, evaluated);
+
+        long flagBits = 0L;
+        RiskFlagDescriptor[] descriptors = RiskFlagDescriptor.all();
+        for (int d = 0; d < descriptors.length; d++) {
+            int index = flagFactorIndex[d];
+            if (index >= 0 && index < evaluated && scores[index] > descriptors[d].getThreshold()) {
+                flagBits |= descriptors[d].getMask();
+            }
+        }
+
+        context.setFlagBits(flagBits);
+        context.setResult(riskScore, levelOf.apply(riskScore));
+    }
+
+    public int weightedScore(int[] scores, int evaluatedCount) {
+        double score = 0.0;
+        for (int i = 0; i < evaluatedCount; i++) {
+            score += scores[i] * weights[i];
+        }
+        return (int) Math.round(score);
+    }
+}
@@ -0,0 +1,69 @@
+package com.risk.scoring.engine;
+
+import com.riskplatform.common.entity.RiskFlag;
+import com.riskplatform.common.enums.Severity;
+
+/**
+ * The risk flags the scoring core can raise. Each one is triggered when the
+ * named factor scores above its threshold; during scoring a raised flag is only
+ * a bit in {@link ScoringContext#getFlagBits()}, and {@link RiskFlag} objects
+ * are built from these descriptors when the assessment is materialized.
+ */
+public enum RiskFlagDescriptor {
+
+    GEOGRAPHIC_ANOMALY("geographic", 10, Severity.MEDIUM, "Transaction from location 500+ km away"),
+    HIGH_VELOCITY("velocity", 10, Severity.MEDIUM, "Unusually high transaction frequency"),
+    HIGH_AMOUNT("transaction", 20, Severity.HIGH, "Transaction amount significantly higher than usual"),
+    CUSTOMER_BEHAVIOR_RISK("behavior", 20, Severity.HIGH, "High risk based on customer behavior patterns"),
+    MERCHANT_RISK("merchant", 5, Severity.MEDIUM, "Transaction with high-risk merchant");
+
+    public static final String FACTOR_TIMEOUT = "FACTOR_TIMEOUT";
+
+    private static final RiskFlagDescriptor[] VALUES = values();
+
+    private final String factorName;
+    private final int threshold;
+    private final Severity severity;
+    private final String description;
+    private final long mask;
+
+    RiskFlagDescriptor(String factorName, int threshold, Severity severity, String description) {
+        this.factorName = factorName;
+        this.threshold = threshold;
+        this.severity = severity;
+        this.description = description;
+        this.mask = 1L << ordinal();
+    }
+
+    public String getFactorName() {
+        return factorName;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public RiskFlag toRiskFlag() {
+        RiskFlag flag = new RiskFlag();
+        flag.setFlag(name());
+        flag.setSeverity(severity);
+        flag.setDescription(description);
+        return flag;
+    }
+
+    public static RiskFlag factorTimeoutFlag(String factorName) {
+        RiskFlag flag = new RiskFlag();
+        flag.setFlag(FACTOR_TIMEOUT);
+        flag.setSeverity(Severity.MEDIUM);
+        flag.setDescription("Risk factor '" + factorName + "' missed its deadline; degraded score used");
+        return flag;
+    }
+
+    static RiskFlagDescriptor[] all() {
+        return VALUES;
+    }
+}
@@ -0,0 +1,113 @@
+package com.risk.scoring.engine;
+
+import com.riskplatform.common.enums.RiskLevel;
+
+import java.util.Arrays;
+
+/**
+ * Mutable, per-thread scratch space for one scoring call: the factor vector
+ * (aligned with {@link RiskFactorRegistry} order), raised flags as a bit set
+ * and the resulting score. A context is reset and reused for every call on the
+ * same thread, so it must not escape the call that obtained it; anything that
+ * outlives the call is copied out when the public DTOs are built.
+ */
+public final class ScoringContext {
+
+    private static final ThreadLocal<ScoringContext> CURRENT = ThreadLocal.withInitial(ScoringContext::new);
+
+    private int[] scores = new int[0];
+    private int evaluatedCount;
+    // Bit i set when factor i missed its deadline and holds a degraded score
+    private long timedOutBits;
+    // Bits of raised RiskFlagDescriptor values
+    private long flagBits;
+    private int riskScore;
+    private RiskLevel riskLevel;
+
+    private ScoringContext() {
+    }
+
+    /**
+     * Returns this thread's context, cleared and sized for {@code factorCount}
+     * factors.
+     */
+    public static ScoringContext acquire(int factorCount) {
+        ScoringContext context = CURRENT.get();
+        context.reset(factorCount);
+        return context;
+    }
+
+    private void reset(int factorCount) {
+        if (scores.length != factorCount) {
+            scores = new int[factorCount];
+        } else {
+            Arrays.fill(scores, 0);
+        }
+        evaluatedCount = 0;
+        timedOutBits = 0L;
+        flagBits = 0L;
+        riskScore = 0;
+        riskLevel = null;
+    }
+
+    public int[] getScores() {
+        return scores;
+    }
+
+    public int getScore(int factorIndex) {
+        return scores[factorIndex];
+    }
+
+    public int getEvaluatedCount() {
+        return evaluatedCount;
+    }
+
+    public boolean isEvaluated(int factorIndex) {
+        return factorIndex >= 0 && factorIndex < evaluatedCount;
+    }
+
+    void setEvaluatedCount(int evaluatedCount) {
+        this.evaluatedCount = evaluatedCount;
+    }
+
+    public boolean isTimedOut(int factorIndex) {
+        return (timedOutBits & (1L << factorIndex)) != 0;
+    }
+
+    public boolean hasTimeouts() {
+        return timedOutBits != 0L;
+    }
+
+    void markTimedOut(int factorIndex) {
+        timedOutBits |= 1L << factorIndex;
+    }
+
+    public long getFlagBits() {
+        return flagBits;
+    }
+
+    public boolean hasFlag(RiskFlagDescriptor flag) {
+        return (flagBits & flag.getMask()) != 0;
+    }
+
+    public int getFlagCount() {
+        return Long.bitCount(flagBits);
+    }
+
+    void setFlagBits(long flagBits) {
+        this.flagBits = flagBits;
+    }
+
+    public int getRiskScore() {
+        return riskScore;
+    }
+
+    public RiskLevel getRiskLevel() {
+        return riskLevel;
+    }
+
+    void setResult(int riskScore, RiskLevel riskLevel) {
+        this.riskScore = riskScore;
+        this.riskLevel = riskLevel;
+    }
+}
@@ -0,0 +1,277 @@
+package com.risk.scoring.engine;
+
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.service.RiskFactorService;
+import com.riskplatform.common.enums.Decision;
+import com.riskplatform.common.enums.RiskLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Scores live requests a second time with a candidate configuration and
+ * records how the candidate diverges from the live result.
+ *
+ * The candidate re-evaluates every factor (no short-circuiting) and combines
+ * them with {@code risk.scoring.shadow.weights} (each falling back to the live
+ * weight) and its own risk level bounds; factors weighted 0 are not
+ * evaluated. Only the divergence is kept: score deltas and decision flips go
+ * into meters, and a sample of divergent results is written to the
+ * {@code com.risk.scoring.shadow.diff} logger.
+ *
+ * Shadow work never runs on the caller's thread. It is queued on a small pool
+ * and dropped when the queue is full or when the pool has used up its CPU
+ * budget for the current window, measured as per-thread CPU time.
+ */
+@Component
+@Slf4j
+public class ShadowScorer {
+
+    private static final Logger DIFF_LOG = LoggerFactory.getLogger("com.risk.scoring.shadow.diff");
+
+    @Value("${risk.scoring.shadow.enabled:false}")
+    private boolean enabled;
+
+    @Value("${risk.scoring.shadow.threads:1}")
+    private int threads;
+
+    @Value("${risk.scoring.shadow.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // Share of the machine's total CPU the shadow pool may use per window
+    @Value("${risk.scoring.shadow.cpu-budget-percent:5}")
+    private double cpuBudgetPercent;
+
+    @Value("${risk.scoring.shadow.cpu-budget-window-ms:1000}")
+    private long cpuBudgetWindowMs;
+
+    // Upper score bounds of LOW, MEDIUM and HIGH; anything above is CRITICAL
+    @Value("${risk.scoring.shadow.level-upper-bounds:20,50,75}")
+    private int[] levelUpperBounds;
+
+    @Value("${risk.scoring.shadow.diff-sample-rate:0.01}")
+    private double diffSampleRate;
+
+    @Autowired
+    private RiskFactorRegistry riskFactorRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private List<RiskFactorService> factors;
+    private double[] candidateWeights;
+
+    private ThreadPoolExecutor executor;
+    private ThreadMXBean threadMXBean;
+    private boolean cpuTimeSupported;
+    private long cpuBudgetNanos;
+    private long cpuBudgetWindowNanos;
+    private final AtomicLong windowStartedAt = new AtomicLong(System.nanoTime());
+    private final AtomicLong windowCpuNanos = new AtomicLong();
+
+    private Counter evaluations;
+    private Counter failures;
+    private Counter shedQueueFull;
+    private Counter shedCpuBudget;
+    private Counter cpuSeconds;
+    private DistributionSummary higherDeltas;
+    private DistributionSummary lowerDeltas;
+    // decisionFlips[live][candidate]; null on the diagonal
+    private Counter[][] decisionFlips;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (levelUpperBounds.length != 3 || levelUpperBounds[0] >= levelUpperBounds[1]
+                || levelUpperBounds[1] >= levelUpperBounds[2]) {
+            throw new IllegalStateException("risk.scoring.shadow.level-upper-bounds must be three ascending scores");
+        }
+
+        factors = riskFactorRegistry.getFactors();
+        candidateWeights = new double[factors.size()];
+        for (int i = 0; i < candidateWeights.length; i++) {
+            String name = riskFactorRegistry.getName(i);
+            candidateWeights[i] = environment.getProperty("risk.scoring.shadow.weights." + name, Double.class,
+                    riskFactorRegistry.getWeight(i));
+            log.info("Shadow risk factor {} (candidate weight {}, live weight {})", name, candidateWeights[i],
+                    riskFactorRegistry.getWeight(i));
+        }
+
+        threadMXBean = ManagementFactory.getThreadMXBean();
+        cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        if (!cpuTimeSupported) {
+            log.warn("Thread CPU time is not supported; the shadow CPU budget is enforced on wall-clock time");
+        }
+        cpuBudgetWindowNanos = TimeUnit.MILLISECONDS.toNanos(cpuBudgetWindowMs);
+        cpuBudgetNanos = (long) (cpuBudgetWindowNanos * Runtime.getRuntime().availableProcessors()
+                * cpuBudgetPercent / 100.0);
+
+        evaluations = meterRegistry.counter("risk.shadow.evaluations");
+        failures = meterRegistry.counter("risk.shadow.failures");
+        shedQueueFull = meterRegistry.counter("risk.shadow.shed", "reason", "queue-full");
+        shedCpuBudget = meterRegistry.counter("risk.shadow.shed", "reason", "cpu-budget");
+        cpuSeconds = meterRegistry.counter("risk.shadow.cpu-seconds");
+        higherDeltas = DistributionSummary.builder("risk.shadow.score-delta")
+                .tag("direction", "higher")
+                .register(meterRegistry);
+        lowerDeltas = DistributionSummary.builder("risk.shadow.score-delta")
+                .tag("direction", "lower")
+                .register(meterRegistry);
+        Decision[] decisions = Decision.values();
+        decisionFlips = new Counter[decisions.length][decisions.length];
+        for (Decision live : decisions) {
+            for (Decision candidate : decisions) {
+                if (live != candidate) {
+                    decisionFlips[live.ordinal()][candidate.ordinal()] = meterRegistry.counter(
+                            "risk.shadow.decision-flips", "live", live.name(), "candidate", candidate.name());
+                }
+            }
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "shadow-scoring-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, (runnable, pool) -> shedQueueFull.increment());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a candidate evaluation of {@code request} against the live
+     * result, or drops it if the shadow pool is saturated or over budget.
+     * Never blocks; {@code request} must not be modified afterwards.
+     */
+    public void submit(RiskCalculationRequest request, int liveScore, Decision liveDecision,
+            Function<RiskLevel, Decision> decisionOf) {
+        if (!enabled) {
+            return;
+        }
+        if (overBudget()) {
+            shedCpuBudget.increment();
+            return;
+        }
+        executor.execute(() -> evaluate(request, liveScore, liveDecision, decisionOf));
+    }
+
+    private void evaluate(RiskCalculationRequest request, int liveScore, Decision liveDecision,
+            Function<RiskLevel, Decision> decisionOf) {
+        // The budget may have run out while this task was queued
+        if (overBudget()) {
+            shedCpuBudget.increment();
+            return;
+        }
+        long startedAt = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+        try {
+            int[] scores = new int[candidateWeights.length];
+            double weighted = 0.0;
+            for (int i = 0; i < scores.length; i++) {
+                if (candidateWeights[i] != 0.0) {
+                    scores[i] = factors.get(i).calculateRiskFactor(request);
+                    weighted += scores[i] * candidateWeights[i];
+                }
+            }
+            int candidateScore = (int) Math.round(weighted);
+            Decision candidateDecision = decisionOf.apply(candidateLevel(candidateScore));
+            record(request, liveScore, liveDecision, candidateScore, candidateDecision, scores);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.debug("Shadow scoring failed for transaction {}", request.getTransactionId(), e);
+        } finally {
+            long used = (cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime()) - startedAt;
+            windowCpuNanos.addAndGet(used);
+            cpuSeconds.increment(used / 1e9);
+        }
+    }
+
+    private void record(RiskCalculationRequest request, int liveScore, Decision liveDecision, int candidateScore,
+            Decision candidateDecision, int[] scores) {
+        evaluations.increment();
+        int delta = candidateScore - liveScore;
+        if (delta > 0) {
+            higherDeltas.record(delta);
+        } else if (delta < 0) {
+            lowerDeltas.record(-delta);
+        }
+        boolean flipped = candidateDecision != liveDecision;
+        if (flipped) {
+            decisionFlips[liveDecision.ordinal()][candidateDecision.ordinal()].increment();
+        }
+        if ((flipped || delta != 0) && ThreadLocalRandom.current().nextDouble() < diffSampleRate) {
+            StringBuilder factorScores = new StringBuilder();
+            for (int i = 0; i < scores.length; i++) {
+                if (i > 0) {
+                    factorScores.append(',');
+                }
+                factorScores.append(riskFactorRegistry.getName(i)).append('=').append(scores[i]);
+            }
+            DIFF_LOG.info("transactionId={} live={}/{} candidate={}/{} delta={} factors=[{}]",
+                    request.getTransactionId(), liveScore, liveDecision, candidateScore, candidateDecision, delta,
+                    factorScores);
+        }
+    }
+
+    private RiskLevel candidateLevel(int score) {
+        if (score <= levelUpperBounds[0]) {
+            return RiskLevel.LOW;
+        } else if (score <= levelUpperBounds[1]) {
+            return RiskLevel.MEDIUM;
+        } else if (score <= levelUpperBounds[2]) {
+            return RiskLevel.HIGH;
+        }
+        return RiskLevel.CRITICAL;
+    }
+
+    /**
+     * Starts a new budget window once the current one has elapsed; a race
+     * between two resets only forgives a few evaluations.
+     */
+    private boolean overBudget() {
+        long now = System.nanoTime();
+        long started = windowStartedAt.get();
+        if (now - started >= cpuBudgetWindowNanos && windowStartedAt.compareAndSet(started, now)) {
+            windowCpuNanos.set(0L);
+        }
+        return windowCpuNanos.get() >= cpuBudgetNanos;
+    }
+}
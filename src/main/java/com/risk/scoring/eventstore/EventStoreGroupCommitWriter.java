@@ -0,0 +1,283 @@
+package com.risk.scoring.eventstore;
+
+import com.risk.scoring.repository.EventStoreRepository;
+import com.riskplatform.common.entity.EventStoreEntry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Group commit for event store appends. Callers enqueue events on a lock-free
+ * queue and get a future; a single writer thread drains the queue into one
+ * unordered bulk append per batch, committing when {@code max-batch-size}
+ * events are waiting or the oldest has waited {@code max-latency-ms}.
+ *
+ * The queue is FIFO and has one consumer, so events of the same aggregate are
+ * versioned in submission order. Futures are completed on separate
+ * {@code completion-threads}, so dependent stages (side effects, Kafka sends,
+ * dedup markers, acks) never hold up the next commit. Each aggregate is pinned
+ * to one completion thread, so its callbacks also run in submission order.
+ */
+@Component
+@Slf4j
+public class EventStoreGroupCommitWriter {
+
+    @Value("${risk.scoring.event-store.group-commit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${risk.scoring.event-store.group-commit.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${risk.scoring.event-store.group-commit.max-latency-ms:5}")
+    private long maxLatencyMs;
+
+    @Value("${risk.scoring.event-store.group-commit.max-pending:50000}")
+    private int maxPending;
+
+    @Value("${risk.scoring.event-store.group-commit.completion-threads:4}")
+    private int completionThreads;
+
+    @Autowired
+    private EventStoreRepository eventStoreRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Queue<PendingEvent> queue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() is O(n); the depth is tracked separately
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private Semaphore pendingPermits;
+    private long maxLatencyNanos;
+    private volatile boolean running;
+    private Thread writerThread;
+    private ExecutorService[] completionExecutors;
+
+    private DistributionSummary batchSize;
+    private Timer commitSuccessTimer;
+    private Timer commitFailureTimer;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        pendingPermits = new Semaphore(maxPending);
+        maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+
+        Gauge.builder("risk.eventstore.writer.queue-depth", depth, AtomicInteger::get)
+                .description("Events waiting for the next group commit")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("risk.eventstore.writer.batch-size")
+                .description("Events per group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        commitSuccessTimer = commitTimer("success");
+        commitFailureTimer = commitTimer("failure");
+
+        completionExecutors = new ExecutorService[completionThreads];
+        for (int i = 0; i < completionThreads; i++) {
+            String name = "event-store-completion-" + (i + 1);
+            completionExecutors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        running = true;
+        writerThread = new Thread(this::run, "event-store-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private Timer commitTimer(String result) {
+        return Timer.builder("risk.eventstore.writer.commit")
+                .description("Latency of group-commit bulk appends")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the event for the next group commit. The future completes once the
+     * event is durable, with its version assigned, or exceptionally if its write
+     * failed. Blocks while {@code max-pending} events are already waiting.
+     */
+    public CompletableFuture<EventStoreEntry> append(EventStoreEntry event) {
+        if (!enabled) {
+            try {
+                eventStoreRepository.appendEvents(List.of(event));
+                return CompletableFuture.completedFuture(event);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Event store writer is stopped"));
+        }
+
+        pendingPermits.acquireUninterruptibly();
+        PendingEvent pending = new PendingEvent(event);
+        queue.add(pending);
+        int queued = depth.incrementAndGet();
+        // Wake the writer to start the latency clock, or to commit a full batch early
+        if (queued == 1 || queued == maxBatchSize) {
+            LockSupport.unpark(writerThread);
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<PendingEvent> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingEvent oldest = queue.peek();
+            if (oldest == null) {
+                LockSupport.parkNanos(this, maxLatencyNanos);
+                continue;
+            }
+
+            long deadline = oldest.enqueuedAt + maxLatencyNanos;
+            long remaining;
+            while (running && depth.get() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            PendingEvent next;
+            while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            depth.addAndGet(-batch.size());
+            commit(batch);
+            batch = new ArrayList<>(maxBatchSize);
+        }
+    }
+
+    /**
+     * Appends the batch, then hands completion of its futures to the completion
+     * threads. Permits are returned only once the callbacks have run, so slow
+     * callbacks push back on producers instead of piling up.
+     */
+    private void commit(List<PendingEvent> batch) {
+        List<EventStoreEntry> events = new ArrayList<>(batch.size());
+        for (PendingEvent pending : batch) {
+            events.add(pending.event);
+        }
+        batchSize.record(batch.size());
+
+        long start = System.nanoTime();
+        try {
+            eventStoreRepository.appendEvents(events);
+            commitSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            completeLater(batch, pending -> pending.future.complete(pending.event));
+        } catch (EventStoreWriteException e) {
+            commitFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.error("Group commit of {} events failed for {} of them: {}", batch.size(),
+                    e.getFailedEventIds().size(), e.getMessage());
+            Set<String> failed = e.getFailedEventIds();
+            completeLater(batch, pending -> {
+                if (failed.contains(pending.event.getId())) {
+                    pending.future.completeExceptionally(e);
+                } else {
+                    pending.future.complete(pending.event);
+                }
+            });
+        } catch (Exception e) {
+            // Nothing was written (e.g. the versions could not be reserved)
+            commitFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.error("Group commit of {} events failed: {}", batch.size(), e.getMessage());
+            completeLater(batch, pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    private void completeLater(List<PendingEvent> batch, Consumer<PendingEvent> completion) {
+        List<List<PendingEvent>> stripes = new ArrayList<>(completionExecutors.length);
+        for (int i = 0; i < completionExecutors.length; i++) {
+            stripes.add(new ArrayList<>());
+        }
+        for (PendingEvent pending : batch) {
+            String aggregateId = pending.event.getAggregateId();
+            int stripe = aggregateId != null ? Math.floorMod(aggregateId.hashCode(), completionExecutors.length) : 0;
+            stripes.get(stripe).add(pending);
+        }
+        for (int i = 0; i < completionExecutors.length; i++) {
+            List<PendingEvent> stripe = stripes.get(i);
+            if (stripe.isEmpty()) {
+                continue;
+            }
+            try {
+                completionExecutors[i].execute(() -> complete(stripe, completion));
+            } catch (RejectedExecutionException e) {
+                // Shutting down: complete here rather than leave callers waiting
+                complete(stripe, completion);
+            }
+        }
+    }
+
+    private void complete(List<PendingEvent> batch, Consumer<PendingEvent> completion) {
+        try {
+            for (PendingEvent pending : batch) {
+                try {
+                    completion.accept(pending);
+                } catch (RuntimeException e) {
+                    log.error("Event store completion callback failed for event {}: {}", pending.event.getId(),
+                            e.getMessage());
+                }
+            }
+        } finally {
+            pendingPermits.release(batch.size());
+        }
+    }
+
+    /**
+     * Commits everything still queued, and runs its callbacks, before shutting down.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        for (ExecutorService completionExecutor : completionExecutors) {
+            completionExecutor.shutdown();
+        }
+        for (ExecutorService completionExecutor : completionExecutors) {
+            completionExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class PendingEvent {
+        private final EventStoreEntry event;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<EventStoreEntry> future = new CompletableFuture<>();
+
+        private PendingEvent(EventStoreEntry event) {
+            this.event = event;
+        }
+    }
+}
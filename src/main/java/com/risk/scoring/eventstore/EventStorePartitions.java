@@ -0,0 +1,221 @@
+package com.risk.scoring.eventstore;
+
+import com.risk.scoring.indexing.MongoIndexCatalog;
+import com.riskplatform.common.entity.EventStoreEntry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Maps event timestamps to time-bucketed event store collections, named
+ * {@code <base>_yyyyMM} (monthly) or {@code <base>_yyyyMMdd} (daily) in UTC.
+ * Each bucket carries its own, much smaller, indexes, and expired buckets are
+ * dropped whole instead of deleted document by document.
+ *
+ * The unpartitioned base collection is still read as the oldest "bucket" so
+ * events written before partitioning was enabled stay visible.
+ */
+@Component
+@Slf4j
+public class EventStorePartitions {
+
+    public enum Granularity {
+        NONE, DAILY, MONTHLY
+    }
+
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter DAY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Value("${risk.scoring.event-store.partitioning:MONTHLY}")
+    private Granularity granularity;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexCatalog mongoIndexCatalog;
+
+    private String baseCollection;
+    private volatile boolean baseCollectionExists;
+
+    // Bucket start -> collection name, for every bucket known to exist
+    private final NavigableMap<Instant, String> buckets = new ConcurrentSkipListMap<>();
+    private final Set<String> indexedCollections = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        baseCollection = mongoTemplate.getCollectionName(EventStoreEntry.class);
+        refresh();
+        if (!isPartitioned() || baseCollectionExists) {
+            ensureIndexes(baseCollection);
+        }
+    }
+
+    /**
+     * Picks up buckets created by other instances.
+     */
+    @Scheduled(fixedDelayString = "${risk.scoring.event-store.bucket-refresh-interval-ms:60000}")
+    public void refresh() {
+        Set<String> names = mongoTemplate.getCollectionNames();
+        baseCollectionExists = names.contains(baseCollection);
+        if (!isPartitioned()) {
+            return;
+        }
+        for (String name : names) {
+            Instant start = parseBucketStart(name);
+            if (start != null) {
+                buckets.putIfAbsent(start, name);
+            }
+        }
+    }
+
+    public boolean isPartitioned() {
+        return granularity != Granularity.NONE;
+    }
+
+    public String getBaseCollection() {
+        return baseCollection;
+    }
+
+    /**
+     * The collection an event with this timestamp is written to; new buckets get
+     * their indexes before the first insert.
+     */
+    public String collectionFor(Instant timestamp) {
+        if (!isPartitioned()) {
+            return baseCollection;
+        }
+        Instant start = bucketStart(timestamp != null ? timestamp : Instant.now());
+        String name = bucketName(start);
+        if (indexedCollections.add(name)) {
+            ensureIndexes(name);
+            buckets.putIfAbsent(start, name);
+        }
+        return name;
+    }
+
+    /**
+     * Collections that may hold events in [from, to), oldest first; a null
+     * bound is open.
+     */
+    public List<String> collectionsFor(Instant from, Instant to) {
+        if (!isPartitioned()) {
+            return List.of(baseCollection);
+        }
+        List<String> collections = new ArrayList<>();
+        if (baseCollectionExists) {
+            collections.add(baseCollection);
+        }
+        Instant lower = from != null ? bucketStart(from) : null;
+        NavigableMap<Instant, String> range = buckets;
+        if (lower != null) {
+            range = range.tailMap(lower, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, false);
+        }
+        collections.addAll(range.values());
+        return collections;
+    }
+
+    /**
+     * Every collection holding events, oldest first, newest last.
+     */
+    public List<String> allCollections() {
+        return collectionsFor(null, null);
+    }
+
+    /**
+     * Buckets whose whole time span ends at or before {@code cutoff}, oldest
+     * first.
+     */
+    public List<String> bucketsEndingBefore(Instant cutoff) {
+        if (!isPartitioned()) {
+            return Collections.emptyList();
+        }
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<Instant, String> bucket : buckets.entrySet()) {
+            if (!bucketEnd(bucket.getKey()).isAfter(cutoff)) {
+                expired.add(bucket.getValue());
+            }
+        }
+        return expired;
+    }
+
+    public void forget(String collection) {
+        buckets.values().remove(collection);
+        indexedCollections.remove(collection);
+    }
+
+    private void ensureIndexes(String collection) {
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        for (Index index : mongoIndexCatalog.eventStoreIndexes()) {
+            try {
+                indexOps.ensureIndex(index);
+            } catch (Exception e) {
+                log.error("Could not create index {} on {}: {}", index.getIndexOptions().getString("name"),
+                        collection, e.getMessage());
+            }
+        }
+        indexedCollections.add(collection);
+    }
+
+    private Instant bucketStart(Instant timestamp) {
+        if (granularity == Granularity.DAILY) {
+            return LocalDate.ofInstant(timestamp, ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return YearMonth.from(timestamp.atOffset(ZoneOffset.UTC)).atDay(1).atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+    }
+
+    private Instant bucketEnd(Instant start) {
+        if (granularity == Granularity.DAILY) {
+            return start.atOffset(ZoneOffset.UTC).plusDays(1).toInstant();
+        }
+        return start.atOffset(ZoneOffset.UTC).plusMonths(1).toInstant();
+    }
+
+    private String bucketName(Instant start) {
+        DateTimeFormatter suffix = granularity == Granularity.DAILY ? DAY_SUFFIX : MONTH_SUFFIX;
+        return baseCollection + "_" + suffix.format(start.atOffset(ZoneOffset.UTC));
+    }
+
+    private Instant parseBucketStart(String name) {
+        String prefix = baseCollection + "_";
+        if (!name.startsWith(prefix)) {
+            return null;
+        }
+        String suffix = name.substring(prefix.length());
+        try {
+            if (granularity == Granularity.DAILY && suffix.length() == 8) {
+                return LocalDate.parse(suffix, DAY_SUFFIX).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            if (granularity == Granularity.MONTHLY && suffix.length() == 6) {
+                return YearMonth.parse(suffix, MONTH_SUFFIX).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+        } catch (RuntimeException e) {
+            // Not a bucket of this granularity
+        }
+        return null;
+    }
+}
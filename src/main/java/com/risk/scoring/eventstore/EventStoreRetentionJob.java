@@ -0,0 +1,129 @@
+package com.risk.scoring.eventstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Applies the event store retention policy: buckets whose whole time span is
+ * older than the retention period are archived to a gzip-compressed NDJSON file
+ * (one extended-JSON document per line) and then dropped. Dropping a bucket
+ * frees its data and indexes in one operation, where a TTL index would delete
+ * and re-balance document by document.
+ */
+@Component
+@Slf4j
+public class EventStoreRetentionJob {
+
+    private static final JsonWriterSettings ARCHIVE_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EventStorePartitions partitions;
+
+    @Value("${risk.scoring.event-store.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${risk.scoring.event-store.retention.retain-days:400}")
+    private int retainDays;
+
+    @Value("${risk.scoring.event-store.retention.archive-enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${risk.scoring.event-store.retention.archive-directory:archive/event-store}")
+    private String archiveDirectory;
+
+    @Value("${risk.scoring.event-store.cursor-batch-size:1000}")
+    private int cursorBatchSize;
+
+    @Scheduled(cron = "${risk.scoring.event-store.retention.cron:0 30 2 * * *}")
+    public void applyRetention() {
+        if (!enabled || !partitions.isPartitioned()) {
+            return;
+        }
+
+        partitions.refresh();
+        Instant cutoff = Instant.now().minus(Duration.ofDays(retainDays));
+        for (String bucket : partitions.bucketsEndingBefore(cutoff)) {
+            try {
+                if (archiveEnabled) {
+                    archive(bucket);
+                }
+                mongoTemplate.dropCollection(bucket);
+                partitions.forget(bucket);
+                log.info("Dropped expired event store bucket {}", bucket);
+            } catch (Exception e) {
+                // The bucket is kept and retried on the next run
+                log.error("Error applying retention to event store bucket {}: {}", bucket, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the bucket to {@code <archive-directory>/<bucket>.ndjson.gz}. The
+     * file is written under a temporary name and only moved into place once the
+     * number of archived documents matches the bucket, so a partial archive never
+     * looks complete and the bucket is not dropped.
+     */
+    private void archive(String bucket) throws IOException {
+        Path directory = Paths.get(archiveDirectory);
+        Path target = directory.resolve(bucket + ".ndjson.gz");
+        if (Files.exists(target)) {
+            // Archived by an earlier run (or another instance) that did not get to drop it
+            return;
+        }
+
+        long expected = mongoTemplate.count(new Query(), bucket);
+        if (expected == 0) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(bucket + ".ndjson.gz.tmp");
+        long written = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(new Query().cursorBatchSize(cursorBatchSize),
+                Document.class, bucket);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024), StandardCharsets.UTF_8))) {
+            Iterator<Document> iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next().toJson(ARCHIVE_JSON));
+                writer.write('\n');
+                written++;
+            }
+        }
+
+        if (written != expected) {
+            Files.deleteIfExists(temp);
+            throw new IOException("archived " + written + " of " + expected + " documents");
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Archived {} events from {} to {}", written, bucket, target);
+    }
+}
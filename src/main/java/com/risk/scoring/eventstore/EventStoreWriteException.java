@@ -0,0 +1,21 @@
+package com.risk.scoring.eventstore;
+
+import java.util.Set;
+
+/**
+ * Thrown when an unordered bulk append fails for some of its events. The events
+ * not listed in {@link #getFailedEventIds()} were written.
+ */
+public class EventStoreWriteException extends RuntimeException {
+
+    private final Set<String> failedEventIds;
+
+    public EventStoreWriteException(Set<String> failedEventIds, Throwable cause) {
+        super("Failed to append " + failedEventIds.size() + " events", cause);
+        this.failedEventIds = failedEventIds;
+    }
+
+    public Set<String> getFailedEventIds() {
+        return failedEventIds;
+    }
+}
@@ -0,0 +1,22 @@
+package com.risk.scoring.indexing;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one verification pass. {@code plans} maps each query shape to
+ * its winning plan, top stage first.
+ */
+@Value
+public class IndexCoverage {
+    Instant verifiedAt;
+    Map<String, String> plans;
+    List<String> collectionScans;
+    // collection.index -> error
+    Map<String, String> indexFailures;
+    // Query shape -> error; such shapes are neither covered nor known to scan
+    Map<String, String> explainFailures;
+}
@@ -0,0 +1,233 @@
+package com.risk.scoring.indexing;
+
+import com.risk.scoring.model.AnomalyStats;
+import com.risk.scoring.model.ProcessedTransaction;
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.RescoringResult;
+import com.risk.scoring.model.ScoreSeriesBucket;
+import com.riskplatform.common.entity.Anomaly;
+import com.riskplatform.common.entity.CustomerRiskProfile;
+import com.riskplatform.common.entity.RiskRule;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every index the repositories rely on, and the query shapes that must be
+ * served by them. Each index is listed next to the queries it backs; when a
+ * repository gains a query, add its shape here so a missing index shows up
+ * at startup rather than as a collection scan in production.
+ *
+ * Event store indexes are kept apart because they are created on each
+ * time bucket as it appears (see {@code EventStorePartitions}).
+ */
+@Component
+public class MongoIndexCatalog {
+
+    // Placeholder values; the planner picks the same plan for any value of the same type
+    private static final String ANY_ID = "";
+    private static final Date ANY_TIME = new Date(0L);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Indexes of every fixed collection, by collection name.
+     */
+    public Map<String, List<Index>> collectionIndexes() {
+        Map<String, List<Index>> indexes = new LinkedHashMap<>();
+
+        // findByCustomerId, findByCustomerIdIn and the bulk upsert keyed on customerId
+        indexes.put(collection(CustomerRiskProfile.class), List.of(new Index()
+                .on("customerId", Sort.Direction.ASC)
+                .unique()
+                .named("customerId_unique")));
+
+        // The rule engine only ever loads enabled rules, so disabled ones stay out of the index
+        indexes.put(collection(RiskRule.class), List.of(
+                new Index()
+                        .on("enabled", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("enabled").is(true)))
+                        .named("enabled_partial"),
+                new Index()
+                        .on("ruleName", Sort.Direction.ASC)
+                        .named("ruleName")));
+
+        // Paged listings are newest first, so every index ends in detectedAt
+        indexes.put(collection(Anomaly.class), List.of(
+                new Index()
+                        .on("detectedAt", Sort.Direction.DESC)
+                        .named("detectedAt"),
+                new Index()
+                        .on("customerId", Sort.Direction.ASC)
+                        .on("detectedAt", Sort.Direction.DESC)
+                        .named("customerId_detectedAt"),
+                new Index()
+                        .on("anomalyType", Sort.Direction.ASC)
+                        .on("severity", Sort.Direction.ASC)
+                        .on("detectedAt", Sort.Direction.DESC)
+                        .named("anomalyType_severity_detectedAt"),
+                new Index()
+                        .on("severity", Sort.Direction.ASC)
+                        .on("detectedAt", Sort.Direction.DESC)
+                        .named("severity_detectedAt"),
+                // A retried transaction cannot store the same anomaly twice
+                new Index()
+                        .on("transactionId", Sort.Direction.ASC)
+                        .on("anomalyType", Sort.Direction.ASC)
+                        .unique()
+                        .partial(PartialIndexFilter.of(Criteria.where("transactionId").exists(true)))
+                        .named("transactionId_anomalyType_unique")));
+
+        indexes.put(collection(AnomalyStats.class), List.of(
+                new Index()
+                        .on("kind", Sort.Direction.ASC)
+                        .on("bucketStart", Sort.Direction.ASC)
+                        .named("kind_bucketStart"),
+                // Only hourly buckets carry expireAt
+                new Index()
+                        .on("expireAt", Sort.Direction.ASC)
+                        .expire(0)
+                        .named("expireAt_ttl")));
+
+        indexes.put(collection(ScoreSeriesBucket.class), List.of(
+                new Index()
+                        .on("customerId", Sort.Direction.ASC)
+                        .on("day", Sort.Direction.DESC)
+                        .named("customerId_day"),
+                new Index()
+                        .on("expireAt", Sort.Direction.ASC)
+                        .expire(0)
+                        .named("expireAt_ttl")));
+
+        // Uniqueness comes from _id (the transactionId)
+        indexes.put(collection(ProcessedTransaction.class), List.of(
+                new Index()
+                        .on("expireAt", Sort.Direction.ASC)
+                        .expire(0)
+                        .named("expireAt_ttl"),
+                new Index()
+                        .on("processedAt", Sort.Direction.ASC)
+                        .named("processedAt")));
+
+        indexes.put(collection(RescoringJob.class), List.of(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("heartbeatAt", Sort.Direction.ASC)
+                .named("status_heartbeatAt")));
+
+        indexes.put(collection(RescoringResult.class), List.of(new Index()
+                .on("jobId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.ASC)
+                .named("jobId_timestamp")));
+
+        return indexes;
+    }
+
+    /**
+     * Indexes of each event store collection. The unique index may fail on
+     * collections written before it existed; the others must not depend on it.
+     */
+    public List<Index> eventStoreIndexes() {
+        return List.of(
+                // Optimistic concurrency: two writers can never append the same version
+                new Index()
+                        .on("aggregateId", Sort.Direction.ASC)
+                        .on("version", Sort.Direction.ASC)
+                        .unique()
+                        .named("aggregateId_version_unique"),
+                // Keyset listings and streams walk (timestamp, _id) within a customer or an event type
+                new Index()
+                        .on("aggregateId", Sort.Direction.ASC)
+                        .on("timestamp", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("aggregateId_timestamp_id"),
+                new Index()
+                        .on("eventType", Sort.Direction.ASC)
+                        .on("timestamp", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("eventType_timestamp_id"));
+    }
+
+    /**
+     * The query shapes to verify; event store shapes are only included when
+     * {@code eventStoreCollection} is not null.
+     */
+    public List<QueryShape> queryShapes(String eventStoreCollection) {
+        List<QueryShape> shapes = new ArrayList<>();
+
+        String profiles = collection(CustomerRiskProfile.class);
+        shapes.add(shape("profiles.byCustomerId", profiles, new Document("customerId", ANY_ID), null));
+
+        String rules = collection(RiskRule.class);
+        shapes.add(shape("rules.enabled", rules, new Document("enabled", true), null));
+        shapes.add(shape("rules.byRuleName", rules, new Document("ruleName", ANY_ID), null));
+
+        String anomalies = collection(Anomaly.class);
+        Document newestFirst = new Document("detectedAt", -1);
+        shapes.add(shape("anomalies.all", anomalies, new Document(), newestFirst));
+        shapes.add(shape("anomalies.byCustomerId", anomalies, new Document("customerId", ANY_ID), newestFirst));
+        shapes.add(shape("anomalies.byTypeAndSeverity", anomalies,
+                new Document("anomalyType", ANY_ID).append("severity", ANY_ID), newestFirst));
+        shapes.add(shape("anomalies.bySeverity", anomalies, new Document("severity", ANY_ID), newestFirst));
+        shapes.add(shape("anomalies.detectedAfter", anomalies,
+                new Document("detectedAt", new Document("$gt", ANY_TIME)), newestFirst));
+        shapes.add(shape("anomalies.byIdRange", anomalies,
+                new Document("_id", new Document("$gt", ANY_ID).append("$lte", ANY_ID)), new Document("_id", 1)));
+
+        shapes.add(shape("anomalyStats.byKind", collection(AnomalyStats.class),
+                new Document("kind", ANY_ID).append("bucketStart", new Document("$gte", ANY_TIME)),
+                new Document("bucketStart", 1)));
+
+        String series = collection(ScoreSeriesBucket.class);
+        shapes.add(shape("scoreSeries.dailyAggregates", series,
+                new Document("customerId", ANY_ID).append("day", new Document("$gte", ANY_TIME)),
+                new Document("day", 1)));
+        shapes.add(shape("scoreSeries.recent", series, new Document("customerId", ANY_ID),
+                new Document("day", -1)));
+
+        shapes.add(shape("processedTransactions.since", collection(ProcessedTransaction.class),
+                new Document("processedAt", new Document("$gte", ANY_TIME)), null));
+
+        shapes.add(shape("rescoringJobs.stale", collection(RescoringJob.class),
+                new Document("status", RescoringJob.Status.RUNNING.name())
+                        .append("heartbeatAt", new Document("$lt", ANY_TIME)),
+                null));
+
+        shapes.add(shape("rescoringResults.byJob", collection(RescoringResult.class),
+                new Document("jobId", ANY_ID), new Document("timestamp", 1)));
+
+        if (eventStoreCollection != null) {
+            Document range = new Document("$gte", ANY_TIME).append("$lt", ANY_TIME);
+            Document keyset = new Document("timestamp", 1).append("_id", 1);
+            shapes.add(shape("eventStore.byCustomerRange", eventStoreCollection,
+                    new Document("aggregateId", ANY_ID).append("timestamp", range), keyset));
+            shapes.add(shape("eventStore.byEventTypeRange", eventStoreCollection,
+                    new Document("eventType", ANY_ID).append("timestamp", range), keyset));
+            shapes.add(shape("eventStore.recentByCustomer", eventStoreCollection,
+                    new Document("aggregateId", ANY_ID), new Document("timestamp", -1)));
+            shapes.add(shape("eventStore.byAggregateVersion", eventStoreCollection,
+                    new Document("aggregateId", ANY_ID).append("version", new Document("$gt", 0L)),
+                    new Document("version", 1)));
+        }
+        return shapes;
+    }
+
+    private String collection(Class<?> entityClass) {
+        return mongoTemplate.getCollectionName(entityClass);
+    }
+
+    private static QueryShape shape(String name, String collection, Document filter, Document sort) {
+        return new QueryShape(name, collection, filter, sort != null ? sort : new Document());
+    }
+}
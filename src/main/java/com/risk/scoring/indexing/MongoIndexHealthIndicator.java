@@ -0,0 +1,34 @@
+package com.risk.scoring.indexing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports index coverage as {@code mongoIndex} under /actuator/health: DOWN
+ * while any registered query shape is a collection scan or an index could
+ * not be created, UNKNOWN until plans have been verified.
+ */
+@Component
+public class MongoIndexHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private MongoIndexProvisioner mongoIndexProvisioner;
+
+    @Override
+    public Health health() {
+        IndexCoverage coverage = mongoIndexProvisioner.getCoverage();
+        if (coverage == null) {
+            return Health.unknown().withDetail("reason", "query plans not verified").build();
+        }
+        boolean covered = coverage.getCollectionScans().isEmpty() && coverage.getIndexFailures().isEmpty();
+        return (covered ? Health.up() : Health.down())
+                .withDetail("verifiedAt", coverage.getVerifiedAt())
+                .withDetail("collectionScans", coverage.getCollectionScans())
+                .withDetail("indexFailures", coverage.getIndexFailures())
+                .withDetail("explainFailures", coverage.getExplainFailures())
+                .withDetail("plans", coverage.getPlans())
+                .build();
+    }
+}
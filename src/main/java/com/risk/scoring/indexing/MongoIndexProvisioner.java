@@ -0,0 +1,170 @@
+package com.risk.scoring.indexing;
+
+import com.risk.scoring.eventstore.EventStorePartitions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the indexes of {@link MongoIndexCatalog} at startup, before any
+ * listener consumes, then explains every registered query shape and reports
+ * the ones whose winning plan is a collection scan.
+ *
+ * A collection scan is logged as an error and shown by the
+ * {@code mongoIndex} health indicator; with {@code fail-on-collscan} it also
+ * fails startup. Plans are re-verified periodically so an index dropped by
+ * hand is noticed. Index creation failures are reported the same way rather
+ * than stopping startup, since the shapes they back then show up as scans.
+ */
+@Component
+@Slf4j
+public class MongoIndexProvisioner {
+
+    @Value("${risk.scoring.indexes.verify-plans:true}")
+    private boolean verifyPlans;
+
+    @Value("${risk.scoring.indexes.fail-on-collscan:false}")
+    private boolean failOnCollscan;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexCatalog mongoIndexCatalog;
+
+    @Autowired
+    private EventStorePartitions eventStorePartitions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // collection.index -> error, for indexes that could not be created
+    private final Map<String, String> indexFailures = new ConcurrentHashMap<>();
+    private volatile IndexCoverage coverage;
+
+    @PostConstruct
+    public void provision() {
+        long started = System.currentTimeMillis();
+        int created = 0;
+        for (Map.Entry<String, List<Index>> entry : mongoIndexCatalog.collectionIndexes().entrySet()) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entry.getKey());
+            for (Index index : entry.getValue()) {
+                String name = entry.getKey() + "." + index.getIndexOptions().getString("name");
+                try {
+                    indexOps.ensureIndex(index);
+                    created++;
+                } catch (Exception e) {
+                    indexFailures.put(name, e.getMessage());
+                    log.error("Could not create index {}: {}", name, e.getMessage());
+                }
+            }
+        }
+        log.info("Ensured {} Mongo indexes in {} ms", created, System.currentTimeMillis() - started);
+
+        Gauge.builder("risk.mongo.collection-scans", this,
+                provisioner -> provisioner.coverage != null ? provisioner.coverage.getCollectionScans().size() : 0)
+                .register(meterRegistry);
+
+        if (verifyPlans) {
+            verify();
+            if (failOnCollscan && !coverage.getCollectionScans().isEmpty()) {
+                throw new IllegalStateException("Query shapes without a usable index: "
+                        + coverage.getCollectionScans());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${risk.scoring.indexes.verify-interval-ms:3600000}",
+            fixedDelayString = "${risk.scoring.indexes.verify-interval-ms:3600000}")
+    public void verify() {
+        if (!verifyPlans) {
+            return;
+        }
+        List<String> eventStoreCollections = eventStorePartitions.allCollections();
+        // The newest bucket is the one the hot queries hit
+        String eventStoreCollection = eventStoreCollections.isEmpty() ? null
+                : eventStoreCollections.get(eventStoreCollections.size() - 1);
+
+        Map<String, String> plans = new LinkedHashMap<>();
+        List<String> collectionScans = new ArrayList<>();
+        Map<String, String> explainFailures = new LinkedHashMap<>();
+        for (QueryShape shape : mongoIndexCatalog.queryShapes(eventStoreCollection)) {
+            try {
+                List<String> stages = winningPlanStages(shape);
+                plans.put(shape.getName(), String.join(" <- ", stages));
+                if (stages.stream().anyMatch(stage -> stage.startsWith("COLLSCAN"))) {
+                    collectionScans.add(shape.getName());
+                    log.error("Query shape {} on {} is served by a collection scan: filter {} sort {}",
+                            shape.getName(), shape.getCollection(), shape.getFilter().toJson(),
+                            shape.getSort().toJson());
+                }
+            } catch (Exception e) {
+                explainFailures.put(shape.getName(), e.getMessage());
+                log.warn("Could not explain query shape {}: {}", shape.getName(), e.getMessage());
+            }
+        }
+        coverage = new IndexCoverage(Instant.now(), Collections.unmodifiableMap(plans),
+                Collections.unmodifiableList(collectionScans), Map.copyOf(indexFailures),
+                Collections.unmodifiableMap(explainFailures));
+        log.info("Verified {} query shapes: {} collection scans, {} not explained", plans.size(),
+                collectionScans.size(), explainFailures.size());
+    }
+
+    /**
+     * The latest verification, or null before the first one has run.
+     */
+    public IndexCoverage getCoverage() {
+        return coverage;
+    }
+
+    private List<String> winningPlanStages(QueryShape shape) {
+        Document find = new Document("find", shape.getCollection())
+                .append("filter", shape.getFilter())
+                .append("limit", 1);
+        if (!shape.getSort().isEmpty()) {
+            find.append("sort", shape.getSort());
+        }
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain", find)
+                .append("verbosity", "queryPlanner"));
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(queryPlanner.get("winningPlan"), stages);
+        return stages;
+    }
+
+    /**
+     * Walks a plan tree top-down; covers both classic plans (inputStage,
+     * inputStages) and slot-based ones nested under queryPlan.
+     */
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(document.get("indexName") instanceof String index ? stage + "(" + index + ")" : stage);
+            }
+            for (Object value : document.values()) {
+                collectStages(value, stages);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                collectStages(item, stages);
+            }
+        }
+    }
+}
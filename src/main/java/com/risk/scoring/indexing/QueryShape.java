@@ -0,0 +1,16 @@
+package com.risk.scoring.indexing;
+
+import lombok.Value;
+import org.bson.Document;
+
+/**
+ * A query a repository issues, with representative values, whose plan is
+ * checked against the indexes at startup. {@code sort} may be empty.
+ */
+@Value
+public class QueryShape {
+    String name;
+    String collection;
+    Document filter;
+    Document sort;
+}
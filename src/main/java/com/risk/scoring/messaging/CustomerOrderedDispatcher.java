@@ -0,0 +1,138 @@
+package com.risk.scoring.messaging;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans records out to a fixed set of single-threaded lanes keyed by customerId.
+ * Tasks for the same customer always land on the same lane and therefore run in
+ * order, while different customers run in parallel. Lanes have bounded queues;
+ * a full lane blocks the dispatching consumer thread, which applies
+ * backpressure to the poll loop.
+ */
+@Component
+@Slf4j
+public class CustomerOrderedDispatcher {
+
+    private static final Runnable SHUTDOWN = () -> {
+    };
+
+    @Value("${kafka.consumer.parallel.enabled:false}")
+    private boolean enabled;
+
+    // 0 means one lane per available processor
+    @Value("${kafka.consumer.parallel.workers:0}")
+    private int workers;
+
+    @Value("${kafka.consumer.parallel.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${kafka.consumer.parallel.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private Lane[] lanes;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        int laneCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, queueCapacity);
+            lanes[i].thread.start();
+        }
+        log.info("Started {} customer-ordered scoring lanes (queue capacity {})", laneCount, queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void dispatch(String customerId, Runnable task) {
+        Lane lane = lanes[laneFor(customerId)];
+        try {
+            lane.queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching event for customer " + customerId, e);
+        }
+    }
+
+    private int laneFor(String customerId) {
+        if (customerId == null) {
+            return 0;
+        }
+        int hash = customerId.hashCode();
+        // Spread the hash so customer ids with common prefixes still distribute evenly
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (lanes == null) {
+            return;
+        }
+
+        // Let every lane drain the work it has already accepted
+        for (Lane lane : lanes) {
+            lane.queue.offer(SHUTDOWN);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (lane.thread.isAlive()) {
+                log.warn("Scoring lane {} did not drain within {} ms", lane.index, shutdownTimeoutMs);
+                lane.thread.interrupt();
+            }
+        }
+    }
+
+    private static final class Lane implements Runnable {
+        private final int index;
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+
+        private Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "scoring-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == SHUTDOWN) {
+                    return;
+                }
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Unhandled error in scoring lane {}", index, e);
+                }
+            }
+        }
+    }
+}
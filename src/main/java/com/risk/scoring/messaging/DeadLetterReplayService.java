@@ -0,0 +1,125 @@
+package com.risk.scoring.messaging;
+
+import com.risk.scoring.model.dto.DeadLetterReplayResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Re-injects dead-lettered transaction-validated records into the main topic.
+ * The dead-letter topic is read with a dedicated consumer group whose offsets
+ * are committed only after every re-published record has been acknowledged
+ * by the broker, so each dead letter is replayed once; a replay that fails
+ * part-way is repeated from the same position, and the transactionId dedup
+ * absorbs the resulting duplicates.
+ */
+@Service
+@Slf4j
+public class DeadLetterReplayService {
+
+    public static final String REPLAYED_FROM_OFFSET_HEADER = "risk_replayed-from-offset";
+
+    @Autowired
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private FailedEventRouter failedEventRouter;
+
+    @Value("${kafka.topics.transaction-validated}")
+    private String transactionValidatedTopic;
+
+    @Value("${kafka.group-id}-dlt-replay")
+    private String replayGroupId;
+
+    @Value("${kafka.retry.replay.poll-timeout-ms:2000}")
+    private long pollTimeoutMs;
+
+    @Value("${kafka.retry.replay.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Replays up to {@code maxRecords} dead letters, oldest first within each
+     * partition. Replays are serialized, since they share one consumer group.
+     */
+    public synchronized DeadLetterReplayResponse replay(int maxRecords) {
+        String deadLetterTopic = failedEventRouter.getDeadLetterTopic();
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(replayGroupId, "dlt-replay")) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return new DeadLetterReplayResponse(0, false, Map.of());
+            }
+            List<TopicPartition> partitions = new ArrayList<>(partitionInfos.size());
+            for (PartitionInfo info : partitionInfos) {
+                partitions.add(new TopicPartition(deadLetterTopic, info.partition()));
+            }
+            consumer.assign(partitions);
+
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> replayedUpTo = new HashMap<>();
+            Map<String, Long> byException = new TreeMap<>();
+            boolean moreAvailable = false;
+
+            poll:
+            while (sends.size() < maxRecords) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(pollTimeoutMs));
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (sends.size() == maxRecords) {
+                        moreAvailable = true;
+                        break poll;
+                    }
+                    ProducerRecord<String, byte[]> replay = new ProducerRecord<>(transactionValidatedTopic,
+                            record.key(), record.value());
+                    replay.headers().add(REPLAYED_FROM_OFFSET_HEADER,
+                            ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array());
+                    sends.add(kafkaTemplate.send(replay));
+                    byException.merge(TransactionRetryListener.headerValue(record, KafkaHeaders.DLT_EXCEPTION_FQCN),
+                            1L, Long::sum);
+                    replayedUpTo.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!replayedUpTo.isEmpty()) {
+                consumer.commitSync(replayedUpTo);
+            }
+            log.info("Replayed {} dead-lettered records from {} to {}", sends.size(), deadLetterTopic,
+                    transactionValidatedTopic);
+            return new DeadLetterReplayResponse(sends.size(), moreAvailable, byException);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying dead letters", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Dead-letter replay was not acknowledged by the broker", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.risk.scoring.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Takes transaction-validated records whose processing failed off the main
+ * topic. Transient failures are published, unchanged, to the failed-events
+ * topic, from which {@link TransactionRetryListener} retries them at
+ * increasing delays; permanent ones go straight to its dead-letter topic. The
+ * error and the record's origin travel as headers; dead-lettered records use
+ * the same headers Spring Kafka's dead-letter publisher writes.
+ */
+@Component
+@Slf4j
+public class FailedEventRouter {
+
+    public static final String DEAD_LETTER_SUFFIX = "-dlt";
+    public static final String FAILURE_KIND_HEADER = "risk_failure-kind";
+    public static final String FIRST_EXCEPTION_FQCN_HEADER = "risk_first-exception-fqcn";
+    public static final String FIRST_EXCEPTION_MESSAGE_HEADER = "risk_first-exception-message";
+    public static final String SOURCE_PARTITION_HEADER = "risk_source-partition";
+    public static final String SOURCE_OFFSET_HEADER = "risk_source-offset";
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private FailureClassifier failureClassifier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${kafka.topics.transaction-validated-failed}")
+    private String failedTopic;
+
+    @Value("${kafka.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    public String getDeadLetterTopic() {
+        return failedTopic + DEAD_LETTER_SUFFIX;
+    }
+
+    /**
+     * Publishes the failed record to the retry or dead-letter topic. The source
+     * record may be acknowledged once the returned future completes.
+     */
+    public CompletableFuture<?> route(ConsumerRecord<String, byte[]> record, Throwable error) {
+        Throwable cause = FailureClassifier.unwrap(error);
+        FailureClassifier.FailureKind kind = failureClassifier.classify(cause);
+        boolean deadLetter = kind == FailureClassifier.FailureKind.PERMANENT || !retryEnabled;
+        String topic = deadLetter ? getDeadLetterTopic() : failedTopic;
+
+        ProducerRecord<String, byte[]> failed = new ProducerRecord<>(topic, record.key(), record.value());
+        Headers headers = failed.headers();
+        String exceptionClass = cause.getClass().getName();
+        String message = String.valueOf(cause.getMessage());
+        header(headers, FAILURE_KIND_HEADER, kind.name());
+        header(headers, FIRST_EXCEPTION_FQCN_HEADER, exceptionClass);
+        header(headers, FIRST_EXCEPTION_MESSAGE_HEADER, message);
+        headers.add(SOURCE_PARTITION_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array());
+        headers.add(SOURCE_OFFSET_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array());
+        if (deadLetter) {
+            header(headers, KafkaHeaders.DLT_EXCEPTION_FQCN, exceptionClass);
+            header(headers, KafkaHeaders.DLT_EXCEPTION_MESSAGE, message);
+            header(headers, KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic());
+            headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION,
+                    ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array());
+            headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET,
+                    ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array());
+            headers.add(KafkaHeaders.DLT_ORIGINAL_TIMESTAMP,
+                    ByteBuffer.allocate(Long.BYTES).putLong(record.timestamp()).array());
+        }
+
+        meterRegistry.counter("risk.kafka.failed-events", "kind", kind.name(),
+                "route", deadLetter ? "dead-letter" : "retry").increment();
+        log.warn("Routing failed transaction-validated record {}-{}@{} to {} ({}: {})", record.topic(),
+                record.partition(), record.offset(), topic, exceptionClass, message);
+        return kafkaTemplate.send(failed);
+    }
+
+    private static void header(Headers headers, String name, String value) {
+        headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
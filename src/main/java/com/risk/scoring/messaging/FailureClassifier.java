@@ -0,0 +1,78 @@
+package com.risk.scoring.messaging;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides whether a scoring failure is worth retrying. Infrastructure
+ * failures (Mongo or Kafka unavailable, timeouts, saturated executors) are
+ * transient; failures caused by the record itself (unreadable payloads,
+ * missing or malformed fields surfacing as NPEs and argument errors) are
+ * permanent. Anything unrecognized is treated as transient, since the retry
+ * topics bound how often it is attempted.
+ */
+@Component
+public class FailureClassifier {
+
+    public enum FailureKind {
+        TRANSIENT,
+        PERMANENT
+    }
+
+    public FailureKind classify(Throwable error) {
+        for (Throwable cause = unwrap(error); cause != null; cause = cause.getCause()) {
+            if (cause instanceof PermanentScoringFailureException) {
+                return FailureKind.PERMANENT;
+            }
+            if (isTransient(cause)) {
+                return FailureKind.TRANSIENT;
+            }
+            if (isPermanent(cause)) {
+                return FailureKind.PERMANENT;
+            }
+        }
+        return FailureKind.TRANSIENT;
+    }
+
+    /** Strips the wrappers added by futures around the actual failure. */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private boolean isTransient(Throwable cause) {
+        return cause instanceof TransientDataAccessException
+                || cause instanceof DataAccessResourceFailureException
+                || cause instanceof MongoTimeoutException
+                || cause instanceof MongoSocketException
+                || cause instanceof RetriableException
+                || cause instanceof TimeoutException
+                || cause instanceof RejectedExecutionException
+                || (cause instanceof MongoException mongoException
+                        && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL));
+    }
+
+    private boolean isPermanent(Throwable cause) {
+        return cause instanceof NullPointerException
+                || cause instanceof IllegalArgumentException
+                || cause instanceof ClassCastException
+                || cause instanceof IndexOutOfBoundsException
+                || cause instanceof DateTimeException
+                || cause instanceof ArithmeticException;
+    }
+}
@@ -1,181 +1,267 @@
 package com.risk.scoring.messaging;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.risk.scoring.model.CustomerProfileData;
-import com.risk.scoring.model.VelocityData;
-import com.risk.scoring.model.dto.RiskCalculationRequest;
-import com.risk.scoring.service.CustomerRiskProfileService;
-import com.risk.scoring.service.RiskScoringService;
-import com.risk.scoring.service.EventStoreService;
-import com.risk.scoring.service.AnomalyDetectionService;
-import com.riskplatform.common.entity.RiskAssessment;
-import com.riskplatform.common.entity.CustomerRiskProfile;
-import com.riskplatform.common.entity.Anomaly;
-import com.riskplatform.common.entity.EventStoreEntry;
-import com.riskplatform.common.event.TransactionEvent;
+import com.risk.scoring.codec.EventCodecs;
+import com.risk.scoring.dedup.TransactionDeduplicator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class KafkaConsumerService {
 
     @Autowired
-    private RiskScoringService riskScoringService;
+    private TransactionEventProcessor transactionEventProcessor;
 
     @Autowired
-    private CustomerRiskProfileService customerRiskProfileService;
+    private CustomerOrderedDispatcher customerOrderedDispatcher;
 
     @Autowired
-    private EventStoreService eventStoreService;
+    private EventCodecs eventCodecs;
 
     @Autowired
-    private AnomalyDetectionService anomalyDetectionService;
+    private TransactionDeduplicator transactionDeduplicator;
 
     @Autowired
-    private KafkaProducerService kafkaProducerService;
+    private FailedEventRouter failedEventRouter;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private MeterRegistry meterRegistry;
 
-    @KafkaListener(topics = "${kafka.topics.transaction-validated}", groupId = "${kafka.group-id}")
-    public void consumeTransactionValidatedEvent(String message) {
-        try {
-            log.info("RISK SCORING EVENT RECEIVED: {}", message);
-            TransactionValidatedEvent event = objectMapper.readValue(message, TransactionValidatedEvent.class);
-            log.info("RISK SCORING EVENT RECEIVED: {}", event);
-            RiskCalculationRequest request = createRiskCalculationRequest(event);
-
-            RiskAssessment assessment = riskScoringService.calculateRiskScore(request).getRiskAssessment();
-            assessment.setCustomerId(request.getCustomerId());
-            String customerId = event.getCustomerId();
-            Optional<CustomerRiskProfile> profileOpt = customerRiskProfileService.getCustomerRiskProfile(customerId);
-            CustomerRiskProfile profile;
-
-            if (profileOpt.isPresent()) {
-                profile = profileOpt.get();
-                // Use the interface method
-                profile = customerRiskProfileService.updateCustomerRiskProfileFromAssessment(profile, assessment);
-            } else {
-                // Create new profile using the interface method
-                CustomerProfileData customerProfileData = request.getCustomerProfile();
-                profile = customerRiskProfileService.createCustomerRiskProfileFromAssessment(assessment,
-                        customerProfileData);
-                profile.setCustomerId(customerId);
-            }
+    @Value("${kafka.retry.handoff-backoff-ms:500}")
+    private long handoffBackoffMs;
 
-            // Check if we should update the profile using the service's significant change
-            // method
-            boolean shouldUpdate = false;
-            if (profileOpt.isPresent()) {
-                shouldUpdate = customerRiskProfileService.isSignificantChange(profileOpt.get(), profile);
-            } else {
-                // Always update for new profiles
-                shouldUpdate = true;
-            }
+    @Value("${kafka.retry.handoff-max-backoff-ms:30000}")
+    private long handoffMaxBackoffMs;
 
-            if (shouldUpdate) {
-                customerRiskProfileService.saveCustomerRiskProfile(profile);
+    private final ScheduledExecutorService handoffRetryScheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "failed-handoff-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
 
-                kafkaProducerService.sendRiskProfileUpdatedEvent(profile);
-            }
+    private Counter handoffFailures;
 
-            // Create event data for event store
-            com.risk.scoring.model.EventData eventData = new com.risk.scoring.model.EventData();
-            eventData.setTransactionId(assessment.getTransactionId());
-            eventData.setPreviousScore(profileOpt.map(CustomerRiskProfile::getCurrentRiskScore).orElse(0));
-            eventData.setNewScore(assessment.getRiskScore());
-            eventData.setRiskLevel(assessment.getRiskLevel());
-
-            // Create factors map
-            java.util.Map<String, Integer> factors = new java.util.HashMap<>();
-            factors.put("transaction", assessment.getRiskFactors().getTransactionRisk());
-            factors.put("behavior", assessment.getRiskFactors().getBehaviorRisk());
-            factors.put("velocity", assessment.getRiskFactors().getVelocityRisk());
-            factors.put("geographic", assessment.getRiskFactors().getGeographicRisk());
-            factors.put("merchant", assessment.getRiskFactors().getMerchantRisk());
-            eventData.setFactors(factors);
-
-            eventData.setDecision(assessment.getDecision());
-            eventData.setDecisionDetails(assessment.getDecisionDetails());
-
-            EventStoreEntry eventStoreEntry = eventStoreService.saveRiskScoreEvent(assessment, customerId);
-
-            List<Anomaly> anomalies = anomalyDetectionService.detectAnomalies(assessment);
-            if (!anomalies.isEmpty()) {
-                anomalyDetectionService.saveAnomalies(anomalies);
-
-                if (assessment.getRiskLevel() == com.riskplatform.common.enums.RiskLevel.HIGH ||
-                        assessment.getRiskLevel() == com.riskplatform.common.enums.RiskLevel.CRITICAL) {
-                    kafkaProducerService.sendHighRiskAlert(assessment);
-                }
-            }
-
-            kafkaProducerService.sendRiskScoreCalculatedEvent(assessment);
+    @PostConstruct
+    public void init() {
+        handoffFailures = Counter.builder("risk.kafka.handoff-failures")
+                .description("Failed attempts to publish a failed record for retry")
+                .register(meterRegistry);
+    }
 
+    @KafkaListener(id = "transactionValidatedListener", topics = "${kafka.topics.transaction-validated}",
+            groupId = "${kafka.group-id}", autoStartup = "#{!${kafka.consumer.batch-mode:false}}")
+    public void consumeTransactionValidatedEvent(ConsumerRecord<String, byte[]> record,
+            Acknowledgment acknowledgment) {
+        TransactionValidatedEvent event;
+        try {
+            event = eventCodecs.decode(record.value(), TransactionValidatedEvent.class);
+            log.info("RISK SCORING EVENT RECEIVED: {}", event);
         } catch (Exception e) {
-            System.err.println("Error processing transaction-validated event: " + e.getMessage());
-            e.printStackTrace();
+            // Unreadable records would fail the same way on every redelivery
+            routeAndAcknowledge(record,
+                    new PermanentScoringFailureException("Unreadable transaction-validated event", e),
+                    acknowledgment);
+            return;
+        }
+
+        if (customerOrderedDispatcher.isEnabled()) {
+            // Ordered per customer, parallel across customers; the ack is issued once
+            // the event has been processed and its event store write committed
+            customerOrderedDispatcher.dispatch(event.getCustomerId(),
+                    () -> processAndAcknowledge(record, event, acknowledgment));
+        } else {
+            processAndAcknowledge(record, event, acknowledgment);
         }
     }
 
-    private RiskCalculationRequest createRiskCalculationRequest(TransactionValidatedEvent event) {
-        RiskCalculationRequest request = new RiskCalculationRequest();
-
-        request.setTransactionId(event.getTransactionId());
-        request.setCustomerId(event.getCustomerId());
-        request.setAmount(event.getAmount());
-        request.setMerchant(event.getMerchant());
-        // event.getLocation() returns com.risk.scoring.model.Location, but request
-        // expects com.riskplatform.common.model.Location
-        // Assuming TransactionValidatedEvent will be updated to use common Location
-        request.setLocation(event.getLocation());
-        request.setTimestamp(event.getTimestamp());
-
-        // Fetch customer profile data from MongoDB
-        CustomerProfileData customerProfile = customerRiskProfileService.getCustomerProfileData(event.getCustomerId());
-        if (customerProfile == null) {
-            // Fallback to mock data if not found
-            customerProfile = createMockCustomerProfile(event);
+    /**
+     * The ack is issued once the event store write has been group-committed
+     * (async acks), so the consumer thread moves on while the batch fills.
+     * Redelivered transactions are acknowledged without being processed again.
+     * A failed one is handed to the retry or dead-letter topic and acknowledged
+     * once that hand-off is durable, so retries never hold up this partition.
+     */
+    private void processAndAcknowledge(ConsumerRecord<String, byte[]> record, TransactionValidatedEvent event,
+            Acknowledgment acknowledgment) {
+        String transactionId = event.getTransactionId();
+        try {
+            if (!transactionDeduplicator.claim(transactionId, record)) {
+                log.info("Skipping already processed transaction {}", transactionId);
+                acknowledgment.acknowledge();
+                return;
+            }
+        } catch (Exception e) {
+            routeAndAcknowledge(record, e, acknowledgment);
+            return;
         }
-        request.setCustomerProfile(customerProfile);
 
-        // Fetch velocity data from Redis cache
-        VelocityData velocityData = customerRiskProfileService.getVelocityData(event.getCustomerId());
-        if (velocityData == null) {
-            // Fallback to mock data if not found
-            velocityData = createMockVelocityData(event);
+        try {
+            transactionEventProcessor.process(event).whenComplete((result, error) -> {
+                if (error != null) {
+                    transactionDeduplicator.release(transactionId);
+                    routeAndAcknowledge(record, error, acknowledgment);
+                    return;
+                }
+                transactionDeduplicator.complete(transactionId, event.getCustomerId());
+                acknowledgment.acknowledge();
+            });
+        } catch (Exception e) {
+            transactionDeduplicator.release(transactionId);
+            routeAndAcknowledge(record, e, acknowledgment);
         }
-        request.setVelocityData(velocityData);
+    }
 
-        return request;
+    /**
+     * Acknowledges the failed record once it has been published for retry. A
+     * failed hand-off is retried with exponential backoff, capped at
+     * {@code handoff-max-backoff-ms}, until it succeeds: the record is never
+     * acknowledged without having been handed off, and while it waits its
+     * partition's offset commits wait with it. A restart or rebalance in the
+     * meantime redelivers it.
+     */
+    private void routeAndAcknowledge(ConsumerRecord<String, byte[]> record, Throwable error,
+            Acknowledgment acknowledgment) {
+        routeAndAcknowledge(record, error, acknowledgment, 0);
     }
 
-    private CustomerProfileData createMockCustomerProfile(TransactionValidatedEvent event) {
-        CustomerProfileData customerProfile = new CustomerProfileData();
-        customerProfile.setRegistrationDate(event.getTimestamp().minusSeconds(86400 * 365)); // 1 year ago
-        customerProfile.setKycStatus(com.risk.scoring.model.enums.KycStatus.VERIFIED);
-        customerProfile.setAllowedCountries(java.util.Arrays.asList("US", "CA", "GB", "AU", "IN"));
-        customerProfile.setDailyLimit(5000.0);
-        customerProfile.setAvgTransactionAmount(1000.0);
-        customerProfile.setAccountStatus(com.risk.scoring.model.enums.AccountStatus.ACTIVE);
-        customerProfile.setFraudHistory(false);
-        customerProfile.setFailedTransactionsLast7Days(0);
-        customerProfile.setLastVerifiedLocation(event.getLocation());
-        customerProfile.setLastTransactionTime(event.getTimestamp().minusSeconds(3600)); // 1 hour ago
-        return customerProfile;
+    private void routeAndAcknowledge(ConsumerRecord<String, byte[]> record, Throwable error,
+            Acknowledgment acknowledgment, int attempt) {
+        handOff(record, error).whenComplete((result, routeError) -> {
+            if (routeError == null) {
+                acknowledgment.acknowledge();
+                return;
+            }
+            handoffFailures.increment();
+            long backoffMs = Math.min(handoffBackoffMs << Math.min(attempt, 16), handoffMaxBackoffMs);
+            log.error("Could not hand off failed record {}-{}@{} (attempt {}), retrying in {} ms: {}",
+                    record.topic(), record.partition(), record.offset(), attempt + 1, backoffMs,
+                    routeError.getMessage());
+            handoffRetryScheduler.schedule(() -> routeAndAcknowledge(record, error, acknowledgment, attempt + 1),
+                    backoffMs, TimeUnit.MILLISECONDS);
+        });
     }
 
-    private VelocityData createMockVelocityData(TransactionValidatedEvent event) {
-        VelocityData velocityData = new VelocityData();
-        velocityData.setTransactionsInLastHour(5);
-        velocityData.setTransactionsInLastDay(20);
-        return velocityData;
+    /** Routes the record, turning a synchronous failure of the router into a failed hand-off. */
+    private CompletableFuture<?> handOff(ConsumerRecord<String, byte[]> record, Throwable error) {
+        try {
+            return failedEventRouter.route(record, error);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Records still waiting stay unacknowledged and are redelivered after the restart
+        handoffRetryScheduler.shutdownNow();
+    }
+
+    /**
+     * Batch mode: takes a whole poll of records and commits the offsets only after
+     * the batch has been persisted. Transactions already processed, or repeated
+     * within the batch, are dropped before scoring. Unreadable records, and
+     * every record of a batch that fails to persist, are handed to the retry or
+     * dead-letter topic; only if that hand-off fails is the batch left
+     * unacknowledged for redelivery.
+     */
+    @KafkaListener(id = "transactionValidatedBatchListener", topics = "${kafka.topics.transaction-validated}",
+            groupId = "${kafka.group-id}", containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${kafka.consumer.batch-mode:false}")
+    public void consumeTransactionValidatedEvents(List<ConsumerRecord<String, byte[]>> records,
+            Acknowledgment acknowledgment) {
+        log.info("RISK SCORING BATCH RECEIVED: {} records", records.size());
+
+        List<CompletableFuture<?>> handoffs = new ArrayList<>();
+        List<TransactionValidatedEvent> events = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, byte[]>> eventRecords = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                events.add(eventCodecs.decode(record.value(), TransactionValidatedEvent.class));
+                eventRecords.add(record);
+            } catch (Exception e) {
+                handoffs.add(handOff(record,
+                        new PermanentScoringFailureException("Unreadable transaction-validated event", e)));
+            }
+        }
+
+        List<String> transactionIds = new ArrayList<>(events.size());
+        Set<String> takenOver = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            String transactionId = events.get(i).getTransactionId();
+            transactionIds.add(transactionId);
+            if (transactionId != null && transactionDeduplicator.isTakenOver(eventRecords.get(i))) {
+                takenOver.add(transactionId);
+            }
+        }
+        Set<String> claimed = transactionDeduplicator.claimAll(transactionIds, takenOver);
+        // Set once the claims are completed or released
+        boolean settled = false;
+        try {
+            List<TransactionValidatedEvent> fresh = new ArrayList<>(events.size());
+            List<ConsumerRecord<String, byte[]>> freshRecords = new ArrayList<>(events.size());
+            Map<String, String> customerIdsByTransactionId = new LinkedHashMap<>();
+            for (int i = 0; i < events.size(); i++) {
+                TransactionValidatedEvent event = events.get(i);
+                String transactionId = event.getTransactionId();
+                if (transactionId == null || (claimed.contains(transactionId)
+                        && !customerIdsByTransactionId.containsKey(transactionId))) {
+                    fresh.add(event);
+                    freshRecords.add(eventRecords.get(i));
+                    if (transactionId != null) {
+                        customerIdsByTransactionId.put(transactionId, event.getCustomerId());
+                    }
+                }
+            }
+            if (fresh.size() < events.size()) {
+                log.info("Skipping {} already processed transactions in batch", events.size() - fresh.size());
+            }
+
+            if (!fresh.isEmpty()) {
+                try {
+                    transactionEventProcessor.processBatch(fresh);
+                    transactionDeduplicator.completeAll(customerIdsByTransactionId);
+                    settled = true;
+                } catch (RuntimeException e) {
+                    // Released before the hand-off, so the retry listener can claim them
+                    transactionDeduplicator.releaseAll(claimed);
+                    settled = true;
+                    log.error("Batch of {} events failed, handing them off for retry: {}", fresh.size(),
+                            e.getMessage());
+                    for (ConsumerRecord<String, byte[]> record : freshRecords) {
+                        handoffs.add(handOff(record, e));
+                    }
+                }
+            }
+
+            // A failed hand-off propagates, leaving the batch unacknowledged for redelivery
+            CompletableFuture.allOf(handoffs.toArray(new CompletableFuture[0])).join();
+            acknowledgment.acknowledge();
+        } finally {
+            // Whatever else failed, the claims must not outlive the batch
+            if (!settled) {
+                transactionDeduplicator.releaseAll(claimed);
+            }
+        }
     }
-}
\ No newline at end of file
+}
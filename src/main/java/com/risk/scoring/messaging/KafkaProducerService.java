@@ -1,23 +1,46 @@
 package com.risk.scoring.messaging;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.risk.scoring.codec.AvroEventCodec;
+import com.risk.scoring.codec.EventCodecs;
 import com.riskplatform.common.entity.CustomerRiskProfile;
 import com.riskplatform.common.entity.RiskAssessment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes scoring results. Payloads are encoded straight to bytes with the
+ * codec configured for the topic (see {@link EventCodecs}) and
+ * handed to the producer without waiting for the broker; delivery is observed
+ * through the send future, which feeds the success/failure counters and the
+ * latency timer. At most {@code kafka.producer.max-in-flight} sends may be
+ * unacknowledged at once: beyond that the calling consumer thread blocks, which
+ * slows consumption down instead of growing the producer buffer.
+ */
 @Service
 @Slf4j
 public class KafkaProducerService {
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private EventCodecs eventCodecs;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private MeterRegistry meterRegistry;
 
     @Value("${kafka.topics.risk-score-calculated}")
     private String riskScoreCalculatedTopic;
@@ -28,33 +51,112 @@ public class KafkaProducerService {
     @Value("${kafka.topics.risk-alert-high-score}")
     private String riskAlertHighScoreTopic;
 
+    @Value("${kafka.producer.max-in-flight:10000}")
+    private int maxInFlight;
+
+    // Fraction of payloads logged at INFO; 0 disables payload logging
+    @Value("${kafka.producer.payload-log-sample-rate:0.001}")
+    private double payloadLogSampleRate;
+
+    private Semaphore inFlight;
+
+    private TopicMetrics riskScoreCalculatedMetrics;
+    private TopicMetrics riskProfileUpdatedMetrics;
+    private TopicMetrics riskAlertHighScoreMetrics;
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(maxInFlight);
+
+        riskScoreCalculatedMetrics = new TopicMetrics(riskScoreCalculatedTopic);
+        riskProfileUpdatedMetrics = new TopicMetrics(riskProfileUpdatedTopic);
+        riskAlertHighScoreMetrics = new TopicMetrics(riskAlertHighScoreTopic);
+
+        Gauge.builder("risk.kafka.producer.in-flight", inFlight, semaphore -> maxInFlight - semaphore.availablePermits())
+                .description("Sends handed to the producer and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
     public void sendRiskScoreCalculatedEvent(RiskAssessment assessment) {
-        try {
-            String message = objectMapper.writeValueAsString(assessment);
-            log.info("Sending risk-score-calculated event: " + message);
-            kafkaTemplate.send(riskScoreCalculatedTopic, assessment.getTransactionId(), message);
-        } catch (Exception e) {
-            System.err.println("Error sending risk-score-calculated event: " + e.getMessage());
-        }
+        send(riskScoreCalculatedMetrics, assessment.getTransactionId(), assessment);
     }
 
     public void sendRiskProfileUpdatedEvent(CustomerRiskProfile profile) {
+        send(riskProfileUpdatedMetrics, profile.getCustomerId(), profile);
+    }
+
+    public void sendHighRiskAlert(RiskAssessment assessment) {
+        send(riskAlertHighScoreMetrics, assessment.getTransactionId(), assessment);
+    }
+
+    private void send(TopicMetrics topic, String key, Object payload) {
+        byte[] message;
         try {
-            String message = objectMapper.writeValueAsString(profile);
-            log.info("Sending risk-profile-updated event: " + message);
-            kafkaTemplate.send(riskProfileUpdatedTopic, profile.getCustomerId(), message);
+            message = eventCodecs.encode(topic.name, payload);
         } catch (Exception e) {
-            System.err.println("Error sending risk-profile-updated event: " + e.getMessage());
+            topic.failed.increment();
+            log.error("Error serializing {} event with key {}: {}", topic.name, key, e.getMessage());
+            return;
+        }
+
+        if (payloadLogSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < payloadLogSampleRate) {
+            if (AvroEventCodec.isAvro(message)) {
+                log.info("Sending {} event (sampled): {} Avro bytes, {}", topic.name, message.length, payload);
+            } else {
+                log.info("Sending {} event (sampled): {}", topic.name, new String(message, StandardCharsets.UTF_8));
+            }
         }
-    }
 
-    public void sendHighRiskAlert(RiskAssessment assessment) {
         try {
-            String message = objectMapper.writeValueAsString(assessment);
-            log.info("Sending high-risk alert: " + message);
-            kafkaTemplate.send(riskAlertHighScoreTopic, assessment.getTransactionId(), message);
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            topic.failed.increment();
+            log.error("Interrupted while waiting to send {} event with key {}", topic.name, key);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(topic.name, key, message).whenComplete((result, ex) -> {
+                inFlight.release();
+                topic.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (ex == null) {
+                    topic.sent.increment();
+                } else {
+                    topic.failed.increment();
+                    log.error("Error sending {} event with key {}: {}", topic.name, key, ex.getMessage());
+                }
+            });
         } catch (Exception e) {
-            System.err.println("Error sending high-risk alert: " + e.getMessage());
+            // The producer rejected the record before it was queued (e.g. buffer exhausted)
+            inFlight.release();
+            topic.failed.increment();
+            log.error("Error sending {} event with key {}: {}", topic.name, key, e.getMessage());
+        }
+    }
+
+    private final class TopicMetrics {
+        private final String name;
+        private final Counter sent;
+        private final Counter failed;
+        private final Timer latency;
+
+        private TopicMetrics(String name) {
+            this.name = name;
+            this.sent = Counter.builder("risk.kafka.producer.sends")
+                    .tag("topic", name)
+                    .tag("result", "success")
+                    .register(meterRegistry);
+            this.failed = Counter.builder("risk.kafka.producer.sends")
+                    .tag("topic", name)
+                    .tag("result", "failure")
+                    .register(meterRegistry);
+            this.latency = Timer.builder("risk.kafka.producer.latency")
+                    .description("Time from send to broker acknowledgement")
+                    .tag("topic", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
         }
     }
-}
\ No newline at end of file
+}
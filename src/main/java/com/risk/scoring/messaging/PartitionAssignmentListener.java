@@ -0,0 +1,64 @@
+package com.risk.scoring.messaging;
+
+import com.risk.scoring.cache.CustomerRiskProfileCache;
+import com.risk.scoring.dedup.TransactionDeduplicator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells the deduplicator which partitions this instance has just taken over,
+ * and up to which offset, so the backlog inherited with them is checked
+ * against the processed transaction markers rather than only the local bloom
+ * filter. The profile cache is dropped too, since the customers of those
+ * partitions were last updated by another instance.
+ */
+@Component
+@Slf4j
+public class PartitionAssignmentListener implements ConsumerAwareRebalanceListener {
+
+    @Autowired
+    private TransactionDeduplicator transactionDeduplicator;
+
+    @Autowired
+    private CustomerRiskProfileCache customerRiskProfileCache;
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, Long> endOffsets;
+        try {
+            endOffsets = consumer.endOffsets(partitions);
+        } catch (Exception e) {
+            // Without the end offsets, verify every record until the partitions move again
+            log.warn("Could not read end offsets of {} assigned partitions, checking all their records against "
+                    + "the processed markers: {}", partitions.size(), e.getMessage());
+            endOffsets = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                endOffsets.put(partition, Long.MAX_VALUE);
+            }
+        }
+        transactionDeduplicator.partitionsAssigned(endOffsets);
+        customerRiskProfileCache.invalidateAll();
+        log.info("Assigned {} partitions, verifying their backlog against the processed markers", partitions.size());
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        transactionDeduplicator.partitionsRevoked(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        transactionDeduplicator.partitionsRevoked(partitions);
+    }
+}
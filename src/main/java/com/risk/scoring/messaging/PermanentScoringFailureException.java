@@ -0,0 +1,13 @@
+package com.risk.scoring.messaging;
+
+/**
+ * A failure that would recur on every redelivery of the same record, such as
+ * an unreadable payload or a bug hit by its data. Records failing with it skip
+ * the retry topics and go straight to the dead-letter topic.
+ */
+public class PermanentScoringFailureException extends RuntimeException {
+
+    public PermanentScoringFailureException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,348 @@
+package com.risk.scoring.messaging;
+
+import com.risk.scoring.model.CustomerProfileData;
+import com.risk.scoring.model.VelocityData;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.model.dto.RiskCalculationResponse;
+import com.risk.scoring.service.AnomalyDetectionService;
+import com.risk.scoring.service.CustomerRiskProfileService;
+import com.risk.scoring.service.EventStoreService;
+import com.risk.scoring.service.ProfileRebuildService;
+import com.risk.scoring.service.RiskScoringService;
+import com.risk.scoring.service.ScoreSeriesService;
+import com.risk.scoring.service.VelocityTrackingService;
+import com.riskplatform.common.entity.Anomaly;
+import com.riskplatform.common.entity.CustomerRiskProfile;
+import com.riskplatform.common.entity.EventStoreEntry;
+import com.riskplatform.common.entity.RiskAssessment;
+import com.riskplatform.common.enums.RiskLevel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scores transaction-validated events and applies the resulting side effects
+ * (profile, event store, anomalies and outgoing events).
+ */
+@Service
+@Slf4j
+public class TransactionEventProcessor {
+
+    @Autowired
+    private RiskScoringService riskScoringService;
+
+    @Autowired
+    private CustomerRiskProfileService customerRiskProfileService;
+
+    @Autowired
+    private EventStoreService eventStoreService;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private KafkaProducerService kafkaProducerService;
+
+    @Autowired
+    private VelocityTrackingService velocityTrackingService;
+
+    @Autowired
+    private ProfileRebuildService profileRebuildService;
+
+    @Autowired
+    private ScoreSeriesService scoreSeriesService;
+
+    // Per customer, transactions being scored whose velocity is not recorded yet
+    private final Map<String, Integer> velocityInFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Scores the event, appends it to the event store and, once the append is
+     * durable, applies the remaining side effects. The append is the commit
+     * point: when scoring or the append fails nothing else has been applied, so
+     * a retry starts clean. The event is keyed by transaction, so the append of
+     * a retry whose earlier attempt did commit is a no-op that only re-runs the
+     * effects. The effects that follow it are at-least-once, since
+     * a failure among them retries the whole transaction: velocity, score
+     * series, customer statistics, the profile and outgoing events may be
+     * applied twice, anomalies and their counts are not (they are keyed by
+     * transaction). The append is group-committed; the returned future
+     * completes once every effect has been applied.
+     *
+     * Velocity is only recorded once the append commits, so, as processBatch
+     * does within a batch, the customer's transactions still between scoring
+     * and that point are added to the velocity counts this one is scored with.
+     */
+    public CompletableFuture<Void> process(TransactionValidatedEvent event) {
+        String customerId = event.getCustomerId();
+        int earlier = beginVelocityInFlight(customerId) - 1;
+        try {
+            RiskCalculationRequest request = createRiskCalculationRequest(event);
+            if (earlier > 0) {
+                VelocityData velocity = request.getVelocityData();
+                request.setVelocityData(new VelocityData(velocity.getTransactionsInLastHour() + earlier,
+                        velocity.getTransactionsInLastDay() + earlier));
+            }
+
+            RiskAssessment assessment = riskScoringService.calculateRiskScore(request).getRiskAssessment();
+            assessment.setCustomerId(request.getCustomerId());
+
+            return eventStoreService.appendRiskScoreEvent(assessment, customerId, request)
+                    .whenComplete((eventStoreEntry, error) -> {
+                        if (error != null) {
+                            endVelocityInFlight(customerId);
+                        }
+                    })
+                    .thenAccept(eventStoreEntry -> applyCommitted(assessment, request, customerId, eventStoreEntry));
+        } catch (RuntimeException e) {
+            endVelocityInFlight(customerId);
+            throw e;
+        }
+    }
+
+    /** @return the customer's transactions in flight, including this one */
+    private int beginVelocityInFlight(String customerId) {
+        return customerId != null ? velocityInFlight.merge(customerId, 1, Integer::sum) : 1;
+    }
+
+    private void endVelocityInFlight(String customerId) {
+        if (customerId != null) {
+            velocityInFlight.computeIfPresent(customerId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Runs on the event store completion thread the customer is pinned to, so
+     * a customer's transactions are applied in the order they were appended.
+     */
+    private void applyCommitted(RiskAssessment assessment, RiskCalculationRequest request, String customerId,
+            EventStoreEntry eventStoreEntry) {
+        try {
+            velocityTrackingService.recordTransaction(customerId, request.getTimestamp());
+        } finally {
+            endVelocityInFlight(customerId);
+        }
+        scoreSeriesService.record(customerId, assessment.getTimestamp(), assessment.getRiskScore(),
+                assessment.getRiskLevel());
+
+        if (customerRiskProfileService.isAtomicUpdateEnabled()) {
+            // Updated in place without reading it first; every assessment is persisted
+            CustomerRiskProfile profile = customerRiskProfileService.applyAssessment(assessment,
+                    request.getCustomerProfile());
+            if (customerRiskProfileService.isSignificantUpdate(profile)) {
+                kafkaProducerService.sendRiskProfileUpdatedEvent(profile);
+            }
+        } else {
+            Optional<CustomerRiskProfile> profileOpt = customerRiskProfileService.getCustomerRiskProfile(customerId);
+
+            ProfileUpdate update = applyAssessment(profileOpt.orElse(null), assessment, request, customerId);
+            if (update.shouldSave) {
+                customerRiskProfileService.saveCustomerRiskProfile(update.profile);
+
+                kafkaProducerService.sendRiskProfileUpdatedEvent(update.profile);
+            }
+        }
+
+        List<Anomaly> anomalies = anomalyDetectionService.detectAnomalies(assessment, request);
+        if (!anomalies.isEmpty()) {
+            anomalyDetectionService.saveAnomalies(anomalies);
+        }
+
+        profileRebuildService.snapshotIfDue(List.of(eventStoreEntry));
+
+        if (!anomalies.isEmpty() && isHighRisk(assessment)) {
+            kafkaProducerService.sendHighRiskAlert(assessment);
+        }
+        kafkaProducerService.sendRiskScoreCalculatedEvent(assessment);
+    }
+
+    /**
+     * Scores a whole poll of events and persists the results with one bulk write
+     * per collection. As for single events the event store write comes first and
+     * the other effects follow it, with the same at-least-once caveats. Any
+     * persistence failure propagates to the caller so the batch can be
+     * redelivered; outgoing events are only sent once every write has succeeded.
+     * Events the failed batch did store are not appended again when their
+     * transactions are retried, since event ids are derived from transactions.
+     */
+    public void processBatch(List<TransactionValidatedEvent> events) {
+        List<RiskCalculationRequest> requests = new ArrayList<>(events.size());
+        Set<String> customerIds = new LinkedHashSet<>();
+        Map<String, Integer> batchTransactions = new HashMap<>();
+        for (TransactionValidatedEvent event : events) {
+            RiskCalculationRequest request = createRiskCalculationRequest(event);
+            // Velocity is recorded after the commit, so count this customer's earlier events in the batch here
+            int earlier = batchTransactions.merge(event.getCustomerId(), 1, Integer::sum) - 1;
+            if (earlier > 0) {
+                VelocityData velocity = request.getVelocityData();
+                request.setVelocityData(new VelocityData(velocity.getTransactionsInLastHour() + earlier,
+                        velocity.getTransactionsInLastDay() + earlier));
+            }
+            requests.add(request);
+            customerIds.add(event.getCustomerId());
+        }
+
+        List<RiskCalculationResponse> responses = riskScoringService.calculateRiskScores(requests);
+        List<EventStoreEntry> eventStoreEntries = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            RiskAssessment assessment = responses.get(i).getRiskAssessment();
+            assessment.setCustomerId(requests.get(i).getCustomerId());
+            eventStoreEntries.add(eventStoreService.createRiskScoreEvent(assessment, events.get(i).getCustomerId(),
+                    requests.get(i)));
+        }
+        if (!eventStoreEntries.isEmpty()) {
+            eventStoreService.bulkSaveEvents(eventStoreEntries);
+        }
+
+        // One read for every profile touched by the batch; later events for the same
+        // customer see the profile as updated by the earlier ones. Atomic updates need no read.
+        boolean atomicProfileUpdates = customerRiskProfileService.isAtomicUpdateEnabled();
+        Map<String, CustomerRiskProfile> profiles = atomicProfileUpdates ? new HashMap<>()
+                : new HashMap<>(customerRiskProfileService.getCustomerRiskProfiles(customerIds));
+
+        Map<String, CustomerRiskProfile> profilesToSave = new LinkedHashMap<>();
+        List<Anomaly> anomalies = new ArrayList<>();
+        List<RiskAssessment> assessments = new ArrayList<>(events.size());
+        List<RiskAssessment> highRiskAlerts = new ArrayList<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            RiskCalculationRequest request = requests.get(i);
+            RiskAssessment assessment = responses.get(i).getRiskAssessment();
+            String customerId = events.get(i).getCustomerId();
+            velocityTrackingService.recordTransaction(customerId, request.getTimestamp());
+
+            if (!atomicProfileUpdates) {
+                ProfileUpdate update = applyAssessment(profiles.get(customerId), assessment, request, customerId);
+                profiles.put(customerId, update.profile);
+                if (update.shouldSave) {
+                    profilesToSave.put(customerId, update.profile);
+                }
+            }
+            scoreSeriesService.record(customerId, assessment.getTimestamp(), assessment.getRiskScore(),
+                    assessment.getRiskLevel());
+
+            List<Anomaly> detected = anomalyDetectionService.detectAnomalies(assessment, request);
+            if (!detected.isEmpty()) {
+                anomalies.addAll(detected);
+                if (isHighRisk(assessment)) {
+                    highRiskAlerts.add(assessment);
+                }
+            }
+            assessments.add(assessment);
+        }
+
+        Collection<CustomerRiskProfile> updatedProfiles;
+        if (atomicProfileUpdates) {
+            List<CustomerProfileData> customerProfiles = new ArrayList<>(requests.size());
+            for (RiskCalculationRequest request : requests) {
+                customerProfiles.add(request.getCustomerProfile());
+            }
+            updatedProfiles = customerRiskProfileService.applyAssessments(assessments, customerProfiles);
+        } else {
+            customerRiskProfileService.saveCustomerRiskProfiles(profilesToSave.values());
+            updatedProfiles = profilesToSave.values();
+        }
+        anomalyDetectionService.saveAnomalies(anomalies);
+        profileRebuildService.snapshotIfDue(eventStoreEntries);
+
+        log.info("Persisted batch of {} events: {} profiles, {} anomalies", events.size(), updatedProfiles.size(),
+                anomalies.size());
+
+        updatedProfiles.forEach(kafkaProducerService::sendRiskProfileUpdatedEvent);
+        highRiskAlerts.forEach(kafkaProducerService::sendHighRiskAlert);
+        assessments.forEach(kafkaProducerService::sendRiskScoreCalculatedEvent);
+    }
+
+    private ProfileUpdate applyAssessment(CustomerRiskProfile existingProfile, RiskAssessment assessment,
+            RiskCalculationRequest request, String customerId) {
+        CustomerRiskProfile profile;
+        if (existingProfile != null) {
+            // Use the interface method
+            profile = customerRiskProfileService.updateCustomerRiskProfileFromAssessment(existingProfile, assessment);
+        } else {
+            // Create new profile using the interface method
+            CustomerProfileData customerProfileData = request.getCustomerProfile();
+            profile = customerRiskProfileService.createCustomerRiskProfileFromAssessment(assessment,
+                    customerProfileData);
+            profile.setCustomerId(customerId);
+        }
+
+        // Check if we should update the profile using the service's significant change
+        // method; new profiles are always saved
+        boolean shouldSave = existingProfile == null
+                || customerRiskProfileService.isSignificantChange(existingProfile, profile);
+
+        return new ProfileUpdate(profile, shouldSave);
+    }
+
+    private boolean isHighRisk(RiskAssessment assessment) {
+        return assessment.getRiskLevel() == RiskLevel.HIGH || assessment.getRiskLevel() == RiskLevel.CRITICAL;
+    }
+
+    private RiskCalculationRequest createRiskCalculationRequest(TransactionValidatedEvent event) {
+        RiskCalculationRequest request = new RiskCalculationRequest();
+
+        request.setTransactionId(event.getTransactionId());
+        request.setCustomerId(event.getCustomerId());
+        request.setAmount(event.getAmount());
+        request.setMerchant(event.getMerchant());
+        request.setMerchantCategory(event.getMerchantCategory());
+        // event.getLocation() returns com.risk.scoring.model.Location, but request
+        // expects com.riskplatform.common.model.Location
+        // Assuming TransactionValidatedEvent will be updated to use common Location
+        request.setLocation(event.getLocation());
+        request.setTimestamp(event.getTimestamp());
+
+        // Fetch customer profile data from MongoDB
+        CustomerProfileData customerProfile = customerRiskProfileService.getCustomerProfileData(event.getCustomerId());
+        if (customerProfile == null) {
+            // Fallback to mock data if not found
+            customerProfile = createMockCustomerProfile(event);
+        }
+        request.setCustomerProfile(customerProfile);
+
+        // Velocity is read before this transaction is counted; it is fed into the
+        // sliding windows once its event store append has committed
+        VelocityData velocityData = customerRiskProfileService.getVelocityData(event.getCustomerId(),
+                event.getTimestamp());
+        request.setVelocityData(velocityData);
+
+        return request;
+    }
+
+    private CustomerProfileData createMockCustomerProfile(TransactionValidatedEvent event) {
+        CustomerProfileData customerProfile = new CustomerProfileData();
+        customerProfile.setRegistrationDate(event.getTimestamp().minusSeconds(86400 * 365)); // 1 year ago
+        customerProfile.setKycStatus(com.risk.scoring.model.enums.KycStatus.VERIFIED);
+        customerProfile.setAllowedCountries(java.util.Arrays.asList("US", "CA", "GB", "AU", "IN"));
+        customerProfile.setDailyLimit(5000.0);
+        customerProfile.setAvgTransactionAmount(1000.0);
+        customerProfile.setAccountStatus(com.risk.scoring.model.enums.AccountStatus.ACTIVE);
+        customerProfile.setFraudHistory(false);
+        customerProfile.setFailedTransactionsLast7Days(0);
+        customerProfile.setLastVerifiedLocation(event.getLocation());
+        customerProfile.setLastTransactionTime(event.getTimestamp().minusSeconds(3600)); // 1 hour ago
+        return customerProfile;
+    }
+
+    private static final class ProfileUpdate {
+        private final CustomerRiskProfile profile;
+        private final boolean shouldSave;
+
+        private ProfileUpdate(CustomerRiskProfile profile, boolean shouldSave) {
+            this.profile = profile;
+            this.shouldSave = shouldSave;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.risk.scoring.messaging;
+
+import com.risk.scoring.codec.EventCodecs;
+import com.risk.scoring.dedup.TransactionDeduplicator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Retries transaction-validated records that failed on the main topic, off the
+ * main partitions. Records handed over by {@link FailedEventRouter} are
+ * retried once straight away, then through retry topics with growing delays
+ * (transaction-validated-failed-retry-1000, -10000, -60000 by default); each
+ * delay pauses only the partition of its own retry topic. Records that
+ * exhaust the attempts, or fail permanently, land on the dead-letter topic
+ * with Spring Kafka's exception and origin headers.
+ */
+@Component
+@Slf4j
+public class TransactionRetryListener {
+
+    @Autowired
+    private TransactionEventProcessor transactionEventProcessor;
+
+    @Autowired
+    private TransactionDeduplicator transactionDeduplicator;
+
+    @Autowired
+    private FailureClassifier failureClassifier;
+
+    @Autowired
+    private EventCodecs eventCodecs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @RetryableTopic(attempts = "${kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${kafka.retry.multiplier:10}",
+                    maxDelayExpression = "${kafka.retry.max-delay-ms:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_DELAY_VALUE,
+            dltTopicSuffix = FailedEventRouter.DEAD_LETTER_SUFFIX,
+            exclude = PermanentScoringFailureException.class, traversingCauses = "true",
+            autoCreateTopics = "${kafka.retry.auto-create-topics:true}",
+            kafkaTemplate = "kafkaTemplate",
+            listenerContainerFactory = "retryKafkaListenerContainerFactory")
+    @KafkaListener(id = "transactionRetryListener", topics = "${kafka.topics.transaction-validated-failed}",
+            groupId = "${kafka.group-id}", autoStartup = "${kafka.retry.enabled:true}")
+    public void retryTransactionValidatedEvent(ConsumerRecord<String, byte[]> record) {
+        TransactionValidatedEvent event;
+        try {
+            event = eventCodecs.decode(record.value(), TransactionValidatedEvent.class);
+        } catch (Exception e) {
+            throw new PermanentScoringFailureException("Unreadable transaction-validated event", e);
+        }
+
+        String transactionId = event.getTransactionId();
+        if (!transactionDeduplicator.claim(transactionId, record)) {
+            log.info("Skipping already processed transaction {} on {}", transactionId, record.topic());
+            return;
+        }
+
+        try {
+            transactionEventProcessor.process(event).join();
+        } catch (RuntimeException e) {
+            transactionDeduplicator.release(transactionId);
+            Throwable cause = FailureClassifier.unwrap(e);
+            if (failureClassifier.classify(cause) == FailureClassifier.FailureKind.PERMANENT) {
+                throw new PermanentScoringFailureException("Transaction " + transactionId + " cannot be scored",
+                        cause);
+            }
+            throw e;
+        }
+        transactionDeduplicator.complete(transactionId, event.getCustomerId());
+        log.info("Processed transaction {} from {}", transactionId, record.topic());
+    }
+
+    @DltHandler
+    public void onDeadLetter(ConsumerRecord<String, byte[]> record) {
+        String exceptionClass = headerValue(record, KafkaHeaders.DLT_EXCEPTION_FQCN);
+        meterRegistry.counter("risk.kafka.dead-letters", "exception", exceptionClass).increment();
+        log.error("Transaction-validated record dead-lettered at {}-{}@{}: {}: {}", record.topic(),
+                record.partition(), record.offset(), exceptionClass,
+                headerValue(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+    }
+
+    static String headerValue(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : "unknown";
+    }
+}
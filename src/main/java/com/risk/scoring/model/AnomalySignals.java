@@ -0,0 +1,29 @@
+package com.risk.scoring.model;
+
+import com.riskplatform.common.enums.Severity;
+import lombok.Value;
+
+/**
+ * Deviations found for one transaction against the customer's own history. A
+ * null severity means that signal did not fire.
+ */
+@Value
+public class AnomalySignals {
+    Severity amountSeverity;
+    double amount;
+    double expectedAmount;
+    double amountZScore;
+
+    Severity velocitySeverity;
+    // Long-run average gap between transactions over the recent average gap
+    double velocityRatio;
+
+    Severity merchantSeverity;
+    String merchantCategory;
+    // Share of the customer's past transactions in this category
+    double merchantShare;
+
+    public boolean isEmpty() {
+        return amountSeverity == null && velocitySeverity == null && merchantSeverity == null;
+    }
+}
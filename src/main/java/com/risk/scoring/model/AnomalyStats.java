@@ -0,0 +1,36 @@
+package com.risk.scoring.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Incrementally maintained anomaly counts. One document holds the all-time
+ * totals ({@code kind} TOTAL), one per hour of detection (HOUR, expiring at
+ * {@code expireAt}) and one per customer (CUSTOMER); each is updated with
+ * {@code $inc} as anomalies are saved.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "anomalyStats")
+public class AnomalyStats {
+    public static final String KIND_TOTAL = "TOTAL";
+    public static final String KIND_HOUR = "HOUR";
+    public static final String KIND_CUSTOMER = "CUSTOMER";
+
+    @Id
+    private String id;
+    private String kind;
+    private Instant bucketStart;
+    private String customerId;
+    private long count;
+    // Keyed by AnomalyType and Severity name
+    private Map<String, Long> byType;
+    private Map<String, Long> bySeverity;
+    private Instant lastDetectedAt;
+    private Instant expireAt;
+}
@@ -0,0 +1,24 @@
+package com.risk.scoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Checkpoint of a customer's online anomaly statistics; {@code stats} is the
+ * primitive state array of the statistics service, stored as is.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "customerAnomalyStates")
+public class CustomerAnomalyState {
+    @Id
+    private String customerId;
+    private double[] stats;
+    private Instant updatedAt;
+}
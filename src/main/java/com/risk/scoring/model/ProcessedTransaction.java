@@ -0,0 +1,26 @@
+package com.risk.scoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marker for a transaction whose side effects have been committed. The
+ * transactionId is the document id, so the unique _id index rejects a second
+ * marker for the same transaction; markers expire at {@code expireAt}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "processedTransactions")
+public class ProcessedTransaction {
+    @Id
+    private String transactionId;
+    private String customerId;
+    private Instant processedAt;
+    private Instant expireAt;
+}
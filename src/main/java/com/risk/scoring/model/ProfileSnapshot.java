@@ -0,0 +1,29 @@
+package com.risk.scoring.model;
+
+import com.riskplatform.common.entity.CustomerRiskProfile;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The customer risk profile folded from every event of the aggregate up to and
+ * including {@code version}. Only the latest snapshot per customer is kept.
+ * {@code lastEventTimestamp} lets the replay skip event store buckets that end
+ * before it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "profileSnapshots")
+public class ProfileSnapshot {
+    @Id
+    private String aggregateId;
+    private long version;
+    private Instant lastEventTimestamp;
+    private CustomerRiskProfile profile;
+    private Instant createdAt;
+}
@@ -0,0 +1,70 @@
+package com.risk.scoring.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An offline rescoring run and its checkpoint. The checkpoint fields and
+ * counters only ever describe work whose results have been written, so a job
+ * resumed from here redoes at most the chunks since the last checkpoint.
+ * {@code ownerId} and {@code heartbeatAt} form a lease: a RUNNING job whose
+ * heartbeat has gone stale was killed and may be claimed by any instance.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "rescoringJobs")
+public class RescoringJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    public enum Source {
+        EVENT_STORE,
+        FILE
+    }
+
+    public enum Output {
+        COLLECTION,
+        CSV
+    }
+
+    @Id
+    private String id;
+    private Status status;
+    private Source source;
+    // EVENT_STORE: RiskScoreCalculated events in [from, to)
+    private Instant from;
+    private Instant to;
+    // FILE: NDJSON of RiskCalculationRequest, relative to the rescoring directory
+    private String inputFile;
+    private Output output;
+    // CSV: relative to the rescoring directory
+    private String outputFile;
+
+    // Position after the last checkpointed input
+    private Instant checkpointTimestamp;
+    private String checkpointEventId;
+    private long checkpointLine;
+    private long outputBytes;
+
+    private long read;
+    private long rescored;
+    private long skipped;
+    private long failed;
+    private long levelChanged;
+    private long decisionChanged;
+
+    private String ownerId;
+    private Instant heartbeatAt;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private String error;
+}
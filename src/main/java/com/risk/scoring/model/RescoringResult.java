@@ -0,0 +1,36 @@
+package com.risk.scoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The outcome of rescoring one input of a rescoring job, next to the
+ * originally recorded score when the input came from the event store. The id
+ * is derived from the job and the input, so results rewritten after a resume
+ * replace their earlier copies.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rescoringResults")
+public class RescoringResult {
+    @Id
+    private String id;
+    private String jobId;
+    private String sourceId;
+    private String transactionId;
+    private String customerId;
+    private Instant timestamp;
+    private Integer originalScore;
+    private String originalLevel;
+    private String originalDecision;
+    private Integer newScore;
+    private String newLevel;
+    private String newDecision;
+    private String error;
+}
@@ -0,0 +1,50 @@
+package com.risk.scoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One customer's risk scores for one UTC day ({@code _id} is
+ * {@code customerId:yyyyMMdd}). Points are appended as binary chunks, one per
+ * flush; count, sum, min and max are maintained alongside so daily trends never
+ * decode the chunks.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "customerScoreSeries")
+public class ScoreSeriesBucket {
+    @Id
+    private String id;
+    private String customerId;
+    private Instant day;
+    private int count;
+    private long scoreSum;
+    private int minScore;
+    private int maxScore;
+    private List<Chunk> chunks;
+    private Instant expireAt;
+
+    /**
+     * See {@link com.risk.scoring.timeseries.ScoreChunk} for the encoding.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chunk {
+        @Field("t0")
+        private long startMillis;
+        @Field("dt")
+        private byte[] deltas;
+        @Field("s")
+        private byte[] scores;
+        @Field("l")
+        private byte[] levels;
+    }
+}
@@ -0,0 +1,33 @@
+package com.risk.scoring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalyStatsResponse {
+    // Null for the global statistics
+    private String customerId;
+    private long totalAnomalies;
+    private Map<String, Long> byType;
+    private Map<String, Long> bySeverity;
+    private Instant lastDetectedAt;
+    // Oldest hour first; only hours with anomalies are present
+    private List<HourlyAnomalyCount> hourly;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HourlyAnomalyCount {
+        private Instant hour;
+        private long count;
+        private Map<String, Long> byType;
+        private Map<String, Long> bySeverity;
+    }
+}
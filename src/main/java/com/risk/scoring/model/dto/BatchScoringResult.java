@@ -0,0 +1,22 @@
+package com.risk.scoring.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch scoring response: the scored entry, or the reason it
+ * could not be scored. Lines are written as entries finish, so {@code index}
+ * (zero-based position in the request body) ties them back to the input.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchScoringResult {
+    private long index;
+    private String transactionId;
+    private RiskCalculationResponse response;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.risk.scoring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayResponse {
+    private int replayed;
+    // True if the dead-letter topic held more records than were replayed
+    private boolean moreAvailable;
+    // Replayed records per exception class that dead-lettered them
+    private Map<String, Long> byException;
+}
@@ -0,0 +1,17 @@
+package com.risk.scoring.model.dto;
+
+import com.riskplatform.common.entity.EventStoreEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPage {
+    private List<EventStoreEntry> events;
+    // Pass back to fetch the next page; null on the last page
+    private String continuationToken;
+}
@@ -0,0 +1,30 @@
+package com.risk.scoring.model.dto;
+
+import com.risk.scoring.model.RescoringJob;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RescoringJobRequest {
+    @NotNull(message = "Source is required")
+    private RescoringJob.Source source;
+
+    // EVENT_STORE: range of RiskScoreCalculated events to rescore
+    private Instant from;
+    private Instant to;
+
+    // FILE: NDJSON file of RiskCalculationRequest in the rescoring directory
+    private String inputFile;
+
+    @NotNull(message = "Output is required")
+    private RescoringJob.Output output;
+
+    // CSV: file to write in the rescoring directory
+    private String outputFile;
+}
@@ -26,6 +26,8 @@ public class RiskCalculationRequest {
     @NotBlank(message = "Merchant is required")
     private String merchant;
 
+    private String merchantCategory;
+
     @NotNull(message = "Location is required")
     private Location location;
 
@@ -0,0 +1,21 @@
+package com.risk.scoring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A customer's risk scores downsampled to one UTC day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskTrendPoint {
+    private LocalDate date;
+    private int transactionCount;
+    private int minScore;
+    private double averageScore;
+    private int maxScore;
+}
@@ -3,18 +3,47 @@ package com.risk.scoring.repository;
 import com.riskplatform.common.entity.Anomaly;
 import com.riskplatform.common.enums.AnomalyType;
 import com.riskplatform.common.enums.Severity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import java.time.Instant;
 import java.util.List;
+import java.util.function.BiConsumer;
 
+/**
+ * List queries are paged and newest first; each is backed by an index ending in
+ * detectedAt (see {@code MongoIndexCatalog}). The paged finders return
+ * lists, so no count query runs.
+ */
 @Repository
 public interface AnomalyRepository extends MongoRepository<Anomaly, String> {
-    List<Anomaly> findByCustomerId(String customerId);
+    List<Anomaly> findAllByOrderByDetectedAtDesc(Pageable pageable);
 
-    List<Anomaly> findByAnomalyTypeAndSeverity(AnomalyType anomalyType, Severity severity);
+    List<Anomaly> findByCustomerIdOrderByDetectedAtDesc(String customerId, Pageable pageable);
 
-    List<Anomaly> findByDetectedAtAfter(Instant timestamp);
+    List<Anomaly> findByAnomalyTypeAndSeverityOrderByDetectedAtDesc(AnomalyType anomalyType, Severity severity,
+            Pageable pageable);
 
-    List<Anomaly> findBySeverity(Severity severity);
-}
\ No newline at end of file
+    List<Anomaly> findBySeverityOrderByDetectedAtDesc(Severity severity, Pageable pageable);
+
+    List<Anomaly> findByDetectedAtAfterOrderByDetectedAtDesc(Instant timestamp, Pageable pageable);
+
+    long countByDetectedAtAfter(Instant timestamp);
+
+    /**
+     * Inserts the anomalies, skipping any already stored for the same
+     * transaction and type.
+     *
+     * @return the anomalies actually inserted
+     */
+    List<Anomaly> bulkInsertAnomalies(List<Anomaly> anomalies);
+
+    Object findNewestId();
+
+    /**
+     * Pages through the anomalies in _id (insertion) order, from after
+     * {@code afterId} (from the start when null) up to and including
+     * {@code upToId}, passing each chunk with the _id of its last anomaly.
+     */
+    void forEachChunkById(Object afterId, Object upToId, int chunkSize, BiConsumer<List<Anomaly>, Object> action);
+}
@@ -0,0 +1,25 @@
+package com.risk.scoring.repository;
+
+import com.riskplatform.common.entity.Anomaly;
+import com.risk.scoring.model.AnomalyStats;
+import org.bson.Document;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface AnomalyStatsRepository extends MongoRepository<AnomalyStats, String> {
+
+    List<AnomalyStats> findByKindAndBucketStartGreaterThanEqualOrderByBucketStartAsc(String kind, Instant from);
+
+    void incrementCounts(List<Anomaly> anomalies);
+
+    Document claimBackfill(Object cutoffId, String owner, Duration lease);
+
+    boolean checkpointBackfill(String owner, Object lastId, long counted);
+
+    void completeBackfill(String owner);
+}
@@ -0,0 +1,13 @@
+package com.risk.scoring.repository;
+
+import com.risk.scoring.model.CustomerAnomalyState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface CustomerAnomalyStateRepository extends MongoRepository<CustomerAnomalyState, String> {
+
+    void bulkUpsertStates(Collection<CustomerAnomalyState> states);
+}
@@ -1,15 +1,30 @@
 package com.risk.scoring.repository;
 
 import com.riskplatform.common.entity.CustomerRiskProfile;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface CustomerRiskProfileRepository extends MongoRepository<CustomerRiskProfile, String> {
 
     Optional<CustomerRiskProfile> findByCustomerId(String customerId);
 
+    List<CustomerRiskProfile> findByCustomerIdIn(Collection<String> customerIds);
+
+    void bulkUpsertProfiles(Collection<CustomerRiskProfile> profiles);
+
+    Set<String> bulkUpsertProfiles(List<CustomerRiskProfile> profiles, Map<String, Long> expectedVersions);
+
+    CustomerRiskProfile findAndUpdateProfile(String customerId, UpdateDefinition update);
+
+    List<CustomerRiskProfile> bulkUpdateProfiles(List<String> customerIds, List<? extends UpdateDefinition> updates);
+
     // Custom method for debounced updates
     default boolean updateWithDebounce(String customerId, CustomerRiskProfile updatedProfile, int debounceThreshold) {
         Optional<CustomerRiskProfile> existingProfileOpt = findByCustomerId(customerId);
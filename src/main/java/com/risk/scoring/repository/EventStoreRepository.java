@@ -1,12 +1,15 @@
 package com.risk.scoring.repository;
 
 import com.riskplatform.common.entity.EventStoreEntry;
+import com.risk.scoring.model.EventContinuationToken;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.stream.Stream;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 @Repository
 public interface EventStoreRepository extends MongoRepository<EventStoreEntry, String> {
@@ -14,7 +17,7 @@ public interface EventStoreRepository extends MongoRepository<EventStoreEntry, S
     List<EventStoreEntry> findByAggregateIdAndAggregateTypeOrderByVersionAsc(
             String aggregateId, String aggregateType);
 
-    Page<EventStoreEntry> findByCustomerIdAndDateRange(String customerId, LocalDateTime startDate,
+    Slice<EventStoreEntry> findByCustomerIdAndDateRange(String customerId, LocalDateTime startDate,
             LocalDateTime endDate, Pageable pageable);
 
     List<EventStoreEntry> findByEventTypeAndDateRange(String eventType, LocalDateTime startDate, LocalDateTime endDate);
@@ -22,4 +25,18 @@ public interface EventStoreRepository extends MongoRepository<EventStoreEntry, S
     List<EventStoreEntry> findRecentEventsByCustomerId(String customerId, int limit);
 
     void bulkSaveEvents(List<EventStoreEntry> events);
+
+    void appendEvents(List<EventStoreEntry> events);
+
+    List<EventStoreEntry> findCustomerEventsAfter(String customerId, Instant from, Instant to,
+            EventContinuationToken after, int limit);
+
+    List<EventStoreEntry> findEventTypeEventsAfter(String eventType, Instant from, Instant to,
+            EventContinuationToken after, int limit);
+
+    Stream<EventStoreEntry> streamEventTypeRange(String eventType, Instant from, Instant to,
+            EventContinuationToken after, int batchSize);
+
+    Stream<EventStoreEntry> streamEvents(String aggregateId, String aggregateType, long afterVersion, Instant since,
+            int batchSize);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.risk.scoring.repository;
+
+import com.risk.scoring.model.ProcessedTransaction;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+public interface ProcessedTransactionRepository extends MongoRepository<ProcessedTransaction, String> {
+
+    Set<String> findExistingIds(Collection<String> transactionIds);
+
+    int insertProcessed(Collection<ProcessedTransaction> processed);
+
+    long forEachIdProcessedSince(Instant since, Consumer<String> action);
+}
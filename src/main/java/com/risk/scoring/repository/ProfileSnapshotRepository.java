@@ -0,0 +1,9 @@
+package com.risk.scoring.repository;
+
+import com.risk.scoring.model.ProfileSnapshot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProfileSnapshotRepository extends MongoRepository<ProfileSnapshot, String> {
+}
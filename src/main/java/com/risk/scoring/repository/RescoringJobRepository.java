@@ -0,0 +1,25 @@
+package com.risk.scoring.repository;
+
+import com.risk.scoring.model.RescoringJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RescoringJobRepository extends MongoRepository<RescoringJob, String> {
+
+    List<RescoringJob> findByStatusAndHeartbeatAtBefore(RescoringJob.Status status, Instant staleBefore);
+
+    RescoringJob claim(String jobId, String ownerId, Instant staleBefore);
+
+    boolean checkpoint(RescoringJob job, String ownerId);
+
+    void heartbeat(Collection<String> jobIds, String ownerId);
+
+    boolean finish(String jobId, String ownerId, RescoringJob.Status status, String error);
+
+    boolean cancel(String jobId);
+}
@@ -0,0 +1,13 @@
+package com.risk.scoring.repository;
+
+import com.risk.scoring.model.RescoringResult;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface RescoringResultRepository extends MongoRepository<RescoringResult, String> {
+
+    void bulkReplaceResults(Collection<RescoringResult> results);
+}
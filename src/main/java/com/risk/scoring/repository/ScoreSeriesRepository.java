@@ -0,0 +1,26 @@
+package com.risk.scoring.repository;
+
+import com.risk.scoring.model.ScoreSeriesBucket;
+import com.risk.scoring.timeseries.ScoreChunk;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ScoreSeriesRepository extends MongoRepository<ScoreSeriesBucket, String> {
+
+    /**
+     * Daily aggregates only; the chunks are not loaded.
+     */
+    @Query(value = "{ 'customerId': ?0, 'day': { $gte: ?1 } }", fields = "{ 'chunks': 0 }", sort = "{ 'day': 1 }")
+    List<ScoreSeriesBucket> findDailyAggregates(String customerId, Instant from);
+
+    List<ScoreSeriesBucket> findByCustomerIdOrderByDayDesc(String customerId, Pageable pageable);
+
+    void appendChunks(Collection<ScoreChunk> chunks);
+}
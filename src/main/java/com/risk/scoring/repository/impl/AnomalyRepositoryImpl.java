@@ -0,0 +1,99 @@
+package com.risk.scoring.repository.impl;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.riskplatform.common.entity.Anomaly;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+@Repository
+public class AnomalyRepositoryImpl {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Unordered insert; the unique (transactionId, anomalyType) index rejects
+     * anomalies a retried transaction detects again, and those are left out of
+     * the result rather than treated as failures. Any other error propagates.
+     */
+    public List<Anomaly> bulkInsertAnomalies(List<Anomaly> anomalies) {
+        if (anomalies.isEmpty()) {
+            return anomalies;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Anomaly.class);
+        bulkOps.insert(anomalies);
+        try {
+            bulkOps.execute();
+            return anomalies;
+        } catch (BulkOperationException e) {
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicates.add(error.getIndex());
+            }
+            List<Anomaly> inserted = new ArrayList<>(anomalies.size() - duplicates.size());
+            for (int i = 0; i < anomalies.size(); i++) {
+                if (!duplicates.contains(i)) {
+                    inserted.add(anomalies.get(i));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    public Object findNewestId() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        query.fields().include("_id");
+        Document newest = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Anomaly.class));
+        return newest != null ? newest.get("_id") : null;
+    }
+
+    /**
+     * Keyset pages on _id with raw ids, so it works whatever type the ids
+     * were stored as.
+     */
+    public void forEachChunkById(Object afterId, Object upToId, int chunkSize,
+            BiConsumer<List<Anomaly>, Object> action) {
+        String collection = mongoTemplate.getCollectionName(Anomaly.class);
+        Object lastId = afterId;
+        while (true) {
+            Criteria id = Criteria.where("_id").lte(upToId);
+            if (lastId != null) {
+                id.gt(lastId);
+            }
+            Query query = new Query(id).with(Sort.by(Sort.Direction.ASC, "_id")).limit(chunkSize);
+            List<Document> documents = mongoTemplate.find(query, Document.class, collection);
+            if (documents.isEmpty()) {
+                return;
+            }
+
+            List<Anomaly> chunk = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                chunk.add(mongoTemplate.getConverter().read(Anomaly.class, document));
+            }
+            lastId = documents.get(documents.size() - 1).get("_id");
+            action.accept(chunk, lastId);
+            if (documents.size() < chunkSize) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.risk.scoring.repository.impl;
+
+import com.risk.scoring.model.AnomalyStats;
+import com.riskplatform.common.entity.Anomaly;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class AnomalyStatsRepositoryImpl {
+
+    public static final String TOTAL_ID = "total";
+    private static final String BACKFILL_ID = "backfill";
+    private static final String BACKFILL_RUNNING = "RUNNING";
+    private static final String BACKFILL_COMPLETED = "COMPLETED";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${risk.scoring.anomaly.aggregates.hourly-retention-days:30}")
+    private int hourlyRetentionDays;
+
+    /**
+     * Adds the anomalies to the totals, their hourly buckets and their customers'
+     * counts. Increments are summed in memory first, so each touched document
+     * gets exactly one upsert in a single unordered bulk write.
+     */
+    public void incrementCounts(List<Anomaly> anomalies) {
+        if (anomalies == null || anomalies.isEmpty()) {
+            return;
+        }
+
+        Map<String, Increment> increments = new LinkedHashMap<>();
+        for (Anomaly anomaly : anomalies) {
+            String type = anomaly.getAnomalyType() != null ? anomaly.getAnomalyType().name() : UNKNOWN;
+            String severity = anomaly.getSeverity() != null ? anomaly.getSeverity().name() : UNKNOWN;
+            Instant detectedAt = anomaly.getDetectedAt() != null ? anomaly.getDetectedAt() : Instant.now();
+
+            increments.computeIfAbsent(TOTAL_ID, id -> new Increment(AnomalyStats.KIND_TOTAL, null, null))
+                    .add(type, severity, detectedAt);
+
+            Instant hour = detectedAt.truncatedTo(ChronoUnit.HOURS);
+            increments.computeIfAbsent("hour:" + hour, id -> new Increment(AnomalyStats.KIND_HOUR, hour, null))
+                    .add(type, severity, detectedAt);
+
+            String customerId = anomaly.getCustomerId();
+            if (customerId != null) {
+                increments.computeIfAbsent("customer:" + customerId,
+                        id -> new Increment(AnomalyStats.KIND_CUSTOMER, null, customerId))
+                        .add(type, severity, detectedAt);
+            }
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnomalyStats.class);
+        for (Map.Entry<String, Increment> entry : increments.entrySet()) {
+            bulkOps.upsert(new Query(Criteria.where("_id").is(entry.getKey())), entry.getValue().toUpdate());
+        }
+        bulkOps.execute();
+    }
+
+    /**
+     * Claims the one-time backfill of counts for anomalies saved before the
+     * aggregates existed, up to {@code cutoffId}, or takes over one whose owner
+     * has not checkpointed within the lease. The backfill document records the
+     * cutoff and the last counted _id, so a taken-over backfill resumes where
+     * it stopped.
+     *
+     * @return the backfill document, or null if it is completed or owned elsewhere
+     */
+    public Document claimBackfill(Object cutoffId, String owner, Duration lease) {
+        String collection = mongoTemplate.getCollectionName(AnomalyStats.class);
+        Instant now = Instant.now();
+        Document backfill = new Document("_id", BACKFILL_ID)
+                .append("status", BACKFILL_RUNNING)
+                .append("cutoffId", cutoffId)
+                .append("lastId", null)
+                .append("counted", 0L)
+                .append("owner", owner)
+                .append("startedAt", now)
+                .append("heartbeatAt", now);
+        try {
+            mongoTemplate.insert(backfill, collection);
+            return backfill;
+        } catch (DuplicateKeyException e) {
+            // Documents written before backfills were resumable have no status and stay finished
+            return mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(BACKFILL_ID)
+                            .and("status").is(BACKFILL_RUNNING)
+                            .and("heartbeatAt").lt(now.minus(lease))),
+                    new Update().set("owner", owner).set("heartbeatAt", now),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Document.class, collection);
+        }
+    }
+
+    /**
+     * Records progress; false once another instance has taken the backfill
+     * over, in which case the caller must stop.
+     */
+    public boolean checkpointBackfill(String owner, Object lastId, long counted) {
+        return mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(BACKFILL_ID).and("owner").is(owner)),
+                new Update().set("lastId", lastId).inc("counted", counted).set("heartbeatAt", Instant.now()),
+                mongoTemplate.getCollectionName(AnomalyStats.class)).getMatchedCount() > 0;
+    }
+
+    public void completeBackfill(String owner) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(BACKFILL_ID).and("owner").is(owner)),
+                new Update().set("status", BACKFILL_COMPLETED).set("completedAt", Instant.now()),
+                mongoTemplate.getCollectionName(AnomalyStats.class));
+    }
+
+    private final class Increment {
+        private final String kind;
+        private final Instant bucketStart;
+        private final String customerId;
+        private long count;
+        private final Map<String, Long> byType = new HashMap<>();
+        private final Map<String, Long> bySeverity = new HashMap<>();
+        private Instant lastDetectedAt;
+
+        private Increment(String kind, Instant bucketStart, String customerId) {
+            this.kind = kind;
+            this.bucketStart = bucketStart;
+            this.customerId = customerId;
+        }
+
+        private void add(String type, String severity, Instant detectedAt) {
+            count++;
+            byType.merge(type, 1L, Long::sum);
+            bySeverity.merge(severity, 1L, Long::sum);
+            if (lastDetectedAt == null || detectedAt.isAfter(lastDetectedAt)) {
+                lastDetectedAt = detectedAt;
+            }
+        }
+
+        private Update toUpdate() {
+            Update update = new Update()
+                    .setOnInsert("kind", kind)
+                    .inc("count", count)
+                    .max("lastDetectedAt", lastDetectedAt);
+            byType.forEach((type, n) -> update.inc("byType." + type, n));
+            bySeverity.forEach((severity, n) -> update.inc("bySeverity." + severity, n));
+            if (bucketStart != null) {
+                update.setOnInsert("bucketStart", bucketStart)
+                        .setOnInsert("expireAt", bucketStart.plus(Duration.ofDays(hourlyRetentionDays)));
+            }
+            if (customerId != null) {
+                update.setOnInsert("customerId", customerId);
+            }
+            return update;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.risk.scoring.repository.impl;
+
+import com.risk.scoring.model.CustomerAnomalyState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public class CustomerAnomalyStateRepositoryImpl {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Upserts all given states keyed by customerId in a single unordered bulk
+     * write.
+     */
+    public void bulkUpsertStates(Collection<CustomerAnomalyState> states) {
+        if (states == null || states.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                CustomerAnomalyState.class);
+        for (CustomerAnomalyState state : states) {
+            bulkOps.upsert(new Query(Criteria.where("_id").is(state.getCustomerId())),
+                    new Update().set("stats", state.getStats()).set("updatedAt", state.getUpdatedAt()));
+        }
+        bulkOps.execute();
+    }
+}
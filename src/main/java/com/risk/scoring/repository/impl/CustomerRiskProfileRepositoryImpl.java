@@ -0,0 +1,126 @@
+package com.risk.scoring.repository.impl;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.riskplatform.common.entity.CustomerRiskProfile;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+public class CustomerRiskProfileRepositoryImpl {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Upserts all given profiles keyed by customerId in a single unordered bulk
+     * write.
+     */
+    public void bulkUpsertProfiles(Collection<CustomerRiskProfile> profiles) {
+        if (profiles == null || profiles.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CustomerRiskProfile.class);
+        for (CustomerRiskProfile profile : profiles) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(profile, document);
+
+            Query query = new Query(Criteria.where("customerId").is(profile.getCustomerId()));
+            bulkOps.upsert(query, Update.fromDocument(document, "_id"));
+        }
+        bulkOps.execute();
+    }
+
+    /**
+     * Upserts the profiles in one unordered bulk write, each only if its stored
+     * version is still the one in {@code expectedVersions}; profiles without an
+     * expected version are written unconditionally. A version mismatch makes
+     * the upsert attempt an insert, which the unique customerId index rejects.
+     *
+     * @return the customerIds whose profile had been changed by someone else
+     *         and was not written
+     */
+    public Set<String> bulkUpsertProfiles(List<CustomerRiskProfile> profiles, Map<String, Long> expectedVersions) {
+        Set<String> conflicts = new HashSet<>();
+        if (profiles.isEmpty()) {
+            return conflicts;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CustomerRiskProfile.class);
+        for (CustomerRiskProfile profile : profiles) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(profile, document);
+
+            Criteria criteria = Criteria.where("customerId").is(profile.getCustomerId());
+            Long expectedVersion = expectedVersions.get(profile.getCustomerId());
+            if (expectedVersion != null) {
+                criteria = criteria.and("version").is(expectedVersion);
+            }
+            bulkOps.upsert(new Query(criteria), Update.fromDocument(document, "_id"));
+        }
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                conflicts.add(profiles.get(error.getIndex()).getCustomerId());
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Applies {@code update} to the customer's profile with one atomic
+     * findAndModify, creating the profile if it does not exist. Returns the
+     * updated profile without its score history.
+     */
+    public CustomerRiskProfile findAndUpdateProfile(String customerId, UpdateDefinition update) {
+        Query query = new Query(Criteria.where("customerId").is(customerId));
+        query.fields().exclude("scoreHistory");
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                CustomerRiskProfile.class);
+    }
+
+    /**
+     * Applies updates.get(i) to the profile of customerIds.get(i), upserting,
+     * in one ordered bulk write so several updates of the same customer apply
+     * in sequence. Returns the resulting profiles, one per customer, without
+     * their score history.
+     */
+    public List<CustomerRiskProfile> bulkUpdateProfiles(List<String> customerIds,
+            List<? extends UpdateDefinition> updates) {
+        if (customerIds.isEmpty()) {
+            return List.of();
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, CustomerRiskProfile.class);
+        for (int i = 0; i < customerIds.size(); i++) {
+            bulkOps.upsert(new Query(Criteria.where("customerId").is(customerIds.get(i))), updates.get(i));
+        }
+        bulkOps.execute();
+
+        Query query = new Query(Criteria.where("customerId").in(new LinkedHashSet<>(customerIds)));
+        query.fields().exclude("scoreHistory");
+        return mongoTemplate.find(query, CustomerRiskProfile.class);
+    }
+}
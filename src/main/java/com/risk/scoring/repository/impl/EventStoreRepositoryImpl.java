@@ -1,56 +1,474 @@
 package com.risk.scoring.repository.impl;
 
 import com.riskplatform.common.entity.EventStoreEntry;
+import com.mongodb.bulk.BulkWriteError;
+import com.risk.scoring.eventstore.EventStorePartitions;
+import com.risk.scoring.eventstore.EventStoreWriteException;
+import com.risk.scoring.model.EventContinuationToken;
 import com.risk.scoring.repository.EventStoreRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
+@Slf4j
 public class EventStoreRepositoryImpl {
 
+    // One document per aggregate holding the last version handed out
+    static final String STREAM_HEADS_COLLECTION = "eventStreamHeads";
+
+    // Records one-time event store migrations by _id
+    private static final String MIGRATIONS_COLLECTION = "eventStoreMigrations";
+    private static final String HEADS_SEEDED = "streamHeadsSeeded";
+
+    // Recent reservations kept on each head, so a batch can find its own range on read-back
+    private static final int RESERVATION_HISTORY = 16;
+
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Direction.ASC, "timestamp", "_id");
+
+    private static final int DUPLICATE_KEY = 11000;
+
     @Autowired
     private MongoTemplate mongoTemplate;
 
-    public Page<EventStoreEntry> findByCustomerIdAndDateRange(String customerId, LocalDateTime startDate,
+    @Autowired
+    private EventStorePartitions partitions;
+
+    @Value("${risk.scoring.event-store.max-list-size:10000}")
+    private int maxListSize;
+
+    private volatile boolean headsSeeded;
+
+    public List<EventStoreEntry> findByAggregateIdAndAggregateTypeOrderByVersionAsc(String aggregateId,
+            String aggregateType) {
+        try (Stream<EventStoreEntry> events = streamEvents(aggregateId, aggregateType, 0L, null, 500)) {
+            return events.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Offset paging across buckets, filled from consecutive buckets in time
+     * order, so the page sort should be by timestamp. No totals are computed:
+     * a bucket is only counted while the offset has not been reached, with the
+     * count capped at what is left to skip, and one event past the page tells
+     * whether another follows. Deep pages still cost their offset; the keyset
+     * pages of {@link #findCustomerEventsAfter} resume at the token's bucket.
+     */
+    public Slice<EventStoreEntry> findByCustomerIdAndDateRange(String customerId, LocalDateTime startDate,
             LocalDateTime endDate, Pageable pageable) {
-        Query query = new Query();
-        query.addCriteria(Criteria.where("aggregateId").is(customerId)
-                .and("timestamp").gte(startDate).lte(endDate));
-        query.with(pageable);
+        Criteria criteria = Criteria.where("aggregateId").is(customerId)
+                .and("timestamp").gte(startDate).lte(endDate);
 
-        List<EventStoreEntry> events = mongoTemplate.find(query, EventStoreEntry.class);
-        return new PageImpl<>(events, pageable, events.size());
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0L;
+        List<EventStoreEntry> events = new ArrayList<>();
+
+        for (String collection : partitions.collectionsFor(toInstant(startDate), toInstant(endDate).plusMillis(1))) {
+            if (pageable.isPaged() && events.size() > pageable.getPageSize()) {
+                break;
+            }
+            if (skip > 0) {
+                long count = mongoTemplate.count(new Query(criteria).limit((int) Math.min(skip, Integer.MAX_VALUE)),
+                        collection);
+                if (count < skip) {
+                    skip -= count;
+                    continue;
+                }
+            }
+            Query query = new Query(criteria).with(pageable.getSort()).skip(skip);
+            if (pageable.isPaged()) {
+                query.limit(pageable.getPageSize() + 1 - events.size());
+            }
+            events.addAll(mongoTemplate.find(query, EventStoreEntry.class, collection));
+            skip = 0;
+        }
+
+        boolean hasNext = pageable.isPaged() && events.size() > pageable.getPageSize();
+        if (hasNext) {
+            events = new ArrayList<>(events.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(events, pageable, hasNext);
     }
 
+    /**
+     * Every event of the type in the range, or an IllegalArgumentException if
+     * there are more than {@code max-list-size}; such ranges must be read with
+     * the keyset pages or the export stream instead of being cut short.
+     */
     public List<EventStoreEntry> findByEventTypeAndDateRange(String eventType, LocalDateTime startDate,
             LocalDateTime endDate) {
-        Query query = new Query();
-        query.addCriteria(Criteria.where("eventType").is(eventType)
-                .and("timestamp").gte(startDate).lte(endDate));
+        Criteria criteria = Criteria.where("eventType").is(eventType)
+                .and("timestamp").gte(startDate).lte(endDate);
 
-        return mongoTemplate.find(query, EventStoreEntry.class);
+        // One past the bound tells a full range from a truncated one
+        List<EventStoreEntry> events = new ArrayList<>();
+        for (String collection : partitions.collectionsFor(toInstant(startDate), toInstant(endDate).plusMillis(1))) {
+            Query query = new Query(criteria).with(KEYSET_ORDER).limit(maxListSize + 1 - events.size());
+            events.addAll(mongoTemplate.find(query, EventStoreEntry.class, collection));
+            if (events.size() > maxListSize) {
+                throw new IllegalArgumentException("More than " + maxListSize + " " + eventType
+                        + " events between " + startDate + " and " + endDate
+                        + "; page through GET /api/v1/events/type/" + eventType
+                        + " or stream GET /api/v1/events/type/" + eventType + "/export instead");
+            }
+        }
+        return events;
+    }
+
+    /**
+     * One keyset page of a customer's events in [from, to), ordered by
+     * (timestamp, id) and starting after {@code after} when given. Up to
+     * {@code limit + 1} events are read so the caller can tell whether another
+     * page follows.
+     */
+    public List<EventStoreEntry> findCustomerEventsAfter(String customerId, Instant from, Instant to,
+            EventContinuationToken after, int limit) {
+        return findPageAfter("aggregateId", customerId, from, to, after, limit);
+    }
+
+    /**
+     * Same as {@link #findCustomerEventsAfter} for all events of one type.
+     */
+    public List<EventStoreEntry> findEventTypeEventsAfter(String eventType, Instant from, Instant to,
+            EventContinuationToken after, int limit) {
+        return findPageAfter("eventType", eventType, from, to, after, limit);
+    }
+
+    /**
+     * Streams the events of one type in [from, to) in (timestamp, id) order over
+     * a cursor, fetching {@code batchSize} documents per round trip. The caller
+     * must close the stream.
+     */
+    public Stream<EventStoreEntry> streamEventTypeRange(String eventType, Instant from, Instant to,
+            EventContinuationToken after, int batchSize) {
+        Query query = new Query(rangeCriteria("eventType", eventType, from, to, after))
+                .with(KEYSET_ORDER)
+                .cursorBatchSize(batchSize);
+        // Buckets are time ordered, so concatenating them keeps (timestamp, id) order;
+        // flatMap opens one cursor at a time and closes it when the bucket is drained
+        Instant start = after != null && after.getTimestamp().isAfter(from) ? after.getTimestamp() : from;
+        return partitions.collectionsFor(start, to).stream()
+                .flatMap(collection -> mongoTemplate.stream(query, EventStoreEntry.class, collection));
+    }
+
+    private List<EventStoreEntry> findPageAfter(String field, String value, Instant from, Instant to,
+            EventContinuationToken after, int limit) {
+        Query query = new Query(rangeCriteria(field, value, from, to, after)).with(KEYSET_ORDER);
+        // Buckets before the token's timestamp cannot hold anything after it
+        Instant start = after != null && after.getTimestamp().isAfter(from) ? after.getTimestamp() : from;
+
+        List<EventStoreEntry> events = new ArrayList<>();
+        for (String collection : partitions.collectionsFor(start, to)) {
+            int remaining = limit + 1 - events.size();
+            if (remaining <= 0) {
+                break;
+            }
+            events.addAll(mongoTemplate.find(Query.of(query).limit(remaining), EventStoreEntry.class, collection));
+        }
+        return events;
+    }
+
+    private Criteria rangeCriteria(String field, String value, Instant from, Instant to,
+            EventContinuationToken after) {
+        Criteria range = Criteria.where(field).is(value).and("timestamp").gte(from).lt(to);
+        if (after == null) {
+            return range;
+        }
+        return new Criteria().andOperator(range, new Criteria().orOperator(
+                Criteria.where("timestamp").gt(after.getTimestamp()),
+                Criteria.where("timestamp").is(after.getTimestamp()).and("_id").gt(after.getId())));
     }
 
     public List<EventStoreEntry> findRecentEventsByCustomerId(String customerId, int limit) {
-        Query query = new Query();
-        query.addCriteria(Criteria.where("aggregateId").is(customerId));
-        query.limit(limit);
-        query.with(org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
-                "timestamp"));
+        Query query = new Query(Criteria.where("aggregateId").is(customerId))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"));
 
-        return mongoTemplate.find(query, EventStoreEntry.class);
+        // Newest bucket first, stopping once the limit is filled
+        List<String> collections = new ArrayList<>(partitions.allCollections());
+        Collections.reverse(collections);
+
+        List<EventStoreEntry> events = new ArrayList<>();
+        for (String collection : collections) {
+            int remaining = limit - events.size();
+            if (remaining <= 0) {
+                break;
+            }
+            events.addAll(mongoTemplate.find(Query.of(query).limit(remaining), EventStoreEntry.class, collection));
+        }
+        return events;
     }
 
+    /**
+     * Inserts events as given, each into the bucket of its timestamp, with one
+     * unordered bulk insert per bucket. A failed event does not stop the others;
+     * the failures are reported together in an {@link EventStoreWriteException}.
+     *
+     * An event whose id is already stored was committed by an earlier attempt
+     * (event ids are derived from the transaction): it counts as written, and
+     * takes the version and timestamp it was stored with. An earlier attempt
+     * that landed in a previous bucket is not detected.
+     */
     public void bulkSaveEvents(List<EventStoreEntry> events) {
-        mongoTemplate.insert(events, EventStoreEntry.class);
+        Map<String, List<EventStoreEntry>> byCollection = new LinkedHashMap<>();
+        for (EventStoreEntry event : events) {
+            byCollection.computeIfAbsent(partitions.collectionFor(event.getTimestamp()), c -> new ArrayList<>())
+                    .add(event);
+        }
+
+        Set<String> failedEventIds = new HashSet<>();
+        RuntimeException cause = null;
+        for (Map.Entry<String, List<EventStoreEntry>> bucket : byCollection.entrySet()) {
+            List<EventStoreEntry> bucketEvents = bucket.getValue();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EventStoreEntry.class, bucket.getKey())
+                        .insert(bucketEvents)
+                        .execute();
+            } catch (BulkOperationException e) {
+                List<EventStoreEntry> alreadyStored = new ArrayList<>();
+                for (BulkWriteError error : e.getErrors()) {
+                    EventStoreEntry event = bucketEvents.get(error.getIndex());
+                    if (isDuplicateId(error)) {
+                        alreadyStored.add(event);
+                    } else {
+                        failedEventIds.add(event.getId());
+                        cause = e;
+                    }
+                }
+                if (!alreadyStored.isEmpty()) {
+                    try {
+                        adoptStored(bucket.getKey(), alreadyStored);
+                    } catch (RuntimeException readError) {
+                        alreadyStored.forEach(event -> failedEventIds.add(event.getId()));
+                        cause = readError;
+                    }
+                }
+            } catch (RuntimeException e) {
+                bucketEvents.forEach(event -> failedEventIds.add(event.getId()));
+                cause = e;
+            }
+        }
+
+        if (cause != null) {
+            throw new EventStoreWriteException(failedEventIds, cause);
+        }
+    }
+
+    private static boolean isDuplicateId(BulkWriteError error) {
+        // Only the _id index; a clash on (aggregateId, version) is a real failure
+        return error.getCode() == DUPLICATE_KEY && error.getMessage() != null
+                && error.getMessage().contains("index: _id_ ");
+    }
+
+    private void adoptStored(String collection, List<EventStoreEntry> events) {
+        Map<String, EventStoreEntry> byId = new HashMap<>();
+        for (EventStoreEntry event : events) {
+            byId.put(event.getId(), event);
+        }
+        Query query = Query.query(Criteria.where("_id").in(byId.keySet()));
+        query.fields().include("version", "eventVersion", "timestamp");
+        for (EventStoreEntry stored : mongoTemplate.find(query, EventStoreEntry.class, collection)) {
+            EventStoreEntry event = byId.get(stored.getId());
+            event.setVersion(stored.getVersion());
+            event.setEventVersion(stored.getEventVersion());
+            event.setTimestamp(stored.getTimestamp());
+        }
+        log.info("{} events in {} were already stored by an earlier attempt", events.size(), collection);
+    }
+
+    /**
+     * Assigns every event the next version of its aggregate, in list order, and
+     * inserts them into their time buckets. Versions are reserved with one atomic
+     * increment per aggregate, all sent as one unordered bulk, so they are unique
+     * and increasing per aggregate across all instances and buckets, but not
+     * gap-free: versions reserved for an insert that fails are never reused.
+     * Each bucket's unique index rejects any append that races past a head.
+     */
+    public void appendEvents(List<EventStoreEntry> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        ensureHeadsSeeded();
+
+        Map<String, List<EventStoreEntry>> byAggregate = new LinkedHashMap<>();
+        for (EventStoreEntry event : events) {
+            byAggregate.computeIfAbsent(event.getAggregateId(), id -> new ArrayList<>(1)).add(event);
+        }
+
+        Map<String, Long> firstVersions = reserveVersions(byAggregate);
+        for (Map.Entry<String, List<EventStoreEntry>> entry : byAggregate.entrySet()) {
+            List<EventStoreEntry> aggregateEvents = entry.getValue();
+            long version = firstVersions.get(entry.getKey());
+            for (EventStoreEntry event : aggregateEvents) {
+                event.setVersion(version);
+                event.setEventVersion((int) version);
+                version++;
+            }
+        }
+
+        bulkSaveEvents(events);
+    }
+
+    /**
+     * Streams the events of one aggregate with a version greater than
+     * {@code afterVersion}, in version order. When {@code since} is known (the
+     * timestamp of the event at {@code afterVersion}) only buckets from there on
+     * are read; otherwise every bucket is. The caller must close the stream.
+     */
+    public Stream<EventStoreEntry> streamEvents(String aggregateId, String aggregateType, long afterVersion,
+            Instant since, int batchSize) {
+        Query query = new Query(Criteria.where("aggregateId").is(aggregateId)
+                .and("version").gt(afterVersion)
+                .and("aggregateType").is(aggregateType))
+                .with(Sort.by(Sort.Direction.ASC, "version"))
+                .cursorBatchSize(batchSize);
+
+        List<String> collections = since != null ? partitions.collectionsFor(since, null)
+                : partitions.allCollections();
+        return collections.stream()
+                .flatMap(collection -> mongoTemplate.stream(query, EventStoreEntry.class, collection));
+    }
+
+    /**
+     * Reserves consecutive versions for each aggregate's events in two round
+     * trips whatever the batch size: one unordered bulk that advances every
+     * head and tags the reservation, then one read of those heads. A head
+     * advanced by more than {@link #RESERVATION_HISTORY} other batches in
+     * between no longer shows the tag; only such aggregates fall back to a
+     * findAndModify of their own, abandoning the first range.
+     *
+     * @return the first reserved version by aggregateId
+     */
+    private Map<String, Long> reserveVersions(Map<String, List<EventStoreEntry>> byAggregate) {
+        String reservation = new ObjectId().toHexString();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, STREAM_HEADS_COLLECTION);
+        byAggregate.forEach((aggregateId, aggregateEvents) -> bulkOps.upsert(
+                Query.query(Criteria.where("_id").is(aggregateId)),
+                reservationUpdate(reservation, aggregateEvents.size())));
+        bulkOps.execute();
+
+        Map<String, Long> firstVersions = new HashMap<>();
+        for (Document head : mongoTemplate.find(Query.query(Criteria.where("_id").in(byAggregate.keySet())),
+                Document.class, STREAM_HEADS_COLLECTION)) {
+            Long last = reservedLast(head, reservation);
+            if (last != null) {
+                String aggregateId = head.get("_id").toString();
+                firstVersions.put(aggregateId, last - byAggregate.get(aggregateId).size() + 1);
+            }
+        }
+        byAggregate.forEach((aggregateId, aggregateEvents) -> firstVersions.computeIfAbsent(aggregateId,
+                id -> incrementHead(id, aggregateEvents.size()) - aggregateEvents.size() + 1));
+        return firstVersions;
+    }
+
+    private static AggregationUpdate reservationUpdate(String reservation, int count) {
+        Document version = new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), count));
+        Document reserved = new Document("reservation", reservation).append("last", "$version");
+        Document history = new Document("$slice", List.of(new Document("$concatArrays", List.of(
+                new Document("$ifNull", List.of("$reservations", List.of())), List.of(reserved))),
+                -RESERVATION_HISTORY));
+        // The second stage sees the advanced version
+        return AggregationUpdate.from(List.of(
+                context -> new Document("$set", new Document("version", version)),
+                context -> new Document("$set", new Document("reservations", history))));
+    }
+
+    private static Long reservedLast(Document head, String reservation) {
+        if (head.get("reservations") instanceof List<?> reservations) {
+            for (Object item : reservations) {
+                if (item instanceof Document reserved && reservation.equals(reserved.get("reservation"))) {
+                    return ((Number) reserved.get("last")).longValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One-time migration: raises the head of every aggregate written before
+     * heads existed to its highest stored version, so new versions continue
+     * after it. Runs before this process reserves its first version; instances
+     * racing through it are harmless, since each head only moves up via $max,
+     * and a head already past the stored versions is left alone.
+     */
+    private void ensureHeadsSeeded() {
+        if (headsSeeded) {
+            return;
+        }
+        synchronized (this) {
+            if (headsSeeded) {
+                return;
+            }
+            if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(HEADS_SEEDED)), MIGRATIONS_COLLECTION)) {
+                seedHeads();
+                mongoTemplate.save(new Document("_id", HEADS_SEEDED).append("completedAt", new Date()),
+                        MIGRATIONS_COLLECTION);
+            }
+            headsSeeded = true;
+        }
+    }
+
+    private void seedHeads() {
+        // Only the unpartitioned collection predates stream heads
+        String baseCollection = partitions.getBaseCollection();
+        if (!mongoTemplate.collectionExists(baseCollection)) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("aggregateId", new Document("$ne", null))),
+                new Document("$group", new Document("_id", "$aggregateId")
+                        .append("version", new Document("$max", "$version"))),
+                new Document("$match", new Document("version", new Document("$gt", 0))),
+                new Document("$merge", new Document("into", STREAM_HEADS_COLLECTION)
+                        .append("on", "_id")
+                        .append("whenMatched", List.of(new Document("$set", new Document("version",
+                                new Document("$max", List.of("$version", "$$new.version"))))))
+                        .append("whenNotMatched", "insert")));
+        mongoTemplate.getCollection(baseCollection).aggregate(pipeline).allowDiskUse(true).toCollection();
+        log.info("Seeded event stream heads from {} in {} ms", baseCollection, System.currentTimeMillis() - started);
+    }
+
+    private long incrementHead(String aggregateId, long delta) {
+        Document head = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(aggregateId)),
+                new Update().inc("version", delta),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class,
+                STREAM_HEADS_COLLECTION);
+        return ((Number) head.get("version")).longValue();
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        // The driver stores LocalDateTime values in the JVM's default zone
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.risk.scoring.repository.impl;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.risk.scoring.model.ProcessedTransaction;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+public class ProcessedTransactionRepositoryImpl {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Returns the subset of the ids that already have a marker, reading only
+     * the _id index.
+     */
+    public Set<String> findExistingIds(Collection<String> transactionIds) {
+        Set<String> existing = new HashSet<>();
+        if (transactionIds.isEmpty()) {
+            return existing;
+        }
+        Query query = new Query(Criteria.where("_id").in(transactionIds));
+        query.fields().include("_id");
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(ProcessedTransaction.class))
+                .find(query.getQueryObject())
+                .projection(query.getFieldsObject())
+                .forEach(document -> existing.add(document.getString("_id")));
+        return existing;
+    }
+
+    /**
+     * Inserts the markers in one unordered bulk write. Markers that already
+     * exist are rejected by the _id index and counted rather than treated as
+     * failures; any other error propagates.
+     *
+     * @return the number of markers that were already present
+     */
+    public int insertProcessed(Collection<ProcessedTransaction> processed) {
+        if (processed.isEmpty()) {
+            return 0;
+        }
+        if (processed.size() == 1) {
+            try {
+                mongoTemplate.insert(processed.iterator().next());
+                return 0;
+            } catch (DuplicateKeyException e) {
+                return 1;
+            }
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProcessedTransaction.class);
+        bulkOps.insert(processed.stream().toList());
+        try {
+            bulkOps.execute();
+            return 0;
+        } catch (BulkOperationException e) {
+            int duplicates = 0;
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicates++;
+            }
+            return duplicates;
+        }
+    }
+
+    /**
+     * Streams the ids of transactions processed at or after {@code since}.
+     *
+     * @return the number of ids passed to the action
+     */
+    public long forEachIdProcessedSince(Instant since, Consumer<String> action) {
+        Query query = new Query(Criteria.where("processedAt").gte(since));
+        query.fields().include("_id");
+        long count = 0;
+        for (Document document : mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(ProcessedTransaction.class))
+                .find(query.getQueryObject())
+                .projection(query.getFieldsObject())
+                .batchSize(10_000)) {
+            action.accept(document.getString("_id"));
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,97 @@
+package com.risk.scoring.repository.impl;
+
+import com.risk.scoring.model.RescoringJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class RescoringJobRepositoryImpl {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Takes over a job that is stopped (failed or cancelled) or whose owner's
+     * lease went stale before {@code staleBefore}; null if the job is
+     * completed, unknown or actively running elsewhere.
+     */
+    public RescoringJob claim(String jobId, String ownerId, Instant staleBefore) {
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("status").in(RescoringJob.Status.FAILED, RescoringJob.Status.CANCELLED),
+                Criteria.where("status").is(RescoringJob.Status.RUNNING).and("heartbeatAt").lt(staleBefore));
+        Query query = new Query(Criteria.where("_id").is(jobId).andOperator(claimable));
+        Update update = new Update()
+                .set("status", RescoringJob.Status.RUNNING)
+                .set("ownerId", ownerId)
+                .set("heartbeatAt", Instant.now())
+                .unset("error")
+                .unset("finishedAt");
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                RescoringJob.class);
+    }
+
+    /**
+     * Saves the job's position and counters, provided this owner still holds a
+     * running job; false once it was cancelled or taken over.
+     */
+    public boolean checkpoint(RescoringJob job, String ownerId) {
+        Update update = new Update()
+                .set("checkpointTimestamp", job.getCheckpointTimestamp())
+                .set("checkpointEventId", job.getCheckpointEventId())
+                .set("checkpointLine", job.getCheckpointLine())
+                .set("outputBytes", job.getOutputBytes())
+                .set("read", job.getRead())
+                .set("rescored", job.getRescored())
+                .set("skipped", job.getSkipped())
+                .set("failed", job.getFailed())
+                .set("levelChanged", job.getLevelChanged())
+                .set("decisionChanged", job.getDecisionChanged())
+                .set("heartbeatAt", Instant.now());
+        return mongoTemplate.updateFirst(ownedRunning(job.getId(), ownerId), update, RescoringJob.class)
+                .getModifiedCount() > 0;
+    }
+
+    public void heartbeat(Collection<String> jobIds, String ownerId) {
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").in(jobIds)
+                .and("ownerId").is(ownerId)
+                .and("status").is(RescoringJob.Status.RUNNING));
+        mongoTemplate.updateMulti(query, new Update().set("heartbeatAt", Instant.now()), RescoringJob.class);
+    }
+
+    /** Ends a job this owner still holds; its checkpoint is left as last saved. */
+    public boolean finish(String jobId, String ownerId, RescoringJob.Status status, String error) {
+        Update update = new Update()
+                .set("status", status)
+                .set("finishedAt", Instant.now())
+                .set("error", error);
+        return mongoTemplate.updateFirst(ownedRunning(jobId, ownerId), update, RescoringJob.class)
+                .getModifiedCount() > 0;
+    }
+
+    /** Stops a running job; its owner notices at its next checkpoint. */
+    public boolean cancel(String jobId) {
+        Query query = new Query(Criteria.where("_id").is(jobId).and("status").is(RescoringJob.Status.RUNNING));
+        Update update = new Update()
+                .set("status", RescoringJob.Status.CANCELLED)
+                .set("finishedAt", Instant.now());
+        return mongoTemplate.updateFirst(query, update, RescoringJob.class).getModifiedCount() > 0;
+    }
+
+    private static Query ownedRunning(String jobId, String ownerId) {
+        return new Query(Criteria.where("_id").is(jobId)
+                .and("ownerId").is(ownerId)
+                .and("status").is(RescoringJob.Status.RUNNING));
+    }
+}
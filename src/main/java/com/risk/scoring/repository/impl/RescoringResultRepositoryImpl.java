@@ -0,0 +1,36 @@
+package com.risk.scoring.repository.impl;
+
+import com.risk.scoring.model.RescoringResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public class RescoringResultRepositoryImpl {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Writes the results in one unordered bulk write, replacing any copies a
+     * previous attempt of the job wrote before it was resumed.
+     */
+    public void bulkReplaceResults(Collection<RescoringResult> results) {
+        if (results == null || results.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RescoringResult.class);
+        for (RescoringResult result : results) {
+            bulkOps.replaceOne(new Query(Criteria.where("_id").is(result.getId())), result,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulkOps.execute();
+    }
+}
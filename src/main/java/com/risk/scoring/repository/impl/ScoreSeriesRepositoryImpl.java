@@ -0,0 +1,62 @@
+package com.risk.scoring.repository.impl;
+
+import com.risk.scoring.model.ScoreSeriesBucket;
+import com.risk.scoring.timeseries.ScoreChunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+@Repository
+public class ScoreSeriesRepositoryImpl {
+
+    private static final DateTimeFormatter DAY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd")
+            .withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${risk.scoring.score-series.retention-days:400}")
+    private int retentionDays;
+
+    public static String bucketId(String customerId, long dayStartMillis) {
+        return customerId + ":" + DAY_SUFFIX.format(Instant.ofEpochMilli(dayStartMillis));
+    }
+
+    /**
+     * Appends each chunk to its customer-day bucket and folds its count, sum, min
+     * and max into the bucket's aggregates, in one unordered bulk write.
+     */
+    public void appendChunks(Collection<ScoreChunk> chunks) {
+        if (chunks == null || chunks.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ScoreSeriesBucket.class);
+        for (ScoreChunk chunk : chunks) {
+            Instant day = Instant.ofEpochMilli(chunk.getDayStartMillis());
+            Update update = new Update()
+                    .setOnInsert("customerId", chunk.getCustomerId())
+                    .setOnInsert("day", day)
+                    .setOnInsert("expireAt", day.plus(Duration.ofDays(retentionDays)))
+                    .push("chunks", chunk.toStoredChunk())
+                    .inc("count", chunk.getCount())
+                    .inc("scoreSum", chunk.getScoreSum())
+                    .min("minScore", chunk.getMinScore())
+                    .max("maxScore", chunk.getMaxScore());
+            bulkOps.upsert(new Query(Criteria.where("_id").is(bucketId(chunk.getCustomerId(),
+                    chunk.getDayStartMillis()))), update);
+        }
+        bulkOps.execute();
+    }
+}
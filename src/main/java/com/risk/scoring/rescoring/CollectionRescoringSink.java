@@ -0,0 +1,35 @@
+package com.risk.scoring.rescoring;
+
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.RescoringResult;
+import com.risk.scoring.repository.RescoringResultRepository;
+
+import java.util.List;
+
+/**
+ * Writes results to rescoringResults. Every chunk is one bulk write, durable
+ * once it returns; results are keyed by job and input, so rewriting them
+ * after a resume replaces the earlier copies.
+ */
+public class CollectionRescoringSink implements RescoringSink {
+
+    private final RescoringResultRepository repository;
+
+    public CollectionRescoringSink(RescoringResultRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void write(List<RescoringResult> results) {
+        repository.bulkReplaceResults(results);
+    }
+
+    @Override
+    public void checkpoint(RescoringJob job) {
+        // Nothing buffered
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,87 @@
+package com.risk.scoring.rescoring;
+
+import com.risk.scoring.model.EventContinuationToken;
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.service.EventStoreService;
+import com.risk.scoring.service.impl.EventStoreServiceImpl;
+import com.riskplatform.common.entity.EventStoreEntry;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * RiskScoreCalculated events of the job's range, read from one cursor per
+ * event store bucket in (timestamp, id) order and resumed strictly after the
+ * checkpointed event.
+ */
+public class EventStoreRescoringSource implements RescoringSource {
+
+    private final EventStoreService eventStoreService;
+    private final Stream<EventStoreEntry> events;
+    private final Iterator<EventStoreEntry> iterator;
+    private EventStoreEntry last;
+
+    public EventStoreRescoringSource(EventStoreService eventStoreService, RescoringJob job) {
+        this.eventStoreService = eventStoreService;
+        EventContinuationToken after = job.getCheckpointEventId() != null
+                ? new EventContinuationToken(job.getCheckpointTimestamp(), job.getCheckpointEventId())
+                : null;
+        this.events = eventStoreService.streamEventsByEventType(EventStoreServiceImpl.RISK_SCORE_CALCULATED,
+                job.getFrom(), job.getTo(), after);
+        this.iterator = events.iterator();
+    }
+
+    @Override
+    public List<RescoringInput> nextChunk(int max) {
+        List<RescoringInput> chunk = new ArrayList<>(max);
+        while (chunk.size() < max && iterator.hasNext()) {
+            last = iterator.next();
+            chunk.add(toInput(last));
+        }
+        return chunk;
+    }
+
+    @Override
+    public void checkpoint(RescoringJob job) {
+        if (last != null) {
+            job.setCheckpointTimestamp(last.getTimestamp());
+            job.setCheckpointEventId(last.getId());
+        }
+    }
+
+    @Override
+    public void close() {
+        events.close();
+    }
+
+    private RescoringInput toInput(EventStoreEntry event) {
+        Map<?, ?> data = event.getEventData() instanceof Map<?, ?> map ? map : Map.of();
+        Object transactionId = data.get("transactionId");
+        Object score = data.get("newScore");
+        Object level = data.get("riskLevel");
+        Object decision = data.get("decision");
+
+        RiskCalculationRequest request;
+        String error = null;
+        try {
+            request = eventStoreService.getScoringInput(event);
+        } catch (IllegalArgumentException e) {
+            request = null;
+            error = "Unreadable scoring input: " + e.getMessage();
+        }
+
+        return new RescoringInput(event.getId(),
+                transactionId != null ? transactionId.toString() : null,
+                event.getAggregateId(),
+                event.getTimestamp(),
+                request,
+                score instanceof Number number ? number.intValue() : null,
+                level != null ? level.toString() : null,
+                decision != null ? decision.toString() : null,
+                error);
+    }
+}
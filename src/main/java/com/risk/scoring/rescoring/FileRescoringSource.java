@@ -0,0 +1,68 @@
+package com.risk.scoring.rescoring;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An NDJSON file of RiskCalculationRequest, one per line. The position is the
+ * number of lines consumed; a malformed line fails only its own input.
+ */
+public class FileRescoringSource implements RescoringSource {
+
+    private final ObjectReader reader;
+    private final BufferedReader lines;
+    private long lineNumber;
+
+    public FileRescoringSource(ObjectReader reader, Path file, RescoringJob job) throws IOException {
+        this.reader = reader;
+        this.lines = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        while (lineNumber < job.getCheckpointLine() && lines.readLine() != null) {
+            lineNumber++;
+        }
+    }
+
+    @Override
+    public List<RescoringInput> nextChunk(int max) throws IOException {
+        List<RescoringInput> chunk = new ArrayList<>(max);
+        String line;
+        while (chunk.size() < max && (line = lines.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                chunk.add(toInput(line));
+            }
+        }
+        return chunk;
+    }
+
+    @Override
+    public void checkpoint(RescoringJob job) {
+        job.setCheckpointLine(lineNumber);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lines.close();
+    }
+
+    private RescoringInput toInput(String line) {
+        String sourceId = "line-" + lineNumber;
+        try {
+            RiskCalculationRequest request = reader.readValue(line);
+            return new RescoringInput(sourceId, request.getTransactionId(), request.getCustomerId(),
+                    request.getTimestamp(), request, null, null, null, null);
+        } catch (JsonProcessingException e) {
+            return new RescoringInput(sourceId, null, null, null, null, null, null, null,
+                    "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.risk.scoring.rescoring;
+
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * One input of a rescoring job. {@code request} is null when the input cannot
+ * be rescored; {@code error} then says why, or is null when the input is
+ * simply skipped (events recorded before scoring inputs were kept).
+ */
+@Value
+public class RescoringInput {
+    String sourceId;
+    String transactionId;
+    String customerId;
+    Instant timestamp;
+    RiskCalculationRequest request;
+    Integer originalScore;
+    String originalLevel;
+    String originalDecision;
+    String error;
+}
@@ -0,0 +1,21 @@
+package com.risk.scoring.rescoring;
+
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.RescoringResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the results of a rescoring job. Results written after the last
+ * checkpoint may be written again when the job resumes, so sinks either
+ * overwrite them or roll back to the checkpointed position when opened.
+ */
+public interface RescoringSink extends Closeable {
+
+    void write(List<RescoringResult> results) throws IOException;
+
+    /** Makes everything written so far durable and records the position in the job. */
+    void checkpoint(RescoringJob job) throws IOException;
+}
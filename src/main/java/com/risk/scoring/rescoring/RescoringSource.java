@@ -0,0 +1,19 @@
+package com.risk.scoring.rescoring;
+
+import com.risk.scoring.model.RescoringJob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads the inputs of a rescoring job from its checkpointed position onwards.
+ */
+public interface RescoringSource extends Closeable {
+
+    /** The next inputs, at most {@code max}; empty once the source is exhausted. */
+    List<RescoringInput> nextChunk(int max) throws IOException;
+
+    /** Records the position after the last returned input in the job. */
+    void checkpoint(RescoringJob job);
+}
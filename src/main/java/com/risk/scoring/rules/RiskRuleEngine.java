@@ -0,0 +1,248 @@
+package com.risk.scoring.rules;
+
+import com.risk.scoring.repository.RiskRuleRepository;
+import com.riskplatform.common.entity.RiskRule;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compiles the enabled risk rules into a {@link RiskRulePlan} and publishes it
+ * atomically. The scoring path only calls {@link #currentPlan()}, which never
+ * touches MongoDB; rules are reloaded whenever they change through
+ * {@code RiskRuleService} and periodically to pick up changes made by other
+ * instances.
+ */
+@Component
+@Slf4j
+public class RiskRuleEngine {
+
+    @Autowired
+    private RiskRuleRepository riskRuleRepository;
+
+    @Value("${risk.scoring.transaction.amount-multiplier:3}")
+    private double amountMultiplier;
+
+    @Value("${risk.scoring.transaction.daily-limit-threshold:0.8}")
+    private double dailyLimitThreshold;
+
+    @Value("${risk.scoring.behavior.new-customer-days:30}")
+    private int newCustomerDays;
+
+    @Value("${risk.scoring.behavior.failed-transactions-threshold:3}")
+    private int failedTransactionsThreshold;
+
+    @Value("${risk.scoring.behavior.dormant-days:90}")
+    private int dormantDays;
+
+    @Value("${risk.scoring.velocity.one-hour-threshold:20}")
+    private int oneHourThreshold;
+
+    @Value("${risk.scoring.velocity.one-day-threshold:100}")
+    private int oneDayThreshold;
+
+    @Value("${risk.scoring.velocity.one-day-medium-threshold:50}")
+    private int oneDayMediumThreshold;
+
+    @Value("${risk.scoring.geographic.impossible-travel-distance:1000}")
+    private double impossibleTravelDistance;
+
+    @Value("${risk.scoring.geographic.impossible-travel-time:1}")
+    private long impossibleTravelTime;
+
+    @Value("${risk.scoring.geographic.high-risk-distance:500}")
+    private double highRiskDistance;
+
+    @Value("${risk.scoring.geographic.high-risk-time:2}")
+    private long highRiskTime;
+
+    @Value("${risk.scoring.merchant.high-risk-categories:Drugs,Weapons,Gambling,Dark_Web}")
+    private String[] highRiskCategories;
+
+    @Value("${risk.scoring.merchant.medium-risk-categories:Cash_Advance,Wire_Transfer,Crypto}")
+    private String[] mediumRiskCategories;
+
+    private final AtomicReference<RiskRulePlan> plan = new AtomicReference<>();
+
+    private volatile List<RiskRule> loadedRules = List.of();
+
+    @PostConstruct
+    public void init() {
+        plan.set(compile(List.of()));
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Could not load risk rules at startup, scoring with configured defaults: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the plan for the current instant.
+     */
+    public RiskRulePlan currentPlan() {
+        RiskRulePlan current = plan.get();
+        if (System.currentTimeMillis() >= current.getValidUntilMillis()) {
+            // A pending rule became effective; recompile from the rules already in memory
+            RiskRulePlan recompiled = compile(loadedRules);
+            plan.compareAndSet(current, recompiled);
+            return recompiled;
+        }
+        return current;
+    }
+
+    public void reload() {
+        List<RiskRule> rules = riskRuleRepository.findByEnabledIsTrue();
+        loadedRules = rules;
+        plan.set(compile(rules));
+        log.info("Compiled risk rule plan from {} enabled rules", rules.size());
+    }
+
+    @Scheduled(fixedDelayString = "${risk.scoring.rules.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Risk rule refresh failed, keeping the current plan: {}", e.getMessage());
+        }
+    }
+
+    private RiskRulePlan compile(Collection<RiskRule> rules) {
+        long now = System.currentTimeMillis();
+        long validUntil = Long.MAX_VALUE;
+
+        List<RiskRule> effective = new ArrayList<>();
+        for (RiskRule rule : rules) {
+            Instant effectiveDate = rule.getEffectiveDate();
+            if (effectiveDate != null && effectiveDate.toEpochMilli() > now) {
+                validUntil = Math.min(validUntil, effectiveDate.toEpochMilli());
+            } else if (rule.getRuleType() != null) {
+                effective.add(rule);
+            }
+        }
+        // Later effective dates override earlier ones for the same parameter
+        effective.sort(Comparator.comparing(RiskRule::getEffectiveDate,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        RiskRulePlan.RiskRulePlanBuilder builder = defaults().toBuilder();
+        for (RiskRule rule : effective) {
+            apply(rule, builder);
+        }
+        return builder.ruleCount(effective.size()).validUntilMillis(validUntil).build();
+    }
+
+    private RiskRulePlan defaults() {
+        return RiskRulePlan.builder()
+                .amountMultiplier(amountMultiplier)
+                .dailyLimitThreshold(dailyLimitThreshold)
+                .newCustomerDays(newCustomerDays)
+                .failedTransactionsThreshold(failedTransactionsThreshold)
+                .dormantDays(dormantDays)
+                .oneHourThreshold(oneHourThreshold)
+                .oneDayThreshold(oneDayThreshold)
+                .oneDayMediumThreshold(oneDayMediumThreshold)
+                .impossibleTravelDistance(impossibleTravelDistance)
+                .impossibleTravelTime(impossibleTravelTime)
+                .highRiskDistance(highRiskDistance)
+                .highRiskTime(highRiskTime)
+                .highRiskCategories(List.of(highRiskCategories))
+                .mediumRiskCategories(List.of(mediumRiskCategories))
+                .validUntilMillis(Long.MAX_VALUE)
+                .build();
+    }
+
+    private void apply(RiskRule rule, RiskRulePlan.RiskRulePlanBuilder builder) {
+        Map<String, Object> params = rule.getParameters() != null ? rule.getParameters() : Map.of();
+        try {
+            switch (rule.getRuleType()) {
+                case TRANSACTION_AMOUNT_CHECK:
+                    if (params.containsKey("amountMultiplier")) {
+                        builder.amountMultiplier(toDouble(params.get("amountMultiplier")));
+                    }
+                    if (params.containsKey("dailyLimitThreshold")) {
+                        builder.dailyLimitThreshold(toDouble(params.get("dailyLimitThreshold")));
+                    }
+                    break;
+                case CUSTOMER_BEHAVIOR_CHECK:
+                    if (params.containsKey("newCustomerDays")) {
+                        builder.newCustomerDays(toInt(params.get("newCustomerDays")));
+                    }
+                    if (params.containsKey("failedTransactionsThreshold")) {
+                        builder.failedTransactionsThreshold(toInt(params.get("failedTransactionsThreshold")));
+                    }
+                    if (params.containsKey("dormantDays")) {
+                        builder.dormantDays(toInt(params.get("dormantDays")));
+                    }
+                    break;
+                case VELOCITY_CHECK:
+                    if (params.containsKey("oneHourThreshold")) {
+                        builder.oneHourThreshold(toInt(params.get("oneHourThreshold")));
+                    }
+                    if (params.containsKey("oneDayThreshold")) {
+                        builder.oneDayThreshold(toInt(params.get("oneDayThreshold")));
+                    }
+                    if (params.containsKey("oneDayMediumThreshold")) {
+                        builder.oneDayMediumThreshold(toInt(params.get("oneDayMediumThreshold")));
+                    }
+                    break;
+                case GEOGRAPHIC_DISTANCE_CHECK:
+                    if (params.containsKey("impossibleTravelDistance")) {
+                        builder.impossibleTravelDistance(toDouble(params.get("impossibleTravelDistance")));
+                    }
+                    if (params.containsKey("impossibleTravelTime")) {
+                        builder.impossibleTravelTime(toInt(params.get("impossibleTravelTime")));
+                    }
+                    if (params.containsKey("highRiskDistance")) {
+                        builder.highRiskDistance(toDouble(params.get("highRiskDistance")));
+                    }
+                    if (params.containsKey("highRiskTime")) {
+                        builder.highRiskTime(toInt(params.get("highRiskTime")));
+                    }
+                    break;
+                case MERCHANT_CATEGORY_CHECK:
+                    if (params.containsKey("highRiskCategories")) {
+                        builder.highRiskCategories(toStringList(params.get("highRiskCategories")));
+                    }
+                    if (params.containsKey("mediumRiskCategories")) {
+                        builder.mediumRiskCategories(toStringList(params.get("mediumRiskCategories")));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid parameters of risk rule {}: {}", rule.getRuleId(), e.getMessage());
+        }
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(String.valueOf(value));
+    }
+
+    private static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(String.valueOf(value));
+    }
+
+    private static List<String> toStringList(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(String::valueOf).toList();
+        }
+        return List.of(String.valueOf(value).split("\\s*,\\s*"));
+    }
+}
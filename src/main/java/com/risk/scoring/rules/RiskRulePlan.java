@@ -0,0 +1,60 @@
+package com.risk.scoring.rules;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Immutable, pre-resolved thresholds used by the risk factor services. A plan is
+ * compiled from the active {@code RiskRule} documents on top of the configured
+ * defaults, so the scoring path only reads typed fields.
+ */
+@Value
+@Builder(toBuilder = true)
+public class RiskRulePlan {
+
+    // Transaction amount check
+    double amountMultiplier;
+    double dailyLimitThreshold;
+
+    // Customer behavior check
+    int newCustomerDays;
+    int failedTransactionsThreshold;
+    int dormantDays;
+
+    // Velocity check
+    int oneHourThreshold;
+    int oneDayThreshold;
+    int oneDayMediumThreshold;
+
+    // Geographic distance check
+    double impossibleTravelDistance;
+    long impossibleTravelTime;
+    double highRiskDistance;
+    long highRiskTime;
+
+    // Merchant category check; unmodifiable, so callers cannot change a shared plan
+    List<String> highRiskCategories;
+    List<String> mediumRiskCategories;
+
+    // Number of rules folded into this plan
+    int ruleCount;
+
+    // The plan has to be recompiled from the loaded rules once a pending rule
+    // becomes effective
+    long validUntilMillis;
+
+    public static class RiskRulePlanBuilder {
+
+        public RiskRulePlanBuilder highRiskCategories(List<String> highRiskCategories) {
+            this.highRiskCategories = List.copyOf(highRiskCategories);
+            return this;
+        }
+
+        public RiskRulePlanBuilder mediumRiskCategories(List<String> mediumRiskCategories) {
+            this.mediumRiskCategories = List.copyOf(mediumRiskCategories);
+            return this;
+        }
+    }
+}
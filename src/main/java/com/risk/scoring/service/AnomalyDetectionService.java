@@ -3,6 +3,8 @@ package com.risk.scoring.service;
 import com.riskplatform.common.entity.Anomaly;
 import com.riskplatform.common.entity.RiskAssessment;
 import com.risk.scoring.model.dto.AnomaliesResponse;
+import com.risk.scoring.model.dto.AnomalyStatsResponse;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
 
 import java.util.List;
 
@@ -10,13 +12,28 @@ public interface AnomalyDetectionService {
 
     List<Anomaly> detectAnomalies(RiskAssessment assessment);
 
+    /**
+     * Detects anomalies from the transaction's deviation against the customer's
+     * rolling statistics, which the transaction is then folded into; call once
+     * per transaction.
+     */
+    List<Anomaly> detectAnomalies(RiskAssessment assessment, RiskCalculationRequest request);
+
     void saveAnomalies(List<Anomaly> anomalies);
 
     AnomaliesResponse getRecentAnomalies(int limit);
 
-    List<Anomaly> getAnomaliesByCustomerId(String customerId);
+    List<Anomaly> getAnomaliesByCustomerId(String customerId, int page, int size);
+
+    List<Anomaly> getAnomaliesByType(String anomalyType, int page, int size);
+
+    List<Anomaly> getAnomaliesBySeverity(String severity, int page, int size);
 
-    List<Anomaly> getAnomaliesByType(String anomalyType);
+    /**
+     * Totals plus hourly counts for the last {@code hours} hours, read from the
+     * pre-aggregated statistics.
+     */
+    AnomalyStatsResponse getAnomalyStats(int hours);
 
-    List<Anomaly> getAnomaliesBySeverity(String severity);
-}
\ No newline at end of file
+    AnomalyStatsResponse getCustomerAnomalyStats(String customerId);
+}
@@ -0,0 +1,16 @@
+package com.risk.scoring.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface BatchScoringService {
+
+    /**
+     * Scores a stream of risk calculation requests, read as NDJSON or as a JSON
+     * array, and writes one NDJSON result line per entry as entries finish.
+     *
+     * @return the number of entries read
+     */
+    long scoreStream(InputStream in, OutputStream out, boolean ndjson) throws IOException;
+}
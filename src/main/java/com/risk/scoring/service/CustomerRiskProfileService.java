@@ -5,21 +5,28 @@ import com.riskplatform.common.entity.CustomerRiskProfile;
 import com.riskplatform.common.entity.RiskAssessment;
 import com.risk.scoring.model.VelocityData;
 import com.risk.scoring.model.dto.CustomerRiskProfileResponse;
-import com.risk.scoring.model.dto.CustomerProfileSummary;
+import com.risk.scoring.model.dto.RiskTrendPoint;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface CustomerRiskProfileService {
     Optional<CustomerRiskProfile> getCustomerRiskProfile(String customerId);
 
+    Map<String, CustomerRiskProfile> getCustomerRiskProfiles(Collection<String> customerIds);
+
     boolean updateCustomerRiskProfile(String customerId, CustomerRiskProfile updatedProfile);
 
     CustomerRiskProfile saveCustomerRiskProfile(CustomerRiskProfile profile);
 
+    void saveCustomerRiskProfiles(Collection<CustomerRiskProfile> profiles);
+
     CustomerRiskProfileResponse getCustomerRiskProfileResponse(String customerId);
 
-    List<CustomerProfileSummary> getRiskTrend(String customerId, int days);
+    List<RiskTrendPoint> getRiskTrend(String customerId, int days);
 
     boolean isSignificantChange(CustomerRiskProfile currentProfile, CustomerRiskProfile newProfile);
 
@@ -30,8 +37,22 @@ public interface CustomerRiskProfileService {
     CustomerRiskProfile updateCustomerRiskProfileFromAssessment(CustomerRiskProfile existingProfile,
             RiskAssessment assessment);
 
+    // In-place updates (risk.scoring.profile.update-mode: ATOMIC); no prior read
+    boolean isAtomicUpdateEnabled();
+
+    CustomerRiskProfile applyAssessment(RiskAssessment assessment, CustomerProfileData customerProfileData);
+
+    List<CustomerRiskProfile> applyAssessments(List<RiskAssessment> assessments,
+            List<CustomerProfileData> customerProfiles);
+
+    boolean isSignificantUpdate(CustomerRiskProfile updatedProfile);
+
     // Methods for fetching customer data and velocity data
     CustomerProfileData getCustomerProfileData(String customerId);
 
-    VelocityData getVelocityData(String customerId);
+    /**
+     * Velocity as of {@code asOf}, the transaction's event time; the current
+     * time when null.
+     */
+    VelocityData getVelocityData(String customerId, Instant asOf);
 }
\ No newline at end of file
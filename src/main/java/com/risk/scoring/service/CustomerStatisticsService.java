@@ -0,0 +1,17 @@
+package com.risk.scoring.service;
+
+import com.risk.scoring.model.AnomalySignals;
+
+import java.time.Instant;
+
+public interface CustomerStatisticsService {
+
+    /**
+     * Scores the transaction against the customer's statistics, then folds it into
+     * them. Returns null when the customer has too little history or nothing
+     * deviates.
+     */
+    AnomalySignals observe(String customerId, Double amount, Instant timestamp, String merchantCategory);
+
+    int getTrackedCustomerCount();
+}
@@ -2,18 +2,38 @@ package com.risk.scoring.service;
 
 import com.riskplatform.common.entity.EventStoreEntry;
 import com.riskplatform.common.entity.RiskAssessment;
-import org.springframework.data.domain.Page;
+import com.risk.scoring.model.EventContinuationToken;
+import com.risk.scoring.model.dto.EventPage;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface EventStoreService {
     EventStoreEntry saveRiskScoreEvent(RiskAssessment assessment, String customerId);
 
+    /**
+     * Queues the event for the next group commit; the future completes once it is
+     * durable.
+     */
+    CompletableFuture<EventStoreEntry> appendRiskScoreEvent(RiskAssessment assessment, String customerId,
+            RiskCalculationRequest input);
+
+    /**
+     * Builds a RiskScoreCalculated event, with an id derived from the
+     * transactionId; when {@code input} is given and input recording is
+     * enabled, it is kept in the event so the transaction can be rescored later.
+     */
+    EventStoreEntry createRiskScoreEvent(RiskAssessment assessment, String customerId, RiskCalculationRequest input);
+
     List<EventStoreEntry> getEventsByCustomerId(String customerId);
 
-    Page<EventStoreEntry> getEventsByCustomerIdAndDateRange(String customerId,
+    Slice<EventStoreEntry> getEventsByCustomerIdAndDateRange(String customerId,
             LocalDateTime startDate,
             LocalDateTime endDate,
             Pageable pageable);
@@ -24,6 +44,30 @@ public interface EventStoreService {
 
     List<EventStoreEntry> getRecentEventsByCustomerId(String customerId, int limit);
 
+    EventPage getEventsByCustomerId(String customerId, Instant from, Instant to, String continuationToken,
+            int limit);
+
+    EventPage getEventsByEventType(String eventType, Instant from, Instant to, String continuationToken, int limit);
+
+    /**
+     * Cursor-backed stream over every event of the type in [from, to); the caller
+     * must close it.
+     */
+    Stream<EventStoreEntry> streamEventsByEventType(String eventType, Instant from, Instant to);
+
+    /**
+     * Same as {@link #streamEventsByEventType(String, Instant, Instant)},
+     * starting strictly after the given (timestamp, id) position.
+     */
+    Stream<EventStoreEntry> streamEventsByEventType(String eventType, Instant from, Instant to,
+            EventContinuationToken after);
+
+    /**
+     * The scoring input recorded in a RiskScoreCalculated event, or null for
+     * events written without one.
+     */
+    RiskCalculationRequest getScoringInput(EventStoreEntry event);
+
     EventStoreEntry saveEvent(EventStoreEntry event);
 
     void bulkSaveEvents(List<EventStoreEntry> events);
@@ -0,0 +1,27 @@
+package com.risk.scoring.service;
+
+import com.riskplatform.common.entity.CustomerRiskProfile;
+import com.riskplatform.common.entity.EventStoreEntry;
+
+import java.util.List;
+
+public interface ProfileRebuildService {
+
+    /**
+     * Folds the latest snapshot plus the events appended after it into the
+     * customer's risk profile. Returns null when the customer has no events.
+     */
+    CustomerRiskProfile rebuildProfile(String customerId);
+
+    /**
+     * Rebuilds the profile from the event store and replaces the stored profile
+     * with it.
+     */
+    CustomerRiskProfile rebuildAndSaveProfile(String customerId);
+
+    /**
+     * Schedules a new snapshot for every aggregate whose appended events crossed
+     * a snapshot interval boundary.
+     */
+    void snapshotIfDue(List<EventStoreEntry> appendedEvents);
+}
@@ -0,0 +1,27 @@
+package com.risk.scoring.service;
+
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.dto.RescoringJobRequest;
+
+import java.util.Optional;
+
+public interface RescoringService {
+
+    /**
+     * Validates the request and starts the job in the background.
+     *
+     * @throws IllegalArgumentException if the request is incomplete or names files
+     *                                  outside the rescoring directory
+     */
+    RescoringJob startJob(RescoringJobRequest request);
+
+    Optional<RescoringJob> getJob(String jobId);
+
+    /**
+     * Continues a failed, cancelled or abandoned job from its checkpoint; null if
+     * the job is completed, unknown or still running.
+     */
+    RescoringJob resumeJob(String jobId);
+
+    boolean cancelJob(String jobId);
+}
@@ -4,4 +4,17 @@ import com.risk.scoring.model.dto.RiskCalculationRequest;
 public interface RiskFactorService {
     int calculateRiskFactor(RiskCalculationRequest request);
     double getWeight();
+    String getFactorName();
+
+    // Highest score calculateRiskFactor can return; bounds short-circuiting
+    int getMaxScore();
+
+    // Relative evaluation cost; cheaper factors are evaluated first
+    int getCost();
+
+    // True when the factor's own score is read after scoring (anomalies, profile
+    // status), so short-circuiting must never skip it
+    default boolean hasDownstreamConsumers() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -7,9 +7,23 @@ import com.riskplatform.common.enums.RiskLevel;
 import com.risk.scoring.model.dto.RiskCalculationRequest;
 import com.risk.scoring.model.dto.RiskCalculationResponse;
 
+import java.util.List;
+
 public interface RiskScoringService {
+    /**
+     * Scores a live transaction; the result is also compared against the
+     * shadow configuration, when one is enabled.
+     */
     RiskCalculationResponse calculateRiskScore(RiskCalculationRequest request);
 
+    /**
+     * Scores without any side effect, shadow scoring included. For offline
+     * and batch paths, whose requests must not count as live traffic.
+     */
+    RiskCalculationResponse evaluateRiskScore(RiskCalculationRequest request);
+
+    List<RiskCalculationResponse> calculateRiskScores(List<RiskCalculationRequest> requests);
+
     RiskFactors calculateRiskFactors(RiskCalculationRequest request);
 
     RiskLevel determineRiskLevel(int score);
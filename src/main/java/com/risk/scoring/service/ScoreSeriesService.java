@@ -0,0 +1,30 @@
+package com.risk.scoring.service;
+
+import com.risk.scoring.model.dto.RiskTrendPoint;
+import com.riskplatform.common.entity.ScoreHistoryEntry;
+import com.riskplatform.common.enums.RiskLevel;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ScoreSeriesService {
+
+    /**
+     * Whether scores are recorded in the series store instead of the history
+     * embedded in each profile.
+     */
+    boolean isEnabled();
+
+    void record(String customerId, Instant timestamp, int score, RiskLevel level);
+
+    /**
+     * Min, average and max score per day over the last {@code days} days, oldest
+     * first; days without transactions are omitted.
+     */
+    List<RiskTrendPoint> getDailyTrend(String customerId, int days);
+
+    /**
+     * The customer's latest {@code limit} scores, newest first.
+     */
+    List<ScoreHistoryEntry> getRecentHistory(String customerId, int limit);
+}
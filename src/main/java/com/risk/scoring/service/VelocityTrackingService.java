@@ -0,0 +1,18 @@
+package com.risk.scoring.service;
+
+import com.risk.scoring.model.VelocityData;
+
+import java.time.Instant;
+
+public interface VelocityTrackingService {
+
+    void recordTransaction(String customerId, Instant timestamp);
+
+    /**
+     * Counts in the windows ending at {@code asOf}, on the same event-time
+     * base as {@link #recordTransaction}; the current time when null.
+     */
+    VelocityData getVelocityData(String customerId, Instant asOf);
+
+    int getTrackedCustomerCount();
+}
@@ -4,25 +4,61 @@ import com.riskplatform.common.entity.Anomaly;
 import com.riskplatform.common.entity.RiskAssessment;
 import com.riskplatform.common.enums.Severity;
 import com.riskplatform.common.enums.AnomalyType;
+import com.risk.scoring.model.AnomalySignals;
+import com.risk.scoring.model.AnomalyStats;
 import com.risk.scoring.model.dto.AnomaliesResponse;
+import com.risk.scoring.model.dto.AnomalyStatsResponse;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
 import com.risk.scoring.repository.AnomalyRepository;
+import com.risk.scoring.repository.AnomalyStatsRepository;
+import com.risk.scoring.repository.impl.AnomalyStatsRepositoryImpl;
 import com.risk.scoring.service.AnomalyDetectionService;
+import com.risk.scoring.service.CustomerStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.ZonedDateTime;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
+@Slf4j
 public class AnomalyDetectionServiceImpl implements AnomalyDetectionService {
 
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
+
     @Autowired
     private AnomalyRepository anomalyRepository;
 
+    @Autowired
+    private CustomerStatisticsService customerStatisticsService;
+
+    @Autowired
+    private AnomalyStatsRepository anomalyStatsRepository;
+
+    @Value("${risk.scoring.anomaly.aggregates.backfill-enabled:true}")
+    private boolean backfillEnabled;
+
+    @Value("${risk.scoring.anomaly.aggregates.backfill-lease-ms:300000}")
+    private long backfillLeaseMs;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
     @Override
     public List<Anomaly> detectAnomalies(RiskAssessment assessment) {
         List<Anomaly> anomalies = new ArrayList<>();
@@ -66,11 +102,60 @@ public class AnomalyDetectionServiceImpl implements AnomalyDetectionService {
         return anomalies;
     }
 
+    @Override
+    public List<Anomaly> detectAnomalies(RiskAssessment assessment, RiskCalculationRequest request) {
+        List<Anomaly> anomalies = new ArrayList<>();
+        if (assessment.getRiskFactors() != null) {
+            // Travel has no per-customer statistic; it still comes from the geographic factor
+            Integer geoRisk = assessment.getRiskFactors().getGeographicRisk();
+            if (geoRisk != null && geoRisk >= 15) {
+                Anomaly anomaly = createAnomaly(assessment, AnomalyType.IMPOSSIBLE_TRAVEL, Severity.HIGH);
+                anomaly.setDescription("Customer detected in location 1000+ km away in short time");
+                anomalies.add(anomaly);
+            }
+        }
+
+        AnomalySignals signals = customerStatisticsService.observe(request.getCustomerId(), request.getAmount(),
+                request.getTimestamp(), request.getMerchantCategory());
+        if (signals == null) {
+            return anomalies;
+        }
+
+        if (signals.getAmountSeverity() != null) {
+            Anomaly anomaly = createAnomaly(assessment, AnomalyType.AMOUNT_DEVIATION, signals.getAmountSeverity());
+            anomaly.setDescription(String.format(Locale.ROOT,
+                    "Amount %.2f is %.1f standard deviations above the customer's recent average of %.2f",
+                    signals.getAmount(), signals.getAmountZScore(), signals.getExpectedAmount()));
+            anomalies.add(anomaly);
+        }
+        if (signals.getVelocitySeverity() != null) {
+            Anomaly anomaly = createAnomaly(assessment, AnomalyType.VELOCITY_SPIKE, signals.getVelocitySeverity());
+            anomaly.setDescription(String.format(Locale.ROOT,
+                    "Customer is transacting %.1fx faster than their usual pace", signals.getVelocityRatio()));
+            anomalies.add(anomaly);
+        }
+        if (signals.getMerchantSeverity() != null) {
+            Anomaly anomaly = createAnomaly(assessment, AnomalyType.UNUSUAL_MERCHANT, signals.getMerchantSeverity());
+            anomaly.setDescription(signals.getMerchantShare() == 0
+                    ? "First transaction in merchant category " + signals.getMerchantCategory()
+                    : String.format(Locale.ROOT, "Merchant category %s accounts for only %.1f%% of past transactions",
+                            signals.getMerchantCategory(), signals.getMerchantShare() * 100));
+            anomalies.add(anomaly);
+        }
+
+        return anomalies;
+    }
+
     private Anomaly createAnomaly(RiskAssessment assessment, AnomalyType type, Severity severity) {
         Anomaly anomaly = new Anomaly();
-        anomaly.setAnomalyId("ANOM-" + ZonedDateTime.now().toLocalDate().toString().replace("-", "") + "-" +
-                UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        anomaly.setCustomerId(extractCustomerId(assessment.getTransactionId()));
+        // Derived from the transaction, so a retry detects the same anomaly under the same id
+        UUID suffix = assessment.getTransactionId() != null
+                ? UUID.nameUUIDFromBytes((assessment.getTransactionId() + ":" + type).getBytes(StandardCharsets.UTF_8))
+                : UUID.randomUUID();
+        Instant detectedAt = assessment.getTimestamp() != null ? assessment.getTimestamp() : Instant.now();
+        anomaly.setAnomalyId("ANOM-" + detectedAt.atZone(ZoneOffset.UTC).toLocalDate().toString().replace("-", "")
+                + "-" + suffix.toString().substring(0, 8).toUpperCase());
+        anomaly.setCustomerId(assessment.getCustomerId());
         anomaly.setTransactionId(assessment.getTransactionId());
         anomaly.setAnomalyType(type);
         anomaly.setSeverity(severity);
@@ -80,65 +165,154 @@ public class AnomalyDetectionServiceImpl implements AnomalyDetectionService {
         return anomaly;
     }
 
-    private String extractCustomerId(String transactionId) {
-        // Extract customer ID from transaction ID (assuming format
-        // T{customerId}{sequence})
-        if (transactionId != null && transactionId.startsWith("T")) {
-            // Remove the "T" prefix and extract the customer part
-            // This is a simplified implementation - in reality, you might need a more
-            // robust extraction
-            return transactionId.substring(1, Math.min(7, transactionId.length()));
-        }
-        return "UNKNOWN";
-    }
-
+    /**
+     * Inserts the anomalies and adds the newly stored ones to the pre-aggregated
+     * statistics, so anomalies a retried transaction detects again are neither
+     * stored nor counted twice.
+     */
     @Override
     public void saveAnomalies(List<Anomaly> anomalies) {
         if (anomalies != null && !anomalies.isEmpty()) {
-            anomalyRepository.saveAll(anomalies);
+            List<Anomaly> inserted = anomalyRepository.bulkInsertAnomalies(anomalies);
+            try {
+                anomalyStatsRepository.incrementCounts(inserted);
+            } catch (Exception e) {
+                // The anomalies themselves are stored; only the dashboard counts drift
+                log.error("Error updating anomaly statistics for {} anomalies: {}", inserted.size(),
+                        e.getMessage());
+            }
         }
     }
 
     @Override
     public AnomaliesResponse getRecentAnomalies(int limit) {
-        PageRequest pageRequest = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "detectedAt"));
-        List<Anomaly> anomalies = anomalyRepository.findAll(pageRequest).getContent();
+        List<Anomaly> anomalies = anomalyRepository.findAllByOrderByDetectedAtDesc(PageRequest.of(0, limit));
 
         AnomaliesResponse response = new AnomaliesResponse();
         response.setAnomalies(anomalies);
-        response.setTotalAnomalies((int) anomalyRepository.count());
+        response.setTotalAnomalies((int) anomalyStatsRepository.findById(AnomalyStatsRepositoryImpl.TOTAL_ID)
+                .map(AnomalyStats::getCount)
+                .orElse(0L)
+                .longValue());
         response.setTimeWindow("last_" + limit + "_anomalies");
 
         return response;
     }
 
     @Override
-    public List<Anomaly> getAnomaliesByCustomerId(String customerId) {
-        return anomalyRepository.findByCustomerId(customerId);
+    public List<Anomaly> getAnomaliesByCustomerId(String customerId, int page, int size) {
+        return anomalyRepository.findByCustomerIdOrderByDetectedAtDesc(customerId, PageRequest.of(page, size));
     }
 
     @Override
-    public List<Anomaly> getAnomaliesByType(String anomalyType) {
+    public List<Anomaly> getAnomaliesByType(String anomalyType, int page, int size) {
         try {
-            return anomalyRepository.findByAnomalyTypeAndSeverity(
+            return anomalyRepository.findByAnomalyTypeAndSeverityOrderByDetectedAtDesc(
                     AnomalyType.valueOf(anomalyType),
-                    Severity.HIGH); // Default severity
+                    Severity.HIGH, // Default severity
+                    PageRequest.of(page, size));
         } catch (IllegalArgumentException e) {
             return List.of();
         }
     }
 
     @Override
-    public List<Anomaly> getAnomaliesBySeverity(String severity) {
-        // 'findByStatusAndSeverity' - Common Anomaly doesn't have 'status'
-        // (OPEN/CLOSED).
-        // I should check AnomalyRepository.
-        // Assuming findBySeverity exist or I should implement it.
-        // And I can't filter by 'status' if it doesn't exist.
+    public List<Anomaly> getAnomaliesBySeverity(String severity, int page, int size) {
         try {
-            return anomalyRepository.findBySeverity(Severity.valueOf(severity.toUpperCase()));
+            return anomalyRepository.findBySeverityOrderByDetectedAtDesc(Severity.valueOf(severity.toUpperCase()),
+                    PageRequest.of(page, size));
         } catch (IllegalArgumentException e) {
             return List.of();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public AnomalyStatsResponse getAnomalyStats(int hours) {
+        AnomalyStats total = anomalyStatsRepository.findById(AnomalyStatsRepositoryImpl.TOTAL_ID)
+                .orElseGet(AnomalyStats::new);
+
+        Instant from = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(hours - 1L, ChronoUnit.HOURS);
+        List<AnomalyStatsResponse.HourlyAnomalyCount> hourly = new ArrayList<>();
+        for (AnomalyStats bucket : anomalyStatsRepository.findByKindAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+                AnomalyStats.KIND_HOUR, from)) {
+            hourly.add(new AnomalyStatsResponse.HourlyAnomalyCount(bucket.getBucketStart(), bucket.getCount(),
+                    orEmpty(bucket.getByType()), orEmpty(bucket.getBySeverity())));
+        }
+
+        return new AnomalyStatsResponse(null, total.getCount(), orEmpty(total.getByType()),
+                orEmpty(total.getBySeverity()), total.getLastDetectedAt(), hourly);
+    }
+
+    @Override
+    public AnomalyStatsResponse getCustomerAnomalyStats(String customerId) {
+        AnomalyStats stats = anomalyStatsRepository.findById("customer:" + customerId)
+                .orElseGet(AnomalyStats::new);
+        return new AnomalyStatsResponse(customerId, stats.getCount(), orEmpty(stats.getByType()),
+                orEmpty(stats.getBySeverity()), stats.getLastDetectedAt(), List.of());
+    }
+
+    private static Map<String, Long> orEmpty(Map<String, Long> counts) {
+        return counts != null ? counts : Map.of();
+    }
+
+    /**
+     * Counts anomalies stored before the statistics existed, once per database.
+     * The cutoff is the newest anomaly _id when the backfill is first claimed:
+     * anomalies up to it are counted here, in _id (insertion) order, and later
+     * ones by {@link #saveAnomalies}. Progress is checkpointed after every
+     * chunk, so a backfill whose instance stops is taken over, once its lease
+     * expires, from the last checkpoint; at most the chunk in flight when it
+     * stopped is counted twice. Re-checked periodically so a running instance
+     * also takes over.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${risk.scoring.anomaly.aggregates.backfill-lease-ms:300000}",
+            fixedDelayString = "${risk.scoring.anomaly.aggregates.backfill-lease-ms:300000}")
+    public void backfillStatistics() {
+        if (!backfillEnabled || !backfillRunning.compareAndSet(false, true)) {
+            return;
+        }
+
+        String owner = UUID.randomUUID().toString();
+        Document backfill;
+        try {
+            backfill = anomalyStatsRepository.claimBackfill(anomalyRepository.findNewestId(), owner,
+                    Duration.ofMillis(backfillLeaseMs));
+        } catch (Exception e) {
+            backfillRunning.set(false);
+            log.error("Could not claim the anomaly statistics backfill: {}", e.getMessage());
+            return;
+        }
+        if (backfill == null) {
+            backfillRunning.set(false);
+            return;
+        }
+
+        Object cutoffId = backfill.get("cutoffId");
+        Object resumeAfter = backfill.get("lastId");
+        Thread thread = new Thread(() -> {
+            long[] counted = {0};
+            try {
+                if (cutoffId != null) {
+                    anomalyRepository.forEachChunkById(resumeAfter, cutoffId, BACKFILL_CHUNK_SIZE,
+                            (chunk, lastId) -> {
+                                anomalyStatsRepository.incrementCounts(chunk);
+                                counted[0] += chunk.size();
+                                if (!anomalyStatsRepository.checkpointBackfill(owner, lastId, chunk.size())) {
+                                    throw new IllegalStateException("backfill was taken over by another instance");
+                                }
+                            });
+                }
+                anomalyStatsRepository.completeBackfill(owner);
+                log.info("Backfilled anomaly statistics from {} stored anomalies{}", counted[0],
+                        resumeAfter != null ? " (resumed after " + resumeAfter + ")" : "");
+            } catch (Exception e) {
+                log.error("Anomaly statistics backfill stopped after {} anomalies: {}", counted[0], e.getMessage());
+            } finally {
+                backfillRunning.set(false);
+            }
+        }, "anomaly-stats-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,329 @@
+package com.risk.scoring.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.risk.scoring.model.dto.BatchScoringResult;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.service.BatchScoringService;
+import com.risk.scoring.service.RiskScoringService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams batch scoring requests through a shared, bounded pool.
+ *
+ * Entries are parsed one at a time and grouped into chunks; each chunk is
+ * scored on the pool and its results are written by the request's own
+ * thread as soon as they arrive, so lines come back in completion order.
+ * Each request has at most {@code max-in-flight-chunks} chunks outstanding:
+ * beyond that the reader stops consuming the body until results have been
+ * written, so neither the request nor the response is ever held in memory.
+ * When the pool's queue is full the submitting thread scores the chunk
+ * itself.
+ */
+@Service
+@Slf4j
+public class BatchScoringServiceImpl implements BatchScoringService {
+
+    // 0 means one thread per available processor
+    @Value("${risk.scoring.batch.threads:0}")
+    private int threads;
+
+    @Value("${risk.scoring.batch.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${risk.scoring.batch.chunk-size:64}")
+    private int chunkSize;
+
+    @Value("${risk.scoring.batch.max-in-flight-chunks:16}")
+    private int maxInFlightChunks;
+
+    @Value("${risk.scoring.batch.max-entries:1000000}")
+    private long maxEntries;
+
+    @Autowired
+    private RiskScoringService riskScoringService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Counter scoredEntries;
+    private Counter failedEntries;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "batch-scoring-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        scoredEntries = meterRegistry.counter("risk.scoring.batch.entries", "outcome", "scored");
+        failedEntries = meterRegistry.counter("risk.scoring.batch.entries", "outcome", "failed");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public long scoreStream(InputStream in, OutputStream out, boolean ndjson) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(RiskCalculationRequest.class);
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        EntrySource source = ndjson ? new LineSource(reader, in) : new ArraySource(reader, in);
+
+        BlockingQueue<List<BatchScoringResult>> completed = new LinkedBlockingQueue<>();
+        long read = 0;
+        int outstanding = 0;
+        try (source; SequenceWriter sequence = writer.writeValues(out)) {
+            List<Entry> chunk = new ArrayList<>(chunkSize);
+            while (source.hasNext()) {
+                if (read == maxEntries) {
+                    chunk.add(new Entry(read, null, "Batch exceeds " + maxEntries + " entries; remaining input ignored"));
+                    break;
+                }
+                chunk.add(source.next(read++));
+                if (chunk.size() == chunkSize) {
+                    while (outstanding >= maxInFlightChunks) {
+                        write(sequence, take(completed));
+                        outstanding--;
+                    }
+                    submit(chunk, completed);
+                    outstanding++;
+                    chunk = new ArrayList<>(chunkSize);
+
+                    List<BatchScoringResult> results;
+                    while ((results = completed.poll()) != null) {
+                        write(sequence, results);
+                        outstanding--;
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(chunk, completed);
+                outstanding++;
+            }
+            for (; outstanding > 0; outstanding--) {
+                write(sequence, take(completed));
+            }
+        }
+        if (read > 0) {
+            out.write('\n');
+        }
+        log.info("Scored batch of {} entries", read);
+        return read;
+    }
+
+    private void submit(List<Entry> chunk, BlockingQueue<List<BatchScoringResult>> completed) {
+        executor.execute(() -> {
+            List<BatchScoringResult> results = new ArrayList<>(chunk.size());
+            for (Entry entry : chunk) {
+                results.add(score(entry));
+            }
+            completed.add(results);
+        });
+    }
+
+    private BatchScoringResult score(Entry entry) {
+        if (entry.error != null) {
+            failedEntries.increment();
+            return new BatchScoringResult(entry.index, null, null, entry.error);
+        }
+
+        RiskCalculationRequest request = entry.request;
+        Set<ConstraintViolation<RiskCalculationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            failedEntries.increment();
+            String error = violations.stream().map(ConstraintViolation::getMessage).sorted()
+                    .collect(Collectors.joining("; "));
+            return new BatchScoringResult(entry.index, request.getTransactionId(), null, error);
+        }
+
+        try {
+            BatchScoringResult result = new BatchScoringResult(entry.index, request.getTransactionId(),
+                    riskScoringService.evaluateRiskScore(request), null);
+            scoredEntries.increment();
+            return result;
+        } catch (Exception e) {
+            failedEntries.increment();
+            return new BatchScoringResult(entry.index, request.getTransactionId(), null,
+                    "Scoring failed: " + e.getClass().getSimpleName() + (e.getMessage() != null ? ": "
+                            + e.getMessage() : ""));
+        }
+    }
+
+    private static void write(SequenceWriter sequence, List<BatchScoringResult> results) throws IOException {
+        for (BatchScoringResult result : results) {
+            sequence.write(result);
+        }
+        sequence.flush();
+    }
+
+    private static List<BatchScoringResult> take(BlockingQueue<List<BatchScoringResult>> completed)
+            throws InterruptedIOException {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for batch scoring results");
+        }
+    }
+
+    private static final class Entry {
+        private final long index;
+        private final RiskCalculationRequest request;
+        private final String error;
+
+        private Entry(long index, RiskCalculationRequest request, String error) {
+            this.index = index;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+    private interface EntrySource extends AutoCloseable {
+        boolean hasNext() throws IOException;
+
+        Entry next(long index);
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * One request per line; a malformed line only fails its own entry. Blank
+     * lines are skipped.
+     */
+    private static final class LineSource implements EntrySource {
+        private final ObjectReader reader;
+        private final BufferedReader lines;
+        private String line;
+
+        private LineSource(ObjectReader reader, InputStream in) {
+            this.reader = reader;
+            this.lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            while (line == null) {
+                String next = lines.readLine();
+                if (next == null) {
+                    return false;
+                }
+                if (!next.isBlank()) {
+                    line = next;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Entry next(long index) {
+            String current = line;
+            line = null;
+            try {
+                return new Entry(index, reader.readValue(current), null);
+            } catch (JsonProcessingException e) {
+                return new Entry(index, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lines.close();
+        }
+    }
+
+    /**
+     * A JSON array read element by element. A syntax error cannot be skipped
+     * over, so it ends the batch with an error entry.
+     */
+    private static final class ArraySource implements EntrySource {
+        private final MappingIterator<RiskCalculationRequest> iterator;
+        private String failure;
+        private boolean failed;
+
+        private ArraySource(ObjectReader reader, InputStream in) throws IOException {
+            this.iterator = reader.readValues(in);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (failed) {
+                return false;
+            }
+            if (failure != null) {
+                return true;
+            }
+            try {
+                return iterator.hasNextValue();
+            } catch (IOException e) {
+                failure = "Invalid JSON: " + e.getMessage();
+                return true;
+            }
+        }
+
+        @Override
+        public Entry next(long index) {
+            if (failure == null) {
+                try {
+                    return new Entry(index, iterator.nextValue(), null);
+                } catch (IOException e) {
+                    failure = "Invalid JSON: " + e.getMessage();
+                }
+            }
+            failed = true;
+            return new Entry(index, null, failure);
+        }
+
+        @Override
+        public void close() throws IOException {
+            iterator.close();
+        }
+    }
+}
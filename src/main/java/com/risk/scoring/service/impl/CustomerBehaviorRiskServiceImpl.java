@@ -2,17 +2,24 @@ package com.risk.scoring.service.impl;
 
 import com.risk.scoring.model.CustomerProfileData;
 import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.rules.RiskRuleEngine;
+import com.risk.scoring.rules.RiskRulePlan;
 import com.risk.scoring.service.RiskFactorService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 
 @Service
 public class CustomerBehaviorRiskServiceImpl implements RiskFactorService {
 
     private static final double BEHAVIOR_RISK_WEIGHT = 0.25;
 
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
+
     @Override
     public int calculateRiskFactor(RiskCalculationRequest request) {
         CustomerProfileData customerProfile = request.getCustomerProfile();
@@ -21,23 +28,21 @@ public class CustomerBehaviorRiskServiceImpl implements RiskFactorService {
             return 0;
         }
 
+        RiskRulePlan plan = riskRuleEngine.currentPlan();
         int score = 0;
 
         // Calculate customer age in days
-        long customerAgeDays = ChronoUnit.DAYS.between(
-            customerProfile.getRegistrationDate(),
-            Instant.now()
-        );
+        long customerAgeDays = (System.currentTimeMillis()
+                - customerProfile.getRegistrationDate().toEpochMilli()) / MILLIS_PER_DAY;
 
-        if (customerAgeDays < 30) {
+        if (customerAgeDays < plan.getNewCustomerDays()) {
             // New customer
             score = 25;
         } else if (customerProfile.isFraudHistory()) {
             score = 20;
-        } else if (customerProfile.getFailedTransactionsLast7Days() > 3) {
+        } else if (customerProfile.getFailedTransactionsLast7Days() > plan.getFailedTransactionsThreshold()) {
             score = 15;
-        } else if (customerProfile.getAccountStatus() == com.risk.scoring.model.enums.AccountStatus.DORMANT) {
-            // DORMANT = no txn > 90 days
+        } else if (isDormant(customerProfile, request, plan)) {
             score = 12;
         } else {
             score = 0;
@@ -46,8 +51,40 @@ public class CustomerBehaviorRiskServiceImpl implements RiskFactorService {
         return score;
     }
 
+    /**
+     * Flagged DORMANT, or no transaction for the plan's {@code dormantDays}
+     * before this one, whether or not the status has caught up yet.
+     */
+    private static boolean isDormant(CustomerProfileData customerProfile, RiskCalculationRequest request,
+            RiskRulePlan plan) {
+        if (customerProfile.getAccountStatus() == com.risk.scoring.model.enums.AccountStatus.DORMANT) {
+            return true;
+        }
+        Instant lastTransactionTime = customerProfile.getLastTransactionTime();
+        if (lastTransactionTime == null) {
+            return false;
+        }
+        long now = request.getTimestamp() != null ? request.getTimestamp().toEpochMilli() : System.currentTimeMillis();
+        return now - lastTransactionTime.toEpochMilli() >= plan.getDormantDays() * MILLIS_PER_DAY;
+    }
+
     @Override
     public double getWeight() {
         return BEHAVIOR_RISK_WEIGHT;
     }
+
+    @Override
+    public String getFactorName() {
+        return "behavior";
+    }
+
+    @Override
+    public int getMaxScore() {
+        return 25;
+    }
+
+    @Override
+    public int getCost() {
+        return 2;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.risk.scoring.service.impl;
 
+import com.risk.scoring.cache.CustomerRiskProfileCache;
 import com.risk.scoring.model.*;
 import com.riskplatform.common.enums.RiskLevel;
 import com.riskplatform.common.entity.RiskAssessment;
@@ -9,22 +10,59 @@ import com.riskplatform.common.entity.ScoreHistoryEntry;
 import com.riskplatform.common.entity.CustomerRiskProfile;
 import com.risk.scoring.model.dto.CustomerRiskProfileResponse;
 import com.risk.scoring.model.dto.CustomerProfileSummary;
+import com.risk.scoring.model.dto.RiskTrendPoint;
 import com.risk.scoring.repository.CustomerRiskProfileRepository;
 import com.risk.scoring.service.CustomerRiskProfileService;
+import com.risk.scoring.service.RiskScoringService;
+import com.risk.scoring.service.ScoreSeriesService;
+import com.risk.scoring.service.VelocityTrackingService;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
 
 @Service
 public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileService {
 
+    public enum UpdateMode {
+        // Load the profile, update it in memory and save it whole (debounced)
+        READ_MODIFY_WRITE,
+        // Apply every assessment as one atomic pipeline update, without reading first
+        ATOMIC
+    }
+
+    @Value("${risk.scoring.profile.update-mode:READ_MODIFY_WRITE}")
+    private UpdateMode updateMode;
+
     @Autowired
     private CustomerRiskProfileRepository customerRiskProfileRepository;
 
+    @Autowired
+    private VelocityTrackingService velocityTrackingService;
+
+    @Autowired
+    private CustomerRiskProfileCache customerRiskProfileCache;
+
+    @Autowired
+    private ScoreSeriesService scoreSeriesService;
+
+    @Autowired
+    private RiskScoringService riskScoringService;
+
+    private static final int SCORE_HISTORY_SIZE = 30;
+    private static final String UPDATED_BY = "RiskScoringEngine";
+
     // Debounce threshold - profile won't be updated if score difference is less
     // than this
     private static final int DEBOUNCE_THRESHOLD = 5;
@@ -35,19 +73,79 @@ public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileServic
 
     @Override
     public Optional<CustomerRiskProfile> getCustomerRiskProfile(String customerId) {
+        if (customerRiskProfileCache.isEnabled()) {
+            return customerRiskProfileCache.get(customerId);
+        }
         return customerRiskProfileRepository.findByCustomerId(customerId);
     }
 
+    @Override
+    public Map<String, CustomerRiskProfile> getCustomerRiskProfiles(Collection<String> customerIds) {
+        Map<String, CustomerRiskProfile> profiles = new HashMap<>();
+        if (customerIds == null || customerIds.isEmpty()) {
+            return profiles;
+        }
+
+        if (customerRiskProfileCache.isEnabled()) {
+            profiles.putAll(customerRiskProfileCache.getAll(customerIds));
+            return profiles;
+        }
+
+        for (CustomerRiskProfile profile : customerRiskProfileRepository.findByCustomerIdIn(customerIds)) {
+            profiles.put(profile.getCustomerId(), profile);
+        }
+        return profiles;
+    }
+
     @Override
     public boolean updateCustomerRiskProfile(String customerId, CustomerRiskProfile updatedProfile) {
-        return customerRiskProfileRepository.updateWithDebounce(customerId, updatedProfile, DEBOUNCE_THRESHOLD);
+        if (!customerRiskProfileCache.isEnabled()) {
+            return customerRiskProfileRepository.updateWithDebounce(customerId, updatedProfile, DEBOUNCE_THRESHOLD);
+        }
+
+        // Same debounce rule as the repository, but compared against the cached copy
+        Optional<CustomerRiskProfile> existingProfile = customerRiskProfileCache.get(customerId);
+        if (existingProfile.isPresent() && Math.abs(existingProfile.get().getCurrentRiskScore()
+                - updatedProfile.getCurrentRiskScore()) <= DEBOUNCE_THRESHOLD) {
+            return false;
+        }
+        cacheProfile(updatedProfile);
+        return true;
     }
 
     @Override
     public CustomerRiskProfile saveCustomerRiskProfile(CustomerRiskProfile profile) {
+        if (customerRiskProfileCache.isEnabled()) {
+            cacheProfile(profile);
+            return profile;
+        }
         return customerRiskProfileRepository.save(profile);
     }
 
+    /**
+     * Whole-profile saves are written through unless write-behind is enabled,
+     * and always in ATOMIC mode: a pending copy flushed later would overwrite
+     * in-place updates made meanwhile.
+     */
+    private void cacheProfile(CustomerRiskProfile profile) {
+        if (isAtomicUpdateEnabled() || !customerRiskProfileCache.isWriteBehind()) {
+            customerRiskProfileCache.putAllAndWrite(List.of(profile));
+        } else {
+            customerRiskProfileCache.putDirty(profile);
+        }
+    }
+
+    @Override
+    public void saveCustomerRiskProfiles(Collection<CustomerRiskProfile> profiles) {
+        // Bulk saves are already coalesced, so they are written through even when
+        // the cache is enabled
+        if (customerRiskProfileCache.isEnabled()) {
+            customerRiskProfileCache.putAllAndWrite(profiles);
+            return;
+        }
+        customerRiskProfileRepository.bulkUpsertProfiles(profiles);
+    }
+
     @Override
     public CustomerRiskProfileResponse getCustomerRiskProfileResponse(String customerId) {
         Optional<CustomerRiskProfile> profileOpt = getCustomerRiskProfile(customerId);
@@ -63,7 +161,9 @@ public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileServic
         response.setRiskLevel(profile.getRiskLevel());
         response.setLastUpdated(profile.getLastUpdated());
 
-        if (profile.getScoreHistory() != null) {
+        if (scoreSeriesService.isEnabled()) {
+            response.setScoreHistory(scoreSeriesService.getRecentHistory(customerId, SCORE_HISTORY_SIZE));
+        } else if (profile.getScoreHistory() != null) {
             response.setScoreHistory(profile.getScoreHistory());
         }
 
@@ -83,9 +183,8 @@ public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileServic
     }
 
     @Override
-    public List<CustomerProfileSummary> getRiskTrend(String customerId, int days) {
-        // Implementation would go here
-        return List.of(); // Placeholder implementation
+    public List<RiskTrendPoint> getRiskTrend(String customerId, int days) {
+        return scoreSeriesService.getDailyTrend(customerId, days);
     }
 
     @Override
@@ -107,10 +206,9 @@ public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileServic
     }
 
     @Override
-    public VelocityData getVelocityData(String customerId) {
-        // Common entity does not store velocity data explicitly.
-        // Similar to original impl, return placeholder or null
-        return new VelocityData(0, 0);
+    public VelocityData getVelocityData(String customerId, Instant asOf) {
+        // Served from the in-memory sliding windows, never from MongoDB
+        return velocityTrackingService.getVelocityData(customerId, asOf);
     }
 
     public CustomerRiskProfile createCustomerRiskProfileFromAssessment(RiskAssessment assessment,
@@ -129,12 +227,14 @@ public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileServic
         profile.setLastUpdated(assessment.getTimestamp());
         profile.setVersion(1L);
 
-        // Initialize score history
-        ScoreHistoryEntry historyEntry = new ScoreHistoryEntry();
-        historyEntry.setDate(assessment.getTimestamp());
-        historyEntry.setScore(assessment.getRiskScore());
-        historyEntry.setLevel(assessment.getRiskLevel());
-        profile.setScoreHistory(List.of(historyEntry));
+        // Initialize score history, unless it is kept in the score series store
+        if (!scoreSeriesService.isEnabled()) {
+            ScoreHistoryEntry historyEntry = new ScoreHistoryEntry();
+            historyEntry.setDate(assessment.getTimestamp());
+            historyEntry.setScore(assessment.getRiskScore());
+            historyEntry.setLevel(assessment.getRiskLevel());
+            profile.setScoreHistory(List.of(historyEntry));
+        }
 
         // Initialize monthly stats
         MonthlyStats monthlyStats = new MonthlyStats();
@@ -176,10 +276,166 @@ public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileServic
         existingProfile.setCurrentRiskScore(assessment.getRiskScore());
         existingProfile.setRiskLevel(assessment.getRiskLevel());
         existingProfile.setLastUpdated(assessment.getTimestamp());
-        existingProfile.setUpdatedBy("RiskScoringEngine");
+        existingProfile.setUpdatedBy(UPDATED_BY);
         existingProfile.setVersion(existingProfile.getVersion() + 1);
 
-        // Update score history
+        if (scoreSeriesService.isEnabled()) {
+            // History lives in the score series store; the profile no longer carries it
+            existingProfile.setScoreHistory(null);
+        } else {
+            updateScoreHistory(existingProfile, assessment);
+        }
+
+        // Update monthly stats
+        updateMonthlyStats(existingProfile, assessment);
+
+        // Update risk factors status based on flags
+        updateRiskFactorsStatus(existingProfile, assessment);
+
+        return existingProfile;
+    }
+
+    @Override
+    public boolean isAtomicUpdateEnabled() {
+        return updateMode == UpdateMode.ATOMIC;
+    }
+
+    /**
+     * Applies the assessment to the stored profile in place, creating it if
+     * needed, and returns the updated profile without its score history.
+     */
+    @Override
+    public CustomerRiskProfile applyAssessment(RiskAssessment assessment, CustomerProfileData customerProfileData) {
+        String customerId = assessment.getCustomerId();
+        CustomerRiskProfile profile = customerRiskProfileRepository.findAndUpdateProfile(customerId,
+                assessmentUpdate(assessment, customerProfileData));
+        if (customerRiskProfileCache.isEnabled()) {
+            customerRiskProfileCache.invalidateAll(List.of(customerId));
+        }
+        return profile;
+    }
+
+    /**
+     * Applies a batch of assessments in place with one bulk write, in order,
+     * and returns the profiles that are new or changed significantly.
+     */
+    @Override
+    public List<CustomerRiskProfile> applyAssessments(List<RiskAssessment> assessments,
+            List<CustomerProfileData> customerProfiles) {
+        List<String> customerIds = new ArrayList<>(assessments.size());
+        List<AggregationUpdate> updates = new ArrayList<>(assessments.size());
+        Map<String, Integer> updateCounts = new HashMap<>();
+        for (int i = 0; i < assessments.size(); i++) {
+            RiskAssessment assessment = assessments.get(i);
+            customerIds.add(assessment.getCustomerId());
+            updates.add(assessmentUpdate(assessment, customerProfiles.get(i)));
+            updateCounts.merge(assessment.getCustomerId(), 1, Integer::sum);
+        }
+
+        List<CustomerRiskProfile> updated = customerRiskProfileRepository.bulkUpdateProfiles(customerIds, updates);
+        if (customerRiskProfileCache.isEnabled()) {
+            customerRiskProfileCache.invalidateAll(updateCounts.keySet());
+        }
+
+        List<CustomerRiskProfile> significant = new ArrayList<>();
+        for (CustomerRiskProfile profile : updated) {
+            // Created by this batch, or changed significantly by its last assessment
+            if (profile.getVersion() <= updateCounts.getOrDefault(profile.getCustomerId(), 0)
+                    || isSignificantUpdate(profile)) {
+                significant.add(profile);
+            }
+        }
+        return significant;
+    }
+
+    /**
+     * Significance of an in-place update, judged from the updated profile
+     * alone: the previous level is derived from the previous score.
+     */
+    @Override
+    public boolean isSignificantUpdate(CustomerRiskProfile updatedProfile) {
+        if (updatedProfile.getVersion() <= 1) {
+            return true;
+        }
+        CustomerRiskProfile previousProfile = new CustomerRiskProfile();
+        previousProfile.setCurrentRiskScore(updatedProfile.getPreviousRiskScore());
+        previousProfile.setRiskLevel(riskScoringService.determineRiskLevel(updatedProfile.getPreviousRiskScore()));
+        return isSignificantChange(previousProfile, updatedProfile);
+    }
+
+    /**
+     * The same changes as create/updateCustomerRiskProfileFromAssessment,
+     * expressed as one $set pipeline stage. Every expression in the stage
+     * sees the document as it was before the update, so the previous score
+     * and the running average are computed from the stored values.
+     */
+    private AggregationUpdate assessmentUpdate(RiskAssessment assessment, CustomerProfileData customerProfileData) {
+        int score = assessment.getRiskScore();
+        RiskLevel level = assessment.getRiskLevel();
+        Date timestamp = Date.from(assessment.getTimestamp());
+        int highRisk = level == RiskLevel.HIGH || level == RiskLevel.CRITICAL ? 1 : 0;
+        int flags = assessment.getRiskFlags() != null ? assessment.getRiskFlags().size() : 0;
+
+        Document count = ifNull("$monthlyStats.transactionCount", 0);
+        Document newCount = new Document("$add", List.of(count, 1));
+        // $toInt truncates, matching the integer division of the in-memory update
+        Document average = new Document("$toInt", new Document("$divide", List.of(
+                new Document("$add", List.of(
+                        new Document("$multiply", List.of(ifNull("$monthlyStats.averageRiskScore", 0), count)),
+                        score)),
+                newCount)));
+        Document monthlyStats = new Document("transactionCount", newCount)
+                .append("averageRiskScore", average)
+                .append("highRiskTransactions", new Document("$add",
+                        List.of(ifNull("$monthlyStats.highRiskTransactions", 0), highRisk)))
+                .append("flaggedTransactions", new Document("$add",
+                        List.of(ifNull("$monthlyStats.flaggedTransactions", 0), flags)));
+
+        String normal = com.risk.scoring.model.enums.GeographicStatus.NORMAL.name();
+        Integer geographicRisk = assessment.getRiskFactors().getGeographicRisk();
+        Integer velocityRisk = assessment.getRiskFactors().getVelocityRisk();
+        Document riskFactorStatus = new Document("customerAge", ifNull("$riskFactorStatus.customerAge",
+                        com.risk.scoring.model.enums.CustomerAgeStatus.NORMAL.name()))
+                .append("fraudHistory", ifNull("$riskFactorStatus.fraudHistory",
+                        customerProfileData != null && customerProfileData.isFraudHistory()))
+                .append("velocityStatus", velocityRisk != null && velocityRisk > 15
+                        ? com.risk.scoring.model.enums.VelocityStatus.HIGH_VELOCITY.name()
+                        : ifNull("$riskFactorStatus.velocityStatus", normal))
+                .append("geographicStatus", geographicRisk != null && geographicRisk > 10
+                        ? com.risk.scoring.model.enums.GeographicStatus.ANOMALY_DETECTED.name()
+                        : ifNull("$riskFactorStatus.geographicStatus", normal))
+                .append("merchantStatus", ifNull("$riskFactorStatus.merchantStatus", normal));
+
+        Object scoreHistory;
+        if (scoreSeriesService.isEnabled()) {
+            // History lives in the score series store; the profile no longer carries it
+            scoreHistory = "$$REMOVE";
+        } else {
+            Document entry = new Document("date", timestamp)
+                    .append("score", score)
+                    .append("level", level.name());
+            scoreHistory = new Document("$slice", List.of(
+                    new Document("$concatArrays", List.of(List.of(entry), ifNull("$scoreHistory", List.of()))),
+                    SCORE_HISTORY_SIZE));
+        }
+
+        Document set = new Document("previousRiskScore", ifNull("$currentRiskScore", 0))
+                .append("currentRiskScore", score)
+                .append("riskLevel", level.name())
+                .append("lastUpdated", timestamp)
+                .append("updatedBy", UPDATED_BY)
+                .append("version", new Document("$add", List.of(ifNull("$version", 0L), 1L)))
+                .append("scoreHistory", scoreHistory)
+                .append("monthlyStats", monthlyStats)
+                .append("riskFactorStatus", riskFactorStatus);
+        return AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+    }
+
+    private static Document ifNull(String field, Object fallback) {
+        return new Document("$ifNull", List.of(field, fallback));
+    }
+
+    private void updateScoreHistory(CustomerRiskProfile existingProfile, RiskAssessment assessment) {
         ScoreHistoryEntry historyEntry = new ScoreHistoryEntry();
         historyEntry.setDate(assessment.getTimestamp());
         historyEntry.setScore(assessment.getRiskScore());
@@ -191,21 +447,13 @@ public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileServic
             List<ScoreHistoryEntry> history = new ArrayList<>(existingProfile.getScoreHistory());
             history.add(0, historyEntry);
             // Keep only last 30 entries
-            if (history.size() > 30) {
-                history = history.subList(0, 30);
+            if (history.size() > SCORE_HISTORY_SIZE) {
+                history = history.subList(0, SCORE_HISTORY_SIZE);
             }
             existingProfile.setScoreHistory(history);
         } else {
             existingProfile.setScoreHistory(List.of(historyEntry));
         }
-
-        // Update monthly stats
-        updateMonthlyStats(existingProfile, assessment);
-
-        // Update risk factors status based on flags
-        updateRiskFactorsStatus(existingProfile, assessment);
-
-        return existingProfile;
     }
 
     private void updateMonthlyStats(CustomerRiskProfile profile, RiskAssessment assessment) {
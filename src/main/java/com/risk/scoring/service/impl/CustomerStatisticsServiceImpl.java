@@ -0,0 +1,275 @@
+package com.risk.scoring.service.impl;
+
+import com.risk.scoring.model.AnomalySignals;
+import com.risk.scoring.model.CustomerAnomalyState;
+import com.risk.scoring.repository.CustomerAnomalyStateRepository;
+import com.risk.scoring.service.CustomerStatisticsService;
+import com.risk.scoring.state.CustomerStateTable;
+import com.riskplatform.common.enums.Severity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online per-customer transaction statistics for anomaly detection.
+ *
+ * Each customer is a single double array holding an EWMA of the amount, the
+ * Welford running mean and sum of squared deviations, a fast and a slow EWMA of
+ * the gap between transactions, and a 16-bucket hashed merchant-category
+ * histogram that is halved once it reaches 1000 observations. Every transaction
+ * is scored against the state before it is folded in, in O(1) with no
+ * allocation unless something deviates.
+ *
+ * States live in a bounded {@link CustomerStateTable}. Changed and evicted
+ * states are checkpointed to MongoDB in bulk, and a customer missing from
+ * memory is restored from its checkpoint once.
+ */
+@Service
+@Slf4j
+public class CustomerStatisticsServiceImpl implements CustomerStatisticsService {
+
+    private static final int COUNT = 0;
+    private static final int EWMA_AMOUNT = 1;
+    private static final int MEAN = 2;
+    private static final int M2 = 3;
+    private static final int LAST_MILLIS = 4;
+    private static final int GAP_FAST = 5;
+    private static final int GAP_SLOW = 6;
+    private static final int GAP_COUNT = 7;
+    private static final int CATEGORY_TOTAL = 8;
+    private static final int CATEGORY_BUCKETS = 9;
+    private static final int CATEGORY_BUCKET_COUNT = 16;
+    private static final int STATE_LENGTH = CATEGORY_BUCKETS + CATEGORY_BUCKET_COUNT;
+
+    private static final double GAP_FAST_ALPHA = 0.5;
+    private static final double GAP_SLOW_ALPHA = 0.05;
+    // Sub-second bursts count as one second apart
+    private static final double MIN_GAP_MILLIS = 1000.0;
+    private static final double CATEGORY_DECAY_TOTAL = 1000.0;
+
+    @Value("${risk.scoring.anomaly.stats.max-customers:1000000}")
+    private int maxCustomers;
+
+    @Value("${risk.scoring.anomaly.stats.segments:64}")
+    private int segments;
+
+    @Value("${risk.scoring.anomaly.stats.idle-eviction-hours:72}")
+    private int idleEvictionHours;
+
+    @Value("${risk.scoring.anomaly.stats.min-samples:10}")
+    private int minSamples;
+
+    @Value("${risk.scoring.anomaly.stats.amount-alpha:0.1}")
+    private double amountAlpha;
+
+    @Value("${risk.scoring.anomaly.stats.amount-z-medium:3.0}")
+    private double amountZMedium;
+
+    @Value("${risk.scoring.anomaly.stats.amount-z-high:5.0}")
+    private double amountZHigh;
+
+    @Value("${risk.scoring.anomaly.stats.velocity-ratio-medium:3.0}")
+    private double velocityRatioMedium;
+
+    @Value("${risk.scoring.anomaly.stats.velocity-ratio-high:5.0}")
+    private double velocityRatioHigh;
+
+    @Value("${risk.scoring.anomaly.stats.merchant-rare-share:0.02}")
+    private double merchantRareShare;
+
+    @Value("${risk.scoring.anomaly.stats.checkpoint-batch-size:1000}")
+    private int checkpointBatchSize;
+
+    @Autowired
+    private CustomerAnomalyStateRepository customerAnomalyStateRepository;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<String, double[]> pendingEvictions = new ConcurrentHashMap<>();
+
+    private CustomerStateTable<double[]> stats;
+
+    @PostConstruct
+    public void init() {
+        stats = new CustomerStateTable<>(maxCustomers, segments, idleEvictionHours * 3_600_000L,
+                state -> (long) state[LAST_MILLIS], pendingEvictions::put);
+    }
+
+    @Override
+    public AnomalySignals observe(String customerId, Double amount, Instant timestamp, String merchantCategory) {
+        if (customerId == null) {
+            return null;
+        }
+        long eventMillis = timestamp != null ? timestamp.toEpochMilli() : System.currentTimeMillis();
+
+        // Restored outside the segment lock; only a customer missing from memory pays the read
+        double[] restored = stats.read(customerId, state -> Boolean.TRUE, Boolean.FALSE) ? null
+                : restore(customerId);
+
+        AnomalySignals signals = stats.update(customerId, id -> restored != null ? restored : new double[STATE_LENGTH],
+                state -> observe(state, amount, eventMillis, merchantCategory));
+        dirty.add(customerId);
+        return signals;
+    }
+
+    @Override
+    public int getTrackedCustomerCount() {
+        return stats.size();
+    }
+
+    private AnomalySignals observe(double[] state, Double amount, long eventMillis, String merchantCategory) {
+        Severity amountSeverity = null;
+        double expectedAmount = state[EWMA_AMOUNT];
+        double amountZScore = 0;
+        if (amount != null) {
+            double n = state[COUNT];
+            if (n >= minSamples) {
+                double stdDev = Math.sqrt(state[M2] / (n - 1));
+                if (stdDev > 0) {
+                    // Distance from the recent level, in units of the long-run spread
+                    amountZScore = (amount - expectedAmount) / stdDev;
+                    amountSeverity = severity(amountZScore, amountZMedium, amountZHigh);
+                }
+            }
+
+            n++;
+            double delta = amount - state[MEAN];
+            state[MEAN] += delta / n;
+            state[M2] += delta * (amount - state[MEAN]);
+            state[COUNT] = n;
+            state[EWMA_AMOUNT] = n == 1 ? amount : expectedAmount + amountAlpha * (amount - expectedAmount);
+        }
+
+        Severity velocitySeverity = null;
+        double velocityRatio = 0;
+        double last = state[LAST_MILLIS];
+        if (last > 0 && eventMillis >= last) {
+            double gap = Math.max(eventMillis - last, MIN_GAP_MILLIS);
+            if (state[GAP_COUNT] == 0) {
+                state[GAP_FAST] = gap;
+                state[GAP_SLOW] = gap;
+            } else {
+                state[GAP_FAST] += GAP_FAST_ALPHA * (gap - state[GAP_FAST]);
+                state[GAP_SLOW] += GAP_SLOW_ALPHA * (gap - state[GAP_SLOW]);
+            }
+            state[GAP_COUNT]++;
+
+            if (state[GAP_COUNT] >= minSamples) {
+                velocityRatio = state[GAP_SLOW] / state[GAP_FAST];
+                velocitySeverity = severity(velocityRatio, velocityRatioMedium, velocityRatioHigh);
+            }
+        }
+        if (eventMillis > last) {
+            state[LAST_MILLIS] = eventMillis;
+        }
+
+        Severity merchantSeverity = null;
+        double merchantShare = 0;
+        if (merchantCategory != null && !merchantCategory.isEmpty()) {
+            int bucket = CATEGORY_BUCKETS + (merchantCategory.hashCode() & Integer.MAX_VALUE) % CATEGORY_BUCKET_COUNT;
+            double total = state[CATEGORY_TOTAL];
+            if (total >= minSamples) {
+                merchantShare = state[bucket] / total;
+                if (merchantShare == 0) {
+                    merchantSeverity = Severity.HIGH;
+                } else if (merchantShare < merchantRareShare) {
+                    merchantSeverity = Severity.MEDIUM;
+                }
+            }
+
+            state[bucket]++;
+            state[CATEGORY_TOTAL]++;
+            if (state[CATEGORY_TOTAL] >= CATEGORY_DECAY_TOTAL) {
+                // Halving keeps the shares and lets old habits fade
+                for (int i = CATEGORY_TOTAL; i < STATE_LENGTH; i++) {
+                    state[i] /= 2;
+                }
+            }
+        }
+
+        if (amountSeverity == null && velocitySeverity == null && merchantSeverity == null) {
+            return null;
+        }
+        return new AnomalySignals(amountSeverity, amount != null ? amount : 0, expectedAmount, amountZScore,
+                velocitySeverity, velocityRatio, merchantSeverity, merchantCategory, merchantShare);
+    }
+
+    private static Severity severity(double value, double medium, double high) {
+        if (value >= high) {
+            return Severity.HIGH;
+        }
+        return value >= medium ? Severity.MEDIUM : null;
+    }
+
+    private double[] restore(String customerId) {
+        double[] evicted = pendingEvictions.remove(customerId);
+        if (evicted != null) {
+            return evicted;
+        }
+        try {
+            return customerAnomalyStateRepository.findById(customerId)
+                    .map(CustomerAnomalyState::getStats)
+                    .filter(state -> state.length == STATE_LENGTH)
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Could not restore anomaly statistics for customer {}: {}", customerId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes every state changed or evicted since the last checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${risk.scoring.anomaly.stats.checkpoint-interval-ms:30000}")
+    @PreDestroy
+    public void checkpoint() {
+        if (dirty.isEmpty() && pendingEvictions.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<CustomerAnomalyState> batch = new ArrayList<>();
+        for (Iterator<String> it = dirty.iterator(); it.hasNext();) {
+            String customerId = it.next();
+            it.remove();
+            double[] copy = stats.read(customerId, double[]::clone, null);
+            if (copy != null) {
+                batch.add(new CustomerAnomalyState(customerId, copy, now));
+            }
+        }
+        for (Iterator<Map.Entry<String, double[]>> it = pendingEvictions.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, double[]> evicted = it.next();
+            it.remove();
+            batch.add(new CustomerAnomalyState(evicted.getKey(), evicted.getValue(), now));
+        }
+
+        for (int from = 0; from < batch.size(); from += checkpointBatchSize) {
+            List<CustomerAnomalyState> chunk = batch.subList(from, Math.min(from + checkpointBatchSize, batch.size()));
+            try {
+                customerAnomalyStateRepository.bulkUpsertStates(chunk);
+            } catch (Exception e) {
+                // Retried on the next checkpoint
+                log.error("Error checkpointing anomaly statistics for {} customers: {}", chunk.size(),
+                        e.getMessage());
+                for (CustomerAnomalyState state : chunk) {
+                    dirty.add(state.getCustomerId());
+                    if (stats.read(state.getCustomerId(), s -> Boolean.FALSE, Boolean.TRUE)) {
+                        pendingEvictions.putIfAbsent(state.getCustomerId(), state.getStats());
+                    }
+                }
+            }
+        }
+        log.debug("Checkpointed anomaly statistics for {} customers", batch.size());
+    }
+}
@@ -1,45 +1,81 @@
 package com.risk.scoring.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.risk.scoring.eventstore.EventStoreGroupCommitWriter;
 import com.risk.scoring.model.*;
+import com.risk.scoring.model.dto.EventPage;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
 import com.riskplatform.common.entity.EventStoreEntry;
 import com.riskplatform.common.entity.RiskAssessment;
 import com.riskplatform.common.entity.EventMetadata;
+import com.riskplatform.common.entity.RiskFlag;
 import com.risk.scoring.repository.EventStoreRepository;
 import com.risk.scoring.service.EventStoreService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 @Service
 public class EventStoreServiceImpl implements EventStoreService {
 
+    public static final String AGGREGATE_TYPE = "CustomerRiskProfile";
+    public static final String RISK_SCORE_CALCULATED = "RiskScoreCalculated";
+    public static final String SCORING_INPUT = "scoringInput";
+
     @Autowired
     private EventStoreRepository eventStoreRepository;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EventStoreGroupCommitWriter groupCommitWriter;
+
+    @Value("${risk.scoring.event-store.cursor-batch-size:1000}")
+    private int cursorBatchSize;
+
+    @Value("${risk.scoring.event-store.record-scoring-inputs:true}")
+    private boolean recordScoringInputs;
+
     @Override
     public EventStoreEntry saveRiskScoreEvent(RiskAssessment assessment, String customerId) {
+        try {
+            return appendRiskScoreEvent(assessment, customerId, null).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<EventStoreEntry> appendRiskScoreEvent(RiskAssessment assessment, String customerId,
+            RiskCalculationRequest input) {
+        return groupCommitWriter.append(createRiskScoreEvent(assessment, customerId, input));
+    }
+
+    @Override
+    public EventStoreEntry createRiskScoreEvent(RiskAssessment assessment, String customerId,
+            RiskCalculationRequest input) {
         EventStoreEntry event = new EventStoreEntry();
-        // Common EventStoreEntry uses String id (which is @Id) so we can set it or let
-        // Mongo gen it.
-        // Local used "event-" + UUID.
-        event.setId("event-" + UUID.randomUUID().toString());
+        // Keyed by transaction, so a retried transaction cannot append a second event
+        String transactionId = assessment.getTransactionId();
+        event.setId("event-" + (transactionId != null ? transactionId : UUID.randomUUID().toString()));
         event.setAggregateId(customerId);
-        event.setAggregateType("CustomerRiskProfile");
-        event.setEventType("RiskScoreCalculated");
-        long v = getNextVersion(customerId);
-        event.setEventVersion((int) v);
-        event.setVersion(v);
+        event.setAggregateType(AGGREGATE_TYPE);
+        event.setEventType(RISK_SCORE_CALCULATED);
+        // version is assigned when the event is appended
 
         // Create event map
         Map<String, Object> eventDataMap = new HashMap<>();
@@ -59,9 +95,23 @@ public class EventStoreServiceImpl implements EventStoreService {
         }
         eventDataMap.put("factors", factors);
 
+        // Flag names are kept so the profile can be rebuilt from the events alone
+        List<String> riskFlags = new ArrayList<>();
+        if (assessment.getRiskFlags() != null) {
+            for (RiskFlag flag : assessment.getRiskFlags()) {
+                riskFlags.add(flag.getFlag());
+            }
+        }
+        eventDataMap.put("riskFlags", riskFlags);
+
         eventDataMap.put("decision", assessment.getDecision());
         eventDataMap.put("decisionDetails", assessment.getDecisionDetails());
 
+        // The full scoring input, as JSON-compatible maps, for offline rescoring
+        if (recordScoringInputs && input != null) {
+            eventDataMap.put(SCORING_INPUT, objectMapper.convertValue(input, Map.class));
+        }
+
         event.setEventData(eventDataMap);
 
         // Create metadata
@@ -74,24 +124,17 @@ public class EventStoreServiceImpl implements EventStoreService {
 
         event.setTimestamp(assessment.getTimestamp());
 
-        return eventStoreRepository.save(event);
-    }
-
-    private long getNextVersion(String customerId) {
-        // In a real implementation, this would get the next version number from the
-        // database
-        // For now, we'll return a fixed value
-        return System.currentTimeMillis() % 1000;
+        return event;
     }
 
     @Override
     public List<EventStoreEntry> getEventsByCustomerId(String customerId) {
         return eventStoreRepository.findByAggregateIdAndAggregateTypeOrderByVersionAsc(
-                customerId, "CustomerRiskProfile");
+                customerId, AGGREGATE_TYPE);
     }
 
     @Override
-    public Page<EventStoreEntry> getEventsByCustomerIdAndDateRange(String customerId,
+    public Slice<EventStoreEntry> getEventsByCustomerIdAndDateRange(String customerId,
             LocalDateTime startDate,
             LocalDateTime endDate,
             Pageable pageable) {
@@ -110,13 +153,64 @@ public class EventStoreServiceImpl implements EventStoreService {
         return eventStoreRepository.findRecentEventsByCustomerId(customerId, limit);
     }
 
+    @Override
+    public EventPage getEventsByCustomerId(String customerId, Instant from, Instant to, String continuationToken,
+            int limit) {
+        return toPage(eventStoreRepository.findCustomerEventsAfter(customerId, from, to,
+                decodeToken(continuationToken), limit), limit);
+    }
+
+    @Override
+    public EventPage getEventsByEventType(String eventType, Instant from, Instant to, String continuationToken,
+            int limit) {
+        return toPage(eventStoreRepository.findEventTypeEventsAfter(eventType, from, to,
+                decodeToken(continuationToken), limit), limit);
+    }
+
+    @Override
+    public Stream<EventStoreEntry> streamEventsByEventType(String eventType, Instant from, Instant to) {
+        return streamEventsByEventType(eventType, from, to, null);
+    }
+
+    @Override
+    public Stream<EventStoreEntry> streamEventsByEventType(String eventType, Instant from, Instant to,
+            EventContinuationToken after) {
+        return eventStoreRepository.streamEventTypeRange(eventType, from, to, after, cursorBatchSize);
+    }
+
+    @Override
+    public RiskCalculationRequest getScoringInput(EventStoreEntry event) {
+        Object input = event.getEventData() instanceof Map<?, ?> data ? data.get(SCORING_INPUT) : null;
+        return input != null ? objectMapper.convertValue(input, RiskCalculationRequest.class) : null;
+    }
+
+    private EventContinuationToken decodeToken(String continuationToken) {
+        return continuationToken == null || continuationToken.isEmpty() ? null
+                : EventContinuationToken.decode(continuationToken);
+    }
+
+    /**
+     * The repository reads one event past the limit; its presence means another
+     * page follows, continuing after the last event returned.
+     */
+    private EventPage toPage(List<EventStoreEntry> events, int limit) {
+        if (events.size() <= limit) {
+            return new EventPage(events, null);
+        }
+        List<EventStoreEntry> page = events.subList(0, limit);
+        EventStoreEntry last = page.get(limit - 1);
+        return new EventPage(new ArrayList<>(page),
+                new EventContinuationToken(last.getTimestamp(), last.getId()).encode());
+    }
+
     @Override
     public EventStoreEntry saveEvent(EventStoreEntry event) {
-        return eventStoreRepository.save(event);
+        eventStoreRepository.bulkSaveEvents(List.of(event));
+        return event;
     }
 
     @Override
     public void bulkSaveEvents(List<EventStoreEntry> events) {
-        eventStoreRepository.bulkSaveEvents(events);
+        eventStoreRepository.appendEvents(events);
     }
 }
\ No newline at end of file
@@ -2,12 +2,14 @@ package com.risk.scoring.service.impl;
 
 import com.riskplatform.common.model.Location;
 import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.rules.RiskRuleEngine;
+import com.risk.scoring.rules.RiskRulePlan;
 import com.risk.scoring.service.RiskFactorService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Set;
 
 @Service
@@ -17,34 +19,31 @@ public class GeographicRiskServiceImpl implements RiskFactorService {
 
     private static final Set<String> HIGH_RISK_COUNTRIES = Set.of("KP", "IR", "SY", "CU");
 
-    private static final int IMPOSSIBLE_TRAVEL_DISTANCE = 1000; // km
-    private static final int HIGH_RISK_DISTANCE = 500; // km
-
-    private static final int IMPOSSIBLE_TRAVEL_TIME = 1; // hours
-    private static final int HIGH_RISK_TIME = 2; // hours
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
 
     @Override
     public int calculateRiskFactor(RiskCalculationRequest request) {
         Location transactionLocation = request.getLocation();
         Location customerLastLocation = request.getCustomerProfile().getLastVerifiedLocation();
         Instant lastTxnTimestamp = request.getCustomerProfile().getLastTransactionTime();
-        ZonedDateTime currentTimestamp = ZonedDateTime.ofInstant(request.getTimestamp(),
-                java.time.ZoneId.systemDefault());
+        Instant currentTimestamp = request.getTimestamp();
 
         if (transactionLocation == null || customerLastLocation == null || lastTxnTimestamp == null) {
             return 0;
         }
 
+        RiskRulePlan plan = riskRuleEngine.currentPlan();
         int score = 0;
 
-        long timeBetweenHours = Duration.between(lastTxnTimestamp, currentTimestamp).toHours();
+        long timeBetweenHours = ChronoUnit.HOURS.between(lastTxnTimestamp, currentTimestamp);
 
         double distance = calculateHaversineDistance(customerLastLocation, transactionLocation);
 
         // Impossible travel detection
-        if (timeBetweenHours < IMPOSSIBLE_TRAVEL_TIME && distance > IMPOSSIBLE_TRAVEL_DISTANCE) {
+        if (timeBetweenHours < plan.getImpossibleTravelTime() && distance > plan.getImpossibleTravelDistance()) {
             score = 15; // Impossible travel
-        } else if (distance > HIGH_RISK_DISTANCE && timeBetweenHours < HIGH_RISK_TIME) {
+        } else if (distance > plan.getHighRiskDistance() && timeBetweenHours < plan.getHighRiskTime()) {
             score = 12;
         } else if (!request.getCustomerProfile().getAllowedCountries().contains(transactionLocation.getCountry())) {
             score = 10;
@@ -86,4 +85,25 @@ public class GeographicRiskServiceImpl implements RiskFactorService {
     public double getWeight() {
         return GEOGRAPHIC_RISK_WEIGHT;
     }
-}
\ No newline at end of file
+
+    @Override
+    public String getFactorName() {
+        return "geographic";
+    }
+
+    @Override
+    public int getMaxScore() {
+        return 15;
+    }
+
+    @Override
+    public int getCost() {
+        return 3;
+    }
+
+    @Override
+    public boolean hasDownstreamConsumers() {
+        // IMPOSSIBLE_TRAVEL and the profile's geographic status are derived from this score
+        return true;
+    }
+}
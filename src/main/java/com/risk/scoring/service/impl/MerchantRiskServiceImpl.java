@@ -1,21 +1,23 @@
 package com.risk.scoring.service.impl;
 
 import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.rules.RiskRuleEngine;
+import com.risk.scoring.rules.RiskRulePlan;
 import com.risk.scoring.service.RiskFactorService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Set;
+import java.util.List;
 
 @Service
 public class MerchantRiskServiceImpl implements RiskFactorService {
 
     private static final double MERCHANT_RISK_WEIGHT = 0.10;
 
-    private static final Set<String> HIGH_RISK_CATEGORIES = Set.of("Drugs", "Weapons", "Gambling", "Dark_Web");
-
-    private static final Set<String> MEDIUM_RISK_CATEGORIES = Set.of("Cash_Advance", "Wire_Transfer", "Crypto");
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
 
     @Override
     public int calculateRiskFactor(RiskCalculationRequest request) {
@@ -25,14 +27,15 @@ public class MerchantRiskServiceImpl implements RiskFactorService {
             return 0;
         }
 
+        RiskRulePlan plan = riskRuleEngine.currentPlan();
         int score = 0;
 
         // Check for high-risk merchant categories
-        if (HIGH_RISK_CATEGORIES.stream().anyMatch(merchant::contains)) {
+        if (containsAny(merchant, plan.getHighRiskCategories())) {
             score = 10;
         }
         // Check for medium-risk merchant categories
-        else if (MEDIUM_RISK_CATEGORIES.stream().anyMatch(merchant::contains)) {
+        else if (containsAny(merchant, plan.getMediumRiskCategories())) {
             score = 6;
         }
         // Check for merchant chargeback rate (placeholder - would come from merchant data in real implementation)
@@ -50,6 +53,16 @@ public class MerchantRiskServiceImpl implements RiskFactorService {
         return score;
     }
 
+    private boolean containsAny(String merchant, List<String> categories) {
+        // Indexed, so the hot path allocates no iterator
+        for (int i = 0; i < categories.size(); i++) {
+            if (merchant.contains(categories.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Placeholder method to check if merchant has high chargeback rate
      * In a real implementation, this would check actual merchant data
@@ -72,4 +85,19 @@ public class MerchantRiskServiceImpl implements RiskFactorService {
     public double getWeight() {
         return MERCHANT_RISK_WEIGHT;
     }
+
+    @Override
+    public String getFactorName() {
+        return "merchant";
+    }
+
+    @Override
+    public int getMaxScore() {
+        return 10;
+    }
+
+    @Override
+    public int getCost() {
+        return 1;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+package com.risk.scoring.service.impl;
+
+import com.risk.scoring.model.ProfileSnapshot;
+import com.risk.scoring.repository.EventStoreRepository;
+import com.risk.scoring.repository.ProfileSnapshotRepository;
+import com.risk.scoring.service.CustomerRiskProfileService;
+import com.risk.scoring.service.ProfileRebuildService;
+import com.riskplatform.common.entity.CustomerRiskProfile;
+import com.riskplatform.common.entity.EventStoreEntry;
+import com.riskplatform.common.entity.RiskAssessment;
+import com.riskplatform.common.entity.RiskFactors;
+import com.riskplatform.common.entity.RiskFlag;
+import com.riskplatform.common.enums.RiskLevel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds customer risk profiles by replaying RiskScoreCalculated events
+ * through the same fold the live path uses. A snapshot is written every
+ * {@code risk.scoring.event-store.snapshot-interval} events per customer, so a
+ * rebuild only ever streams the events after the latest snapshot, however long
+ * the customer's history is.
+ */
+@Service
+@Slf4j
+public class ProfileRebuildServiceImpl implements ProfileRebuildService {
+
+    @Autowired
+    private EventStoreRepository eventStoreRepository;
+
+    @Autowired
+    private ProfileSnapshotRepository profileSnapshotRepository;
+
+    @Autowired
+    private CustomerRiskProfileService customerRiskProfileService;
+
+    @Value("${risk.scoring.event-store.snapshot-interval:100}")
+    private int snapshotInterval;
+
+    @Value("${risk.scoring.event-store.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+
+    // Snapshots are taken off the scoring path; when the queue is full the request
+    // is dropped and the next interval boundary takes the snapshot instead
+    private final ThreadPoolExecutor snapshotExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1000), runnable -> {
+                Thread thread = new Thread(runnable, "profile-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @Override
+    public CustomerRiskProfile rebuildProfile(String customerId) {
+        Replay replay = replay(customerId);
+        if (replay.profile != null && replay.eventsApplied > 0) {
+            saveSnapshot(customerId, replay);
+        }
+        return replay.profile;
+    }
+
+    @Override
+    public CustomerRiskProfile rebuildAndSaveProfile(String customerId) {
+        CustomerRiskProfile profile = rebuildProfile(customerId);
+        if (profile == null) {
+            return null;
+        }
+        return customerRiskProfileService.saveCustomerRiskProfile(profile);
+    }
+
+    @Override
+    public void snapshotIfDue(List<EventStoreEntry> appendedEvents) {
+        if (snapshotInterval <= 0) {
+            return;
+        }
+        for (EventStoreEntry event : appendedEvents) {
+            // Versions skip the numbers of failed appends, so a boundary is occasionally
+            // missed and the snapshot waits for the next one
+            if (event.getVersion() % snapshotInterval == 0) {
+                String customerId = event.getAggregateId();
+                snapshotExecutor.execute(() -> snapshot(customerId));
+            }
+        }
+    }
+
+    private void snapshot(String customerId) {
+        try {
+            Replay replay = replay(customerId);
+            if (replay.profile != null && replay.eventsApplied > 0) {
+                saveSnapshot(customerId, replay);
+            }
+        } catch (Exception e) {
+            log.error("Error taking profile snapshot for customer {}: {}", customerId, e.getMessage());
+        }
+    }
+
+    private Replay replay(String customerId) {
+        ProfileSnapshot snapshot = profileSnapshotRepository.findById(customerId).orElse(null);
+
+        Replay replay = new Replay();
+        replay.profile = snapshot != null ? snapshot.getProfile() : null;
+        replay.version = snapshot != null ? snapshot.getVersion() : 0L;
+        replay.lastEventTimestamp = snapshot != null ? snapshot.getLastEventTimestamp() : null;
+
+        try (Stream<EventStoreEntry> events = eventStoreRepository.streamEvents(customerId,
+                EventStoreServiceImpl.AGGREGATE_TYPE, replay.version, replay.lastEventTimestamp, rebuildBatchSize)) {
+            events.forEach(event -> {
+                if (!EventStoreServiceImpl.RISK_SCORE_CALCULATED.equals(event.getEventType())) {
+                    return;
+                }
+                RiskAssessment assessment = toAssessment(customerId, event);
+                if (replay.profile == null) {
+                    replay.profile = customerRiskProfileService.createCustomerRiskProfileFromAssessment(assessment,
+                            null);
+                    replay.profile.setCustomerId(customerId);
+                } else {
+                    replay.profile = customerRiskProfileService
+                            .updateCustomerRiskProfileFromAssessment(replay.profile, assessment);
+                }
+                replay.version = event.getVersion();
+                replay.lastEventTimestamp = event.getTimestamp();
+                replay.eventsApplied++;
+            });
+        }
+
+        log.debug("Replayed {} events for customer {} up to version {}", replay.eventsApplied, customerId,
+                replay.version);
+        return replay;
+    }
+
+    private void saveSnapshot(String customerId, Replay replay) {
+        profileSnapshotRepository.save(new ProfileSnapshot(customerId, replay.version, replay.lastEventTimestamp,
+                replay.profile, Instant.now()));
+    }
+
+    /**
+     * Recreates the parts of the original assessment the profile fold reads.
+     */
+    @SuppressWarnings("unchecked")
+    private RiskAssessment toAssessment(String customerId, EventStoreEntry event) {
+        Map<String, Object> data = (Map<String, Object>) event.getEventData();
+
+        RiskAssessment assessment = new RiskAssessment();
+        assessment.setCustomerId(customerId);
+        assessment.setTransactionId((String) data.get("transactionId"));
+        assessment.setRiskScore(((Number) data.get("newScore")).intValue());
+        Object riskLevel = data.get("riskLevel");
+        if (riskLevel != null) {
+            assessment.setRiskLevel(RiskLevel.valueOf(riskLevel.toString()));
+        }
+        assessment.setTimestamp(event.getTimestamp());
+
+        RiskFactors factors = new RiskFactors();
+        Object factorData = data.get("factors");
+        if (factorData instanceof Map) {
+            Map<String, Object> factorMap = (Map<String, Object>) factorData;
+            factors.setTransactionRisk(toInteger(factorMap.get("transaction")));
+            factors.setBehaviorRisk(toInteger(factorMap.get("behavior")));
+            factors.setVelocityRisk(toInteger(factorMap.get("velocity")));
+            factors.setGeographicRisk(toInteger(factorMap.get("geographic")));
+            factors.setMerchantRisk(toInteger(factorMap.get("merchant")));
+        }
+        assessment.setRiskFactors(factors);
+
+        List<RiskFlag> flags = new ArrayList<>();
+        Object flagData = data.get("riskFlags");
+        if (flagData instanceof List) {
+            for (Object name : (List<Object>) flagData) {
+                RiskFlag flag = new RiskFlag();
+                flag.setFlag(String.valueOf(name));
+                flags.add(flag);
+            }
+        }
+        assessment.setRiskFlags(flags);
+
+        return assessment;
+    }
+
+    private Integer toInteger(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdown();
+    }
+
+    private static final class Replay {
+        private CustomerRiskProfile profile;
+        private long version;
+        private Instant lastEventTimestamp;
+        private int eventsApplied;
+    }
+}
@@ -0,0 +1,348 @@
+package com.risk.scoring.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.risk.scoring.model.RescoringJob;
+import com.risk.scoring.model.RescoringResult;
+import com.risk.scoring.model.dto.RescoringJobRequest;
+import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.rescoring.CollectionRescoringSink;
+import com.risk.scoring.rescoring.CsvRescoringSink;
+import com.risk.scoring.rescoring.EventStoreRescoringSource;
+import com.risk.scoring.rescoring.FileRescoringSource;
+import com.risk.scoring.rescoring.RescoringInput;
+import com.risk.scoring.rescoring.RescoringSink;
+import com.risk.scoring.rescoring.RescoringSource;
+import com.risk.scoring.repository.RescoringJobRepository;
+import com.risk.scoring.repository.RescoringResultRepository;
+import com.risk.scoring.service.EventStoreService;
+import com.risk.scoring.service.RescoringService;
+import com.risk.scoring.service.RiskScoringService;
+import com.riskplatform.common.entity.RiskAssessment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline rescoring: runs recorded or file-supplied scoring inputs through
+ * {@link RiskScoringService} again and writes the new scores next to the
+ * original ones, without touching profiles, the event store or Kafka.
+ *
+ * Inputs are read in chunks; each chunk is scored as a parallel stream on a
+ * dedicated fork-join pool and written before the next one is read. The
+ * source position, the sink position and the counters are checkpointed
+ * together every checkpoint interval, so a job that is killed, cancelled or
+ * fails resumes after its last checkpoint. Jobs this instance runs keep a
+ * heartbeat; RUNNING jobs whose heartbeat went stale are claimed and resumed
+ * by whichever instance notices first.
+ */
+@Service
+@Slf4j
+public class RescoringServiceImpl implements RescoringService {
+
+    @Value("${risk.scoring.rescoring.directory:rescoring}")
+    private String directory;
+
+    // 0 means one worker per available processor
+    @Value("${risk.scoring.rescoring.parallelism:0}")
+    private int parallelism;
+
+    @Value("${risk.scoring.rescoring.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${risk.scoring.rescoring.checkpoint-interval-ms:5000}")
+    private long checkpointIntervalMs;
+
+    @Value("${risk.scoring.rescoring.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${risk.scoring.rescoring.lease-timeout-ms:300000}")
+    private long leaseTimeoutMs;
+
+    @Value("${risk.scoring.rescoring.auto-resume:true}")
+    private boolean autoResume;
+
+    @Autowired
+    private RiskScoringService riskScoringService;
+
+    @Autowired
+    private EventStoreService eventStoreService;
+
+    @Autowired
+    private RescoringJobRepository rescoringJobRepository;
+
+    @Autowired
+    private RescoringResultRepository rescoringResultRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String ownerId = UUID.randomUUID().toString();
+    // Jobs claimed by this instance, queued or running
+    private final Set<String> ownedJobs = ConcurrentHashMap.newKeySet();
+
+    private Path baseDirectory;
+    private ForkJoinPool scoringPool;
+    private ExecutorService jobExecutor;
+
+    @PostConstruct
+    public void init() {
+        baseDirectory = Paths.get(directory).toAbsolutePath().normalize();
+        scoringPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        jobExecutor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "rescoring-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs stay RUNNING and are resumed once their lease expires
+        jobExecutor.shutdownNow();
+        scoringPool.shutdownNow();
+    }
+
+    @Override
+    public RescoringJob startJob(RescoringJobRequest request) {
+        RescoringJob job = new RescoringJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setSource(request.getSource());
+        job.setOutput(request.getOutput());
+
+        if (request.getSource() == RescoringJob.Source.EVENT_STORE) {
+            if (request.getFrom() == null || request.getTo() == null || !request.getFrom().isBefore(request.getTo())) {
+                throw new IllegalArgumentException("An event store job needs a range with from before to");
+            }
+            job.setFrom(request.getFrom());
+            job.setTo(request.getTo());
+        } else {
+            if (request.getInputFile() == null || !Files.isRegularFile(resolve(request.getInputFile()))) {
+                throw new IllegalArgumentException("Input file not found in the rescoring directory");
+            }
+            job.setInputFile(request.getInputFile());
+        }
+
+        if (request.getOutput() == RescoringJob.Output.CSV) {
+            if (request.getOutputFile() == null || Files.exists(resolve(request.getOutputFile()))) {
+                throw new IllegalArgumentException("A CSV job needs an output file that does not exist yet");
+            }
+            job.setOutputFile(request.getOutputFile());
+        }
+
+        Instant now = Instant.now();
+        job.setStatus(RescoringJob.Status.RUNNING);
+        job.setOwnerId(ownerId);
+        job.setHeartbeatAt(now);
+        job.setCreatedAt(now);
+        rescoringJobRepository.insert(job);
+
+        log.info("Starting rescoring job {} ({} to {})", job.getId(), job.getSource(), job.getOutput());
+        submit(job);
+        return job;
+    }
+
+    @Override
+    public Optional<RescoringJob> getJob(String jobId) {
+        return rescoringJobRepository.findById(jobId);
+    }
+
+    @Override
+    public RescoringJob resumeJob(String jobId) {
+        if (ownedJobs.contains(jobId)) {
+            // A cancelled job may still be winding down here
+            return null;
+        }
+        RescoringJob job = rescoringJobRepository.claim(jobId, ownerId, staleBefore());
+        if (job != null) {
+            log.info("Resuming rescoring job {} after {} inputs", jobId, job.getRead());
+            submit(job);
+        }
+        return job;
+    }
+
+    @Override
+    public boolean cancelJob(String jobId) {
+        return rescoringJobRepository.cancel(jobId);
+    }
+
+    /**
+     * Renews the lease of the jobs this instance holds and picks up jobs whose
+     * owner stopped renewing theirs.
+     */
+    @Scheduled(fixedDelayString = "${risk.scoring.rescoring.heartbeat-interval-ms:60000}")
+    public void maintainJobs() {
+        rescoringJobRepository.heartbeat(new ArrayList<>(ownedJobs), ownerId);
+        if (!autoResume) {
+            return;
+        }
+
+        Instant staleBefore = staleBefore();
+        for (RescoringJob stale : rescoringJobRepository.findByStatusAndHeartbeatAtBefore(
+                RescoringJob.Status.RUNNING, staleBefore)) {
+            if (ownedJobs.size() >= maxConcurrentJobs) {
+                break;
+            }
+            RescoringJob job = rescoringJobRepository.claim(stale.getId(), ownerId, staleBefore);
+            if (job != null) {
+                log.info("Resuming abandoned rescoring job {} after {} inputs", job.getId(), job.getRead());
+                submit(job);
+            }
+        }
+    }
+
+    private void submit(RescoringJob job) {
+        ownedJobs.add(job.getId());
+        jobExecutor.execute(() -> {
+            try {
+                run(job);
+            } finally {
+                ownedJobs.remove(job.getId());
+            }
+        });
+    }
+
+    private void run(RescoringJob job) {
+        RescoringJob.Status outcome = RescoringJob.Status.COMPLETED;
+        String error = null;
+        try (RescoringSource source = openSource(job); RescoringSink sink = openSink(job)) {
+            long lastCheckpoint = System.currentTimeMillis();
+            List<RescoringInput> chunk;
+            while (!(chunk = source.nextChunk(chunkSize)).isEmpty()) {
+                List<RescoringInput> inputs = chunk;
+                List<RescoringResult> results = scoringPool.submit(() -> inputs.parallelStream()
+                        .map(input -> rescore(job.getId(), input))
+                        .filter(Objects::nonNull)
+                        .toList()).join();
+                sink.write(results);
+                count(job, inputs, results);
+
+                if (System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMs) {
+                    if (!checkpoint(job, source, sink)) {
+                        log.info("Rescoring job {} was cancelled or taken over; stopping", job.getId());
+                        return;
+                    }
+                    lastCheckpoint = System.currentTimeMillis();
+                }
+            }
+            if (!checkpoint(job, source, sink)) {
+                log.info("Rescoring job {} was cancelled or taken over; stopping", job.getId());
+                return;
+            }
+        } catch (Exception e) {
+            outcome = RescoringJob.Status.FAILED;
+            error = e.getMessage();
+            log.error("Rescoring job {} failed; it can be resumed from its last checkpoint", job.getId(), e);
+        }
+
+        if (rescoringJobRepository.finish(job.getId(), ownerId, outcome, error) && error == null) {
+            log.info("Rescoring job {} completed: {} read, {} rescored, {} skipped, {} failed, {} level changes",
+                    job.getId(), job.getRead(), job.getRescored(), job.getSkipped(), job.getFailed(),
+                    job.getLevelChanged());
+        }
+    }
+
+    private boolean checkpoint(RescoringJob job, RescoringSource source, RescoringSink sink) throws IOException {
+        source.checkpoint(job);
+        sink.checkpoint(job);
+        return rescoringJobRepository.checkpoint(job, ownerId);
+    }
+
+    private RescoringSource openSource(RescoringJob job) throws IOException {
+        if (job.getSource() == RescoringJob.Source.EVENT_STORE) {
+            return new EventStoreRescoringSource(eventStoreService, job);
+        }
+        return new FileRescoringSource(objectMapper.readerFor(RiskCalculationRequest.class),
+                resolve(job.getInputFile()), job);
+    }
+
+    private RescoringSink openSink(RescoringJob job) throws IOException {
+        if (job.getOutput() == RescoringJob.Output.CSV) {
+            Path file = resolve(job.getOutputFile());
+            Files.createDirectories(file.getParent());
+            return new CsvRescoringSink(file, job);
+        }
+        return new CollectionRescoringSink(rescoringResultRepository);
+    }
+
+    /**
+     * Scores one input; null for inputs that are skipped because they carry no
+     * scoring input.
+     */
+    private RescoringResult rescore(String jobId, RescoringInput input) {
+        if (input.getRequest() == null && input.getError() == null) {
+            return null;
+        }
+
+        RescoringResult result = new RescoringResult(jobId + ":" + input.getSourceId(), jobId,
+                input.getSourceId(), input.getTransactionId(), input.getCustomerId(), input.getTimestamp(),
+                input.getOriginalScore(), input.getOriginalLevel(), input.getOriginalDecision(),
+                null, null, null, input.getError());
+        if (input.getRequest() == null) {
+            return result;
+        }
+
+        try {
+            RiskAssessment assessment = riskScoringService.evaluateRiskScore(input.getRequest()).getRiskAssessment();
+            result.setNewScore(assessment.getRiskScore());
+            result.setNewLevel(assessment.getRiskLevel() != null ? assessment.getRiskLevel().name() : null);
+            result.setNewDecision(assessment.getDecision() != null ? assessment.getDecision().name() : null);
+        } catch (Exception e) {
+            result.setError("Scoring failed: " + e.getClass().getSimpleName()
+                    + (e.getMessage() != null ? ": " + e.getMessage() : ""));
+        }
+        return result;
+    }
+
+    private static void count(RescoringJob job, List<RescoringInput> inputs, List<RescoringResult> results) {
+        job.setRead(job.getRead() + inputs.size());
+        job.setSkipped(job.getSkipped() + inputs.size() - results.size());
+        for (RescoringResult result : results) {
+            if (result.getError() != null) {
+                job.setFailed(job.getFailed() + 1);
+                continue;
+            }
+            job.setRescored(job.getRescored() + 1);
+            if (result.getOriginalLevel() != null && !result.getOriginalLevel().equals(result.getNewLevel())) {
+                job.setLevelChanged(job.getLevelChanged() + 1);
+            }
+            if (result.getOriginalDecision() != null
+                    && !result.getOriginalDecision().equals(result.getNewDecision())) {
+                job.setDecisionChanged(job.getDecisionChanged() + 1);
+            }
+        }
+    }
+
+    private Path resolve(String file) {
+        Path path = baseDirectory.resolve(file).normalize();
+        if (!path.startsWith(baseDirectory)) {
+            throw new IllegalArgumentException("Files must be inside the rescoring directory");
+        }
+        return path;
+    }
+
+    private Instant staleBefore() {
+        return Instant.now().minusMillis(leaseTimeoutMs);
+    }
+}
@@ -5,6 +5,7 @@ import com.riskplatform.common.enums.RuleType;
 import com.risk.scoring.model.dto.RiskRuleRequest;
 import com.risk.scoring.model.dto.RiskRuleResponse;
 import com.risk.scoring.repository.RiskRuleRepository;
+import com.risk.scoring.rules.RiskRuleEngine;
 import com.risk.scoring.service.RiskRuleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,9 @@ public class RiskRuleServiceImpl implements RiskRuleService {
     @Autowired
     private RiskRuleRepository riskRuleRepository;
 
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
+
     @Override
     public List<RiskRule> getActiveRules() {
         return riskRuleRepository.findByEnabledIsTrue();
@@ -74,6 +78,7 @@ public class RiskRuleServiceImpl implements RiskRuleService {
 
         // Save rule
         rule = riskRuleRepository.save(rule);
+        riskRuleEngine.reload();
 
         // Create response
         RiskRuleResponse response = new RiskRuleResponse();
@@ -91,6 +96,7 @@ public class RiskRuleServiceImpl implements RiskRuleService {
         Optional<RiskRule> ruleOpt = riskRuleRepository.findById(ruleId);
         if (ruleOpt.isPresent()) {
             riskRuleRepository.deleteById(ruleId);
+            riskRuleEngine.reload();
             return true;
         }
         return false;
@@ -109,6 +115,7 @@ public class RiskRuleServiceImpl implements RiskRuleService {
         rule.setVersion(rule.getVersion() + 1);
 
         rule = riskRuleRepository.save(rule);
+        riskRuleEngine.reload();
 
         RiskRuleResponse response = new RiskRuleResponse();
         response.setRuleId(rule.getRuleId());
@@ -132,6 +139,7 @@ public class RiskRuleServiceImpl implements RiskRuleService {
         rule.setVersion(rule.getVersion() + 1);
 
         rule = riskRuleRepository.save(rule);
+        riskRuleEngine.reload();
 
         RiskRuleResponse response = new RiskRuleResponse();
         response.setRuleId(rule.getRuleId());
@@ -6,60 +6,63 @@ import com.riskplatform.common.entity.RiskFlag;
 import com.riskplatform.common.entity.DecisionDetails;
 import com.riskplatform.common.enums.Decision;
 import com.riskplatform.common.enums.RiskLevel;
-import com.riskplatform.common.enums.Severity;
+import com.risk.scoring.engine.ParallelFactorExecutor;
+import com.risk.scoring.engine.RiskFactorRegistry;
+import com.risk.scoring.engine.RiskFlagDescriptor;
+import com.risk.scoring.engine.ScoringContext;
+import com.risk.scoring.engine.ShadowScorer;
 import com.risk.scoring.model.dto.RiskCalculationRequest;
 import com.risk.scoring.model.dto.RiskCalculationResponse;
-import com.risk.scoring.service.RiskFactorService;
 import com.risk.scoring.service.RiskScoringService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 @Service
 public class RiskScoringServiceImpl implements RiskScoringService {
 
-    @Autowired
-    @Qualifier("transactionRiskServiceImpl")
-    private RiskFactorService transactionRiskService;
+    private static final RiskFlagDescriptor[] RISK_FLAG_DESCRIPTORS = RiskFlagDescriptor.values();
+    private static final int MAX_WINDOW_ANOMALIES = 500;
 
     @Autowired
-    @Qualifier("customerBehaviorRiskServiceImpl")
-    private RiskFactorService behaviorRiskService;
+    private RiskFactorRegistry riskFactorRegistry;
 
     @Autowired
-    @Qualifier("velocityRiskServiceImpl")
-    private RiskFactorService velocityRiskService;
+    private ParallelFactorExecutor parallelFactorExecutor;
 
     @Autowired
-    @Qualifier("geographicRiskServiceImpl")
-    private RiskFactorService geographicRiskService;
+    private ShadowScorer shadowScorer;
 
-    @Autowired
-    @Qualifier("merchantRiskServiceImpl")
-    private RiskFactorService merchantRiskService;
+    // Held once so the serial path does not allocate a method reference per call
+    private final IntFunction<RiskLevel> riskLevelFunction = this::determineRiskLevel;
+    private final Function<RiskLevel, Decision> decisionFunction = this::determineDecision;
 
     @Override
     public RiskCalculationResponse calculateRiskScore(RiskCalculationRequest request) {
-        RiskFactors factors = calculateRiskFactors(request);
+        RiskCalculationResponse response = evaluateRiskScore(request);
+        RiskAssessment assessment = response.getRiskAssessment();
 
-        int riskScore = calculateOverallRiskScore(factors);
+        // Off the caller's thread; dropped rather than queued when the shadow pool is busy
+        shadowScorer.submit(request, assessment.getRiskScore(), assessment.getDecision(), decisionFunction);
 
-        RiskLevel riskLevel = determineRiskLevel(riskScore);
-        Decision decision = determineDecision(riskLevel);
+        return response;
+    }
 
-        RiskAssessment assessment = generateRiskAssessment(request, factors);
-        assessment.setRiskScore(riskScore);
-        assessment.setRiskLevel(riskLevel);
-        assessment.setDecision(decision);
+    @Override
+    public RiskCalculationResponse evaluateRiskScore(RiskCalculationRequest request) {
+        ScoringContext context = score(request);
 
-        double approvalConfidence = calculateApprovalConfidence(riskScore, riskLevel);
-        if (assessment.getDecisionDetails() != null) {
-            assessment.getDecisionDetails().setApprovalConfidence(approvalConfidence);
-        }
+        RiskAssessment assessment = generateRiskAssessment(request, toRiskFactors(context), context);
+        assessment.setRiskScore(context.getRiskScore());
+        assessment.setRiskLevel(context.getRiskLevel());
+        assessment.setDecision(determineDecision(context.getRiskLevel()));
+        assessment.getDecisionDetails()
+                .setApprovalConfidence(calculateApprovalConfidence(context.getRiskScore(), context.getRiskLevel()));
 
         RiskCalculationResponse response = new RiskCalculationResponse();
         response.setRiskAssessment(assessment);
@@ -67,28 +70,66 @@ public class RiskScoringServiceImpl implements RiskScoringService {
         return response;
     }
 
+    @Override
+    public List<RiskCalculationResponse> calculateRiskScores(List<RiskCalculationRequest> requests) {
+        List<RiskCalculationResponse> responses = new ArrayList<>(requests.size());
+        for (RiskCalculationRequest request : requests) {
+            responses.add(calculateRiskScore(request));
+        }
+        return responses;
+    }
+
     @Override
     public RiskFactors calculateRiskFactors(RiskCalculationRequest request) {
-        RiskFactors factors = new RiskFactors();
-        factors.setTransactionRisk(transactionRiskService.calculateRiskFactor(request));
-        factors.setBehaviorRisk(behaviorRiskService.calculateRiskFactor(request));
-        factors.setVelocityRisk(velocityRiskService.calculateRiskFactor(request));
-        factors.setGeographicRisk(geographicRiskService.calculateRiskFactor(request));
-        factors.setMerchantRisk(merchantRiskService.calculateRiskFactor(request));
-        return factors;
+        return toRiskFactors(score(request));
     }
 
-    private int calculateOverallRiskScore(RiskFactors factors) {
-        double score = 0.0;
-        score += (factors.getTransactionRisk() != null ? factors.getTransactionRisk() : 0)
-                * transactionRiskService.getWeight();
-        score += (factors.getBehaviorRisk() != null ? factors.getBehaviorRisk() : 0) * behaviorRiskService.getWeight();
-        score += (factors.getVelocityRisk() != null ? factors.getVelocityRisk() : 0) * velocityRiskService.getWeight();
-        score += (factors.getGeographicRisk() != null ? factors.getGeographicRisk() : 0)
-                * geographicRiskService.getWeight();
-        score += (factors.getMerchantRisk() != null ? factors.getMerchantRisk() : 0) * merchantRiskService.getWeight();
-
-        return (int) Math.round(score);
+    /**
+     * Runs the primitive scoring path into this thread's context. The returned
+     * context is only valid until the next call on the same thread.
+     */
+    private ScoringContext score(RiskCalculationRequest request) {
+        ScoringContext context = ScoringContext.acquire(riskFactorRegistry.size());
+        if (parallelFactorExecutor.isEnabled()) {
+            parallelFactorExecutor.evaluate(riskFactorRegistry.getFactors(), request, context);
+        } else {
+            riskFactorRegistry.evaluate(request, riskLevelFunction, context);
+        }
+        riskFactorRegistry.complete(context, riskLevelFunction);
+        return context;
+    }
+
+    /**
+     * Maps the built-in factors onto RiskFactors by name. Factors skipped by
+     * short-circuiting are left null; additional factors only contribute to the
+     * weighted score. Factor scores are small enough to hit the Integer cache,
+     * so boxing them does not allocate.
+     */
+    private RiskFactors toRiskFactors(ScoringContext context) {
+        RiskFactors factors = new RiskFactors();
+        int[] scores = context.getScores();
+        for (int i = 0; i < context.getEvaluatedCount(); i++) {
+            switch (riskFactorRegistry.getName(i)) {
+                case "transaction":
+                    factors.setTransactionRisk(scores[i]);
+                    break;
+                case "behavior":
+                    factors.setBehaviorRisk(scores[i]);
+                    break;
+                case "velocity":
+                    factors.setVelocityRisk(scores[i]);
+                    break;
+                case "geographic":
+                    factors.setGeographicRisk(scores[i]);
+                    break;
+                case "merchant":
+                    factors.setMerchantRisk(scores[i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return factors;
     }
 
     @Override
@@ -122,6 +163,21 @@ public class RiskScoringServiceImpl implements RiskScoringService {
 
     @Override
     public RiskAssessment generateRiskAssessment(RiskCalculationRequest request, RiskFactors factors) {
+        ScoringContext context = ScoringContext.acquire(riskFactorRegistry.size());
+        int[] scores = context.getScores();
+        for (int i = 0; i < scores.length; i++) {
+            Integer score = factorScore(factors, riskFactorRegistry.getName(i));
+            if (score != null) {
+                scores[i] = score;
+            }
+        }
+        context.setEvaluatedCount(scores.length);
+        riskFactorRegistry.complete(context, riskLevelFunction);
+        return generateRiskAssessment(request, factors, context);
+    }
+
+    private RiskAssessment generateRiskAssessment(RiskCalculationRequest request, RiskFactors factors,
+            ScoringContext context) {
         RiskAssessment assessment = new RiskAssessment();
         assessment.setTransactionId(request.getTransactionId());
         assessment.setRiskFactors(factors);
@@ -131,60 +187,43 @@ public class RiskScoringServiceImpl implements RiskScoringService {
         decisionDetails.setManualReviewRequired(false);
         assessment.setDecisionDetails(decisionDetails);
 
-        List<RiskFlag> riskFlags = generateRiskFlags(request, factors);
-        assessment.setRiskFlags(riskFlags);
+        assessment.setRiskFlags(materializeRiskFlags(context));
 
         return assessment;
     }
 
-    private List<RiskFlag> generateRiskFlags(RiskCalculationRequest request, RiskFactors factors) {
-        List<RiskFlag> flags = new ArrayList<>();
-
-        // Geographic anomaly flag
-        if (factors.getGeographicRisk() != null && factors.getGeographicRisk() > 10) {
-            RiskFlag flag = new RiskFlag();
-            flag.setFlag("GEOGRAPHIC_ANOMALY");
-            flag.setSeverity(Severity.MEDIUM);
-            flag.setDescription("Transaction from location 500+ km away");
-            flags.add(flag);
+    private List<RiskFlag> materializeRiskFlags(ScoringContext context) {
+        List<RiskFlag> flags = new ArrayList<>(context.getFlagCount() + (context.hasTimeouts() ? 1 : 0));
+        for (RiskFlagDescriptor descriptor : RISK_FLAG_DESCRIPTORS) {
+            if (context.hasFlag(descriptor)) {
+                flags.add(descriptor.toRiskFlag());
+            }
         }
-
-        // High velocity flag
-        if (factors.getVelocityRisk() != null && factors.getVelocityRisk() > 10) {
-            RiskFlag flag = new RiskFlag();
-            flag.setFlag("HIGH_VELOCITY");
-            flag.setSeverity(Severity.MEDIUM);
-            flag.setDescription("Unusually high transaction frequency");
-            flags.add(flag);
-        }
-
-        // High amount flag
-        if (factors.getTransactionRisk() != null && factors.getTransactionRisk() > 20) {
-            RiskFlag flag = new RiskFlag();
-            flag.setFlag("HIGH_AMOUNT");
-            flag.setSeverity(Severity.HIGH);
-            flag.setDescription("Transaction amount significantly higher than usual");
-            flags.add(flag);
-        }
-
-        // Add more flags based on specific risk factor values
-        if (factors.getBehaviorRisk() != null && factors.getBehaviorRisk() > 20) {
-            RiskFlag flag = new RiskFlag();
-            flag.setFlag("CUSTOMER_BEHAVIOR_RISK");
-            flag.setSeverity(Severity.HIGH);
-            flag.setDescription("High risk based on customer behavior patterns");
-            flags.add(flag);
+        if (context.hasTimeouts()) {
+            for (int i = 0; i < context.getEvaluatedCount(); i++) {
+                if (context.isTimedOut(i)) {
+                    flags.add(RiskFlagDescriptor.factorTimeoutFlag(riskFactorRegistry.getName(i)));
+                }
+            }
         }
+        return flags;
+    }
 
-        if (factors.getMerchantRisk() != null && factors.getMerchantRisk() > 5) {
-            RiskFlag flag = new RiskFlag();
-            flag.setFlag("MERCHANT_RISK");
-            flag.setSeverity(Severity.MEDIUM);
-            flag.setDescription("Transaction with high-risk merchant");
-            flags.add(flag);
+    private Integer factorScore(RiskFactors factors, String factorName) {
+        switch (factorName) {
+            case "transaction":
+                return factors.getTransactionRisk();
+            case "behavior":
+                return factors.getBehaviorRisk();
+            case "velocity":
+                return factors.getVelocityRisk();
+            case "geographic":
+                return factors.getGeographicRisk();
+            case "merchant":
+                return factors.getMerchantRisk();
+            default:
+                return null;
         }
-
-        return flags;
     }
 
     @Autowired
@@ -196,6 +235,12 @@ public class RiskScoringServiceImpl implements RiskScoringService {
     @Autowired
     private com.risk.scoring.repository.AnomalyRepository anomalyRepository;
 
+    @Autowired
+    private com.risk.scoring.rules.RiskRuleEngine riskRuleEngine;
+
+    @Autowired
+    private com.risk.scoring.service.ScoreSeriesService scoreSeriesService;
+
     @Override
     public com.risk.scoring.model.dto.CustomerRiskProfileResponse getCustomerRiskProfile(String customerId) {
         com.riskplatform.common.entity.CustomerRiskProfile profile = customerRiskProfileRepository
@@ -207,7 +252,9 @@ public class RiskScoringServiceImpl implements RiskScoringService {
         response.setCurrentRiskScore(profile.getCurrentRiskScore());
         response.setRiskLevel(profile.getRiskLevel());
         response.setLastUpdated(profile.getLastUpdated());
-        response.setScoreHistory(profile.getScoreHistory());
+        response.setScoreHistory(scoreSeriesService.isEnabled()
+                ? scoreSeriesService.getRecentHistory(customerId, 30)
+                : profile.getScoreHistory());
         response.setMonthlyStats(profile.getMonthlyStats());
 
         // Common entity doesn't store profile summary
@@ -240,6 +287,7 @@ public class RiskScoringServiceImpl implements RiskScoringService {
         rule.setEffectiveDate(request.getEffectiveDate());
 
         com.riskplatform.common.entity.RiskRule savedRule = riskRuleRepository.save(rule);
+        riskRuleEngine.reload();
 
         com.risk.scoring.model.dto.RiskRuleResponse response = new com.risk.scoring.model.dto.RiskRuleResponse();
         response.setRuleId(savedRule.getRuleId());
@@ -257,11 +305,14 @@ public class RiskScoringServiceImpl implements RiskScoringService {
             startTime = java.time.Instant.now().minus(24, java.time.temporal.ChronoUnit.HOURS);
         }
 
-        List<com.riskplatform.common.entity.Anomaly> anomalies = anomalyRepository.findByDetectedAtAfter(startTime);
+        // The newest anomalies of the window, with the window total from an index-backed count
+        List<com.riskplatform.common.entity.Anomaly> anomalies = anomalyRepository
+                .findByDetectedAtAfterOrderByDetectedAtDesc(startTime,
+                        org.springframework.data.domain.PageRequest.of(0, MAX_WINDOW_ANOMALIES));
 
         com.risk.scoring.model.dto.AnomaliesResponse response = new com.risk.scoring.model.dto.AnomaliesResponse();
         response.setAnomalies(anomalies);
-        response.setTotalAnomalies(anomalies.size());
+        response.setTotalAnomalies((int) anomalyRepository.countByDetectedAtAfter(startTime));
         response.setTimeWindow(timeWindow != null ? timeWindow : "last_hour");
 
         return response;
@@ -0,0 +1,188 @@
+package com.risk.scoring.service.impl;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.risk.scoring.model.ScoreSeriesBucket;
+import com.risk.scoring.model.dto.RiskTrendPoint;
+import com.risk.scoring.repository.ScoreSeriesRepository;
+import com.risk.scoring.repository.impl.ScoreSeriesRepositoryImpl;
+import com.risk.scoring.service.ScoreSeriesService;
+import com.risk.scoring.timeseries.ScoreChunk;
+import com.riskplatform.common.entity.ScoreHistoryEntry;
+import com.riskplatform.common.enums.RiskLevel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-customer risk score time series in daily buckets.
+ *
+ * Scores are collected in memory per customer-day and flushed on a timer as
+ * one compact chunk per bucket, so a busy customer costs one small
+ * {@code $push} per flush instead of a profile rewrite per transaction.
+ */
+@Service
+@Slf4j
+public class ScoreSeriesServiceImpl implements ScoreSeriesService {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final RiskLevel[] RISK_LEVELS = RiskLevel.values();
+    // Buckets read per round trip when collecting recent history
+    private static final int HISTORY_BUCKET_PAGE = 7;
+
+    @Value("${risk.scoring.score-series.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private ScoreSeriesRepository scoreSeriesRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, ScoreChunk> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("risk.score-series.pending-buckets", pending, Map::size)
+                .description("Customer-day buckets with scores waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void record(String customerId, Instant timestamp, int score, RiskLevel level) {
+        if (!enabled || customerId == null) {
+            return;
+        }
+        long millis = timestamp != null ? timestamp.toEpochMilli() : System.currentTimeMillis();
+        long dayStart = Math.floorDiv(millis, DAY_MILLIS) * DAY_MILLIS;
+        int levelOrdinal = level != null ? level.ordinal() : -1;
+
+        // compute() is atomic per key, so an append never races the flush removing the chunk
+        pending.compute(ScoreSeriesRepositoryImpl.bucketId(customerId, dayStart), (id, chunk) -> {
+            ScoreChunk target = chunk != null ? chunk : new ScoreChunk(customerId, dayStart);
+            target.append(millis, score, levelOrdinal);
+            return target;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${risk.scoring.score-series.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<ScoreChunk> chunks = new ArrayList<>(pending.size());
+        for (String bucketId : pending.keySet()) {
+            ScoreChunk chunk = pending.remove(bucketId);
+            if (chunk != null) {
+                chunks.add(chunk);
+            }
+        }
+
+        try {
+            scoreSeriesRepository.appendChunks(chunks);
+        } catch (BulkOperationException e) {
+            // The other upserts of the unordered bulk were applied; re-queueing them would count them twice
+            List<ScoreChunk> failed = new ArrayList<>(e.getErrors().size());
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(chunks.get(error.getIndex()));
+            }
+            log.error("Error flushing {} of {} score series chunks, retrying them on the next flush: {}",
+                    failed.size(), chunks.size(), e.getMessage());
+            requeue(failed);
+        } catch (Exception e) {
+            // Typically the bulk never reached the server, so all of it is retried
+            log.error("Error flushing {} score series chunks, retrying on the next flush: {}", chunks.size(),
+                    e.getMessage());
+            requeue(chunks);
+        }
+    }
+
+    private void requeue(List<ScoreChunk> chunks) {
+        for (ScoreChunk failed : chunks) {
+            pending.compute(ScoreSeriesRepositoryImpl.bucketId(failed.getCustomerId(), failed.getDayStartMillis()),
+                    (id, current) -> {
+                        if (current != null) {
+                            failed.absorb(current);
+                        }
+                        return failed;
+                    });
+        }
+    }
+
+    @Override
+    public List<RiskTrendPoint> getDailyTrend(String customerId, int days) {
+        Instant from = LocalDate.now(ZoneOffset.UTC).minusDays(days - 1L).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        List<RiskTrendPoint> trend = new ArrayList<>();
+        for (ScoreSeriesBucket bucket : scoreSeriesRepository.findDailyAggregates(customerId, from)) {
+            if (bucket.getCount() == 0) {
+                continue;
+            }
+            trend.add(new RiskTrendPoint(LocalDate.ofInstant(bucket.getDay(), ZoneOffset.UTC), bucket.getCount(),
+                    bucket.getMinScore(), (double) bucket.getScoreSum() / bucket.getCount(), bucket.getMaxScore()));
+        }
+        return trend;
+    }
+
+    @Override
+    public List<ScoreHistoryEntry> getRecentHistory(String customerId, int limit) {
+        List<ScoreHistoryEntry> history = new ArrayList<>();
+        for (int page = 0; history.size() < limit; page++) {
+            List<ScoreSeriesBucket> buckets = scoreSeriesRepository.findByCustomerIdOrderByDayDesc(customerId,
+                    PageRequest.of(page, HISTORY_BUCKET_PAGE));
+            for (ScoreSeriesBucket bucket : buckets) {
+                if (history.size() >= limit) {
+                    break;
+                }
+                List<ScoreHistoryEntry> day = decode(bucket);
+                day.sort(Comparator.comparing(ScoreHistoryEntry::getDate).reversed());
+                history.addAll(day.subList(0, Math.min(day.size(), limit - history.size())));
+            }
+            if (buckets.size() < HISTORY_BUCKET_PAGE) {
+                break;
+            }
+        }
+        return history;
+    }
+
+    private static List<ScoreHistoryEntry> decode(ScoreSeriesBucket bucket) {
+        List<ScoreHistoryEntry> points = new ArrayList<>(bucket.getCount());
+        if (bucket.getChunks() == null) {
+            return points;
+        }
+        for (ScoreSeriesBucket.Chunk chunk : bucket.getChunks()) {
+            ScoreChunk.decode(chunk, (millis, score, levelOrdinal) -> {
+                ScoreHistoryEntry entry = new ScoreHistoryEntry();
+                entry.setDate(Instant.ofEpochMilli(millis));
+                entry.setScore(score);
+                entry.setLevel(levelOrdinal >= 0 && levelOrdinal < RISK_LEVELS.length ? RISK_LEVELS[levelOrdinal]
+                        : null);
+                points.add(entry);
+            });
+        }
+        return points;
+    }
+}
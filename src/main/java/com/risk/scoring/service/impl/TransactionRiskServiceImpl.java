@@ -2,18 +2,29 @@ package com.risk.scoring.service.impl;
 
 import com.risk.scoring.model.CustomerProfileData;
 import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.rules.RiskRuleEngine;
+import com.risk.scoring.rules.RiskRulePlan;
 import com.risk.scoring.service.RiskFactorService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalTime;
+import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
 
 @Service
 public class TransactionRiskServiceImpl implements RiskFactorService {
 
     private static final double TRANSACTION_RISK_WEIGHT = 0.30;
 
+    private static final ZoneRules ZONE_RULES = ZoneId.systemDefault().getRules();
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final int BUSINESS_DAY_START = 6 * 3600;
+    private static final int BUSINESS_DAY_END = 22 * 3600;
+
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
+
     @Override
     public int calculateRiskFactor(RiskCalculationRequest request) {
         CustomerProfileData customerProfile = request.getCustomerProfile();
@@ -22,15 +33,16 @@ public class TransactionRiskServiceImpl implements RiskFactorService {
             return 0;
         }
 
+        RiskRulePlan plan = riskRuleEngine.currentPlan();
         int score = 0;
 
         double amount = request.getAmount().doubleValue();
         double avgTransactionAmount = customerProfile.getAvgTransactionAmount().doubleValue();
         double dailyLimit = customerProfile.getDailyLimit().doubleValue();
 
-        if (amount > avgTransactionAmount * 3) {
+        if (amount > avgTransactionAmount * plan.getAmountMultiplier()) {
             score = 30;
-        } else if (amount > dailyLimit * 0.8) {
+        } else if (amount > dailyLimit * plan.getDailyLimitThreshold()) {
             score = 20;
         } else if (amount > avgTransactionAmount) {
             score = 10;
@@ -38,12 +50,8 @@ public class TransactionRiskServiceImpl implements RiskFactorService {
             score = 0;
         }
 
-        java.time.Instant transactionTime = request.getTimestamp();
-        java.time.ZoneId zoneId = java.time.ZoneId.systemDefault();
-        java.time.LocalTime localTime = transactionTime.atZone(zoneId).toLocalTime();
-
         // Add bonus points for unusual timing (outside 6 AM - 10 PM)
-        if (localTime.isBefore(java.time.LocalTime.of(6, 0)) || localTime.isAfter(java.time.LocalTime.of(22, 0))) {
+        if (isOutsideBusinessHours(request.getTimestamp())) {
             score += 5;
         }
 
@@ -58,6 +66,18 @@ public class TransactionRiskServiceImpl implements RiskFactorService {
         return Math.min(score, 38);
     }
 
+    /**
+     * Local time-of-day check done on epoch seconds and the zone offset, without
+     * building a ZonedDateTime/LocalTime per transaction.
+     */
+    private boolean isOutsideBusinessHours(Instant transactionTime) {
+        int offsetSeconds = ZONE_RULES.getOffset(transactionTime).getTotalSeconds();
+        int secondOfDay = (int) Math.floorMod(transactionTime.getEpochSecond() + offsetSeconds, SECONDS_PER_DAY);
+        return secondOfDay < BUSINESS_DAY_START
+                || secondOfDay > BUSINESS_DAY_END
+                || (secondOfDay == BUSINESS_DAY_END && transactionTime.getNano() > 0);
+    }
+
     private boolean isHighRiskChannel(RiskCalculationRequest request) {
         // Placeholder implementation - in a real system this would check the actual
         // channel
@@ -74,4 +94,19 @@ public class TransactionRiskServiceImpl implements RiskFactorService {
     public double getWeight() {
         return TRANSACTION_RISK_WEIGHT;
     }
+
+    @Override
+    public String getFactorName() {
+        return "transaction";
+    }
+
+    @Override
+    public int getMaxScore() {
+        return 38;
+    }
+
+    @Override
+    public int getCost() {
+        return 2;
+    }
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package com.risk.scoring.service.impl;
 
 import com.risk.scoring.model.VelocityData;
 import com.risk.scoring.model.dto.RiskCalculationRequest;
+import com.risk.scoring.rules.RiskRuleEngine;
+import com.risk.scoring.rules.RiskRulePlan;
 import com.risk.scoring.service.RiskFactorService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -10,9 +13,8 @@ public class VelocityRiskServiceImpl implements RiskFactorService {
 
     private static final double VELOCITY_RISK_WEIGHT = 0.20;
 
-    private static final int TXN_COUNT_1HOUR_THRESHOLD = 20;
-    private static final int TXN_COUNT_1DAY_THRESHOLD_HIGH = 100;
-    private static final int TXN_COUNT_1DAY_THRESHOLD_MEDIUM = 50;
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
 
     @Override
     public int calculateRiskFactor(RiskCalculationRequest request) {
@@ -22,15 +24,16 @@ public class VelocityRiskServiceImpl implements RiskFactorService {
             return 0;
         }
 
+        RiskRulePlan plan = riskRuleEngine.currentPlan();
         int score = 0;
         int txnCount1Hour = velocityData.getTransactionsInLastHour();
         int txnCount1Day = velocityData.getTransactionsInLastDay();
 
-        if (txnCount1Hour > TXN_COUNT_1HOUR_THRESHOLD) {
+        if (txnCount1Hour > plan.getOneHourThreshold()) {
             score = 20;
-        } else if (txnCount1Day > TXN_COUNT_1DAY_THRESHOLD_HIGH) {
+        } else if (txnCount1Day > plan.getOneDayThreshold()) {
             score = 15;
-        } else if (txnCount1Day > TXN_COUNT_1DAY_THRESHOLD_MEDIUM) {
+        } else if (txnCount1Day > plan.getOneDayMediumThreshold()) {
             score = 8;
         }
 
@@ -41,4 +44,25 @@ public class VelocityRiskServiceImpl implements RiskFactorService {
     public double getWeight() {
         return VELOCITY_RISK_WEIGHT;
     }
-}
\ No newline at end of file
+
+    @Override
+    public String getFactorName() {
+        return "velocity";
+    }
+
+    @Override
+    public int getMaxScore() {
+        return 20;
+    }
+
+    @Override
+    public int getCost() {
+        return 1;
+    }
+
+    @Override
+    public boolean hasDownstreamConsumers() {
+        // The profile's velocity status is derived from this score
+        return true;
+    }
+}
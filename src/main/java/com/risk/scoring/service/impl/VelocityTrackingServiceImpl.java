@@ -0,0 +1,137 @@
+package com.risk.scoring.service.impl;
+
+import com.risk.scoring.model.VelocityData;
+import com.risk.scoring.service.VelocityTrackingService;
+import com.risk.scoring.state.CustomerStateTable;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Sliding-window transaction counters kept in memory per customer.
+ *
+ * Each customer is a single int array: a ring of twelve 5-minute slots covering
+ * the last hour, a ring of twenty-four 1-hour slots covering the last day, the
+ * last slot seen and running totals for both windows. Slots are expired lazily
+ * as time moves forward, so recording and reading are O(1) amortized and no
+ * object is allocated per transaction.
+ */
+@Service
+public class VelocityTrackingServiceImpl implements VelocityTrackingService {
+
+    private static final long SLOT_MILLIS = 5 * 60 * 1000L;
+    private static final int SLOTS_PER_HOUR = 12;
+    private static final int HOURS_PER_DAY = 24;
+
+    private static final int HOUR_RING = 0;
+    private static final int DAY_RING = HOUR_RING + SLOTS_PER_HOUR;
+    private static final int LAST_SLOT = DAY_RING + HOURS_PER_DAY;
+    private static final int HOUR_TOTAL = LAST_SLOT + 1;
+    private static final int DAY_TOTAL = HOUR_TOTAL + 1;
+    private static final int STATE_LENGTH = DAY_TOTAL + 1;
+
+    @Value("${risk.scoring.velocity.max-customers:1000000}")
+    private int maxCustomers;
+
+    @Value("${risk.scoring.velocity.segments:64}")
+    private int segments;
+
+    @Value("${risk.scoring.velocity.idle-eviction-hours:24}")
+    private int idleEvictionHours;
+
+    private CustomerStateTable<int[]> windows;
+
+    @PostConstruct
+    public void init() {
+        windows = new CustomerStateTable<>(maxCustomers, segments, idleEvictionHours * 3_600_000L,
+                state -> state[LAST_SLOT] * SLOT_MILLIS);
+    }
+
+    @Override
+    public void recordTransaction(String customerId, Instant timestamp) {
+        if (customerId == null) {
+            return;
+        }
+        long eventMillis = timestamp != null ? timestamp.toEpochMilli() : System.currentTimeMillis();
+        int slot = (int) (eventMillis / SLOT_MILLIS);
+
+        windows.update(customerId, id -> newState(slot), state -> {
+            advance(state, slot);
+            int last = state[LAST_SLOT];
+
+            // Late events still count as long as they fall inside the window
+            if (slot > last - SLOTS_PER_HOUR) {
+                state[HOUR_RING + slot % SLOTS_PER_HOUR]++;
+                state[HOUR_TOTAL]++;
+            }
+            int hour = slot / SLOTS_PER_HOUR;
+            if (hour > last / SLOTS_PER_HOUR - HOURS_PER_DAY) {
+                state[DAY_RING + hour % HOURS_PER_DAY]++;
+                state[DAY_TOTAL]++;
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public VelocityData getVelocityData(String customerId, Instant asOf) {
+        long asOfMillis = asOf != null ? asOf.toEpochMilli() : System.currentTimeMillis();
+        int slot = (int) (asOfMillis / SLOT_MILLIS);
+        return windows.read(customerId, state -> {
+            // Windows only move forward, so a late event reads them as they stand
+            advance(state, slot);
+            return new VelocityData(state[HOUR_TOTAL], state[DAY_TOTAL]);
+        }, new VelocityData(0, 0));
+    }
+
+    @Override
+    public int getTrackedCustomerCount() {
+        return windows.size();
+    }
+
+    private static int[] newState(int slot) {
+        int[] state = new int[STATE_LENGTH];
+        state[LAST_SLOT] = slot;
+        return state;
+    }
+
+    /**
+     * Moves the windows forward to {@code slot}, clearing every slot that fell out
+     * of them and subtracting it from the running totals.
+     */
+    private static void advance(int[] state, int slot) {
+        int last = state[LAST_SLOT];
+        if (slot <= last) {
+            return;
+        }
+
+        if (slot - last >= SLOTS_PER_HOUR) {
+            Arrays.fill(state, HOUR_RING, HOUR_RING + SLOTS_PER_HOUR, 0);
+            state[HOUR_TOTAL] = 0;
+        } else {
+            for (int s = last + 1; s <= slot; s++) {
+                int index = HOUR_RING + s % SLOTS_PER_HOUR;
+                state[HOUR_TOTAL] -= state[index];
+                state[index] = 0;
+            }
+        }
+
+        int lastHour = last / SLOTS_PER_HOUR;
+        int hour = slot / SLOTS_PER_HOUR;
+        if (hour - lastHour >= HOURS_PER_DAY) {
+            Arrays.fill(state, DAY_RING, DAY_RING + HOURS_PER_DAY, 0);
+            state[DAY_TOTAL] = 0;
+        } else {
+            for (int h = lastHour + 1; h <= hour; h++) {
+                int index = DAY_RING + h % HOURS_PER_DAY;
+                state[DAY_TOTAL] -= state[index];
+                state[index] = 0;
+            }
+        }
+
+        state[LAST_SLOT] = slot;
+    }
+}
@@ -0,0 +1,125 @@
+package com.risk.scoring.state;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded in-memory table of per-customer state. The table is split into
+ * independently locked segments, each an access-ordered LRU map, so memory is
+ * capped at {@code maxEntries} states and the least recently used customer is
+ * evicted first. Entries whose last activity is older than the idle timeout are
+ * evicted opportunistically as new customers are inserted.
+ *
+ * @param <S> the state type; callers should keep it compact (primitive arrays)
+ *            since one instance is held per customer
+ */
+public class CustomerStateTable<S> {
+
+    private final Segment<S>[] segments;
+    private final ToLongFunction<S> lastActivityMillis;
+    private final long idleTimeoutMillis;
+    private final BiConsumer<String, S> evictionListener;
+
+    public CustomerStateTable(int maxEntries, int segmentCount, long idleTimeoutMillis,
+            ToLongFunction<S> lastActivityMillis) {
+        this(maxEntries, segmentCount, idleTimeoutMillis, lastActivityMillis, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public CustomerStateTable(int maxEntries, int segmentCount, long idleTimeoutMillis,
+            ToLongFunction<S> lastActivityMillis, BiConsumer<String, S> evictionListener) {
+        if (maxEntries <= 0 || segmentCount <= 0) {
+            throw new IllegalArgumentException("maxEntries and segmentCount must be positive");
+        }
+        this.lastActivityMillis = lastActivityMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.evictionListener = evictionListener;
+
+        int perSegment = Math.max(1, maxEntries / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(this, perSegment);
+        }
+    }
+
+    /**
+     * Runs {@code action} against the customer's state under the segment lock,
+     * creating the state with {@code factory} if it does not exist yet.
+     */
+    public <R> R update(String customerId, Function<String, S> factory, Function<S, R> action) {
+        Segment<S> segment = segmentFor(customerId);
+        synchronized (segment) {
+            S state = segment.get(customerId);
+            if (state == null) {
+                state = factory.apply(customerId);
+                segment.put(customerId, state);
+            }
+            return action.apply(state);
+        }
+    }
+
+    /**
+     * Runs {@code action} against the customer's state under the segment lock, or
+     * returns {@code absent} without creating any state.
+     */
+    public <R> R read(String customerId, Function<S, R> action, R absent) {
+        Segment<S> segment = segmentFor(customerId);
+        synchronized (segment) {
+            S state = segment.get(customerId);
+            return state != null ? action.apply(state) : absent;
+        }
+    }
+
+    /**
+     * Visits every entry, one segment at a time. The visitor runs under the
+     * segment lock and must not call back into the table.
+     */
+    public void forEach(BiConsumer<String, S> visitor) {
+        for (Segment<S> segment : segments) {
+            synchronized (segment) {
+                segment.forEach(visitor);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<S> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<S> segmentFor(String customerId) {
+        int hash = customerId != null ? customerId.hashCode() : 0;
+        hash ^= (hash >>> 16);
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static final class Segment<S> extends LinkedHashMap<String, S> {
+        private final transient CustomerStateTable<S> table;
+        private final int capacity;
+
+        private Segment(CustomerStateTable<S> table, int capacity) {
+            super(16, 0.75f, true);
+            this.table = table;
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, S> eldest) {
+            boolean evict = size() > capacity || (table.idleTimeoutMillis > 0
+                    && System.currentTimeMillis() - table.lastActivityMillis.applyAsLong(eldest.getValue())
+                            > table.idleTimeoutMillis);
+            if (evict && table.evictionListener != null) {
+                table.evictionListener.accept(eldest.getKey(), eldest.getValue());
+            }
+            return evict;
+        }
+    }
+}
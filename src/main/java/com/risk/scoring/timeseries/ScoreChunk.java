@@ -0,0 +1,144 @@
+package com.risk.scoring.timeseries;
+
+import com.risk.scoring.model.ScoreSeriesBucket;
+
+import java.util.Arrays;
+
+/**
+ * Points of one customer-day collected between flushes, encoded compactly: the
+ * first timestamp in full, then each timestamp as a zig-zag varint delta from
+ * the previous one (usually 2-3 bytes, negative for late events), with one
+ * byte per score and one per risk level ordinal.
+ *
+ * Not thread-safe; callers confine each chunk to one writer at a time.
+ */
+public final class ScoreChunk {
+
+    private final String customerId;
+    private final long dayStartMillis;
+
+    private long startMillis;
+    private long lastMillis;
+    private byte[] deltas = new byte[16];
+    private int deltaLength;
+    private byte[] scores = new byte[8];
+    private byte[] levels = new byte[8];
+    private int count;
+    private int minScore = Integer.MAX_VALUE;
+    private int maxScore = Integer.MIN_VALUE;
+    private long scoreSum;
+
+    public ScoreChunk(String customerId, long dayStartMillis) {
+        this.customerId = customerId;
+        this.dayStartMillis = dayStartMillis;
+    }
+
+    public void append(long millis, int score, int levelOrdinal) {
+        if (count == 0) {
+            startMillis = millis;
+        } else {
+            writeVarLong(zigZag(millis - lastMillis));
+        }
+        lastMillis = millis;
+
+        if (count == scores.length) {
+            scores = Arrays.copyOf(scores, count * 2);
+            levels = Arrays.copyOf(levels, count * 2);
+        }
+        // Scores are 0-100 and levels a handful of ordinals, so a byte holds either
+        scores[count] = (byte) Math.max(0, Math.min(score, 127));
+        levels[count] = (byte) levelOrdinal;
+        count++;
+
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+        scoreSum += score;
+    }
+
+    /**
+     * Re-appends every point of {@code other}, e.g. to merge a chunk whose flush
+     * failed with the one collected since.
+     */
+    public void absorb(ScoreChunk other) {
+        decode(other.toStoredChunk(), this::append);
+    }
+
+    public ScoreSeriesBucket.Chunk toStoredChunk() {
+        return new ScoreSeriesBucket.Chunk(startMillis, Arrays.copyOf(deltas, deltaLength),
+                Arrays.copyOf(scores, count), Arrays.copyOf(levels, count));
+    }
+
+    /**
+     * Feeds every point of a stored chunk to {@code consumer}, in the order they
+     * were recorded.
+     */
+    public static void decode(ScoreSeriesBucket.Chunk chunk, PointConsumer consumer) {
+        byte[] storedScores = chunk.getScores();
+        if (storedScores == null || storedScores.length == 0) {
+            return;
+        }
+        byte[] storedLevels = chunk.getLevels();
+        byte[] storedDeltas = chunk.getDeltas();
+
+        long millis = chunk.getStartMillis();
+        int position = 0;
+        for (int i = 0; i < storedScores.length; i++) {
+            if (i > 0) {
+                long raw = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = storedDeltas[position++];
+                    raw |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                millis += (raw >>> 1) ^ -(raw & 1);
+            }
+            consumer.accept(millis, storedScores[i], storedLevels != null ? storedLevels[i] : -1);
+        }
+    }
+
+    private void writeVarLong(long value) {
+        if (deltaLength + 10 > deltas.length) {
+            deltas = Arrays.copyOf(deltas, deltas.length * 2);
+        }
+        while ((value & ~0x7FL) != 0) {
+            deltas[deltaLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        deltas[deltaLength++] = (byte) value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public long getDayStartMillis() {
+        return dayStartMillis;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getMinScore() {
+        return minScore;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public long getScoreSum() {
+        return scoreSum;
+    }
+
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(long millis, int score, int levelOrdinal);
+    }
+}